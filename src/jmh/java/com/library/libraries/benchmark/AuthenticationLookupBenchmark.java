@@ -0,0 +1,92 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.model.User;
+import com.library.libraries.service.imp.UserDetailsServiceImp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request user lookup cost as the users table grows. The exact lookup behind
+ * {@link UserDetailsServiceImp} should stay flat across sizes, while the legacy
+ * {@code like %username%} query grows with the table. The legacy query is kept here only as the
+ * baseline; it returns the first match, where the old repository method failed on several.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthenticationLookupBenchmark {
+
+    private static final int SAMPLE_SIZE = 1024;
+
+    private static final String LEGACY_LIKE_QUERY = "select u from User u where u.username like :username";
+
+    @Param({"1000", "10000", "100000"})
+    public int users;
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsServiceImp userDetailsService;
+    private EntityManager entityManager;
+
+    private final String[] usernames = new String[SAMPLE_SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = LibraryState.start("benchmark.books=0", "benchmark.users=" + users);
+        userDetailsService = context.getBean(UserDetailsServiceImp.class);
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            usernames[i] = BenchmarkDataset.username(random.nextInt(users));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(nextUsername());
+    }
+
+    @Benchmark
+    public Optional<User> legacyLikeLookup() {
+        List<User> users = entityManager.createQuery(LEGACY_LIKE_QUERY, User.class)
+                .setParameter("username", "%" + nextUsername() + "%")
+                .getResultList();
+        entityManager.clear();
+        return users.stream().findFirst();
+    }
+
+    private String nextUsername() {
+        return usernames[next++ & (SAMPLE_SIZE - 1)];
+    }
+}
@@ -0,0 +1,65 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.service.AuthorService;
+import com.library.libraries.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead as the search box issues it, one call per keystroke. Sampled so the report carries the p99,
+ * with the substring search the box used before as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class AutocompleteBenchmark {
+
+    private static final String[] KEYSTROKES = {"s", "si", "sil", "sile", "silen", "silent", "silent g"};
+
+    private BookService bookService;
+    private AuthorService authorService;
+    private int keystroke;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        bookService = library.getBean(BookService.class);
+        authorService = library.getBean(AuthorService.class);
+    }
+
+    private String nextPrefix() {
+        return KEYSTROKES[(keystroke++ & Integer.MAX_VALUE) % KEYSTROKES.length];
+    }
+
+    @Benchmark
+    public List<CompletionDto> completeTitles() {
+        return bookService.completeTitles(nextPrefix(), 10);
+    }
+
+    @Benchmark
+    public List<CompletionDto> completeAuthorNames() {
+        return authorService.completeNames(nextPrefix(), 10);
+    }
+
+    @Benchmark
+    public List<BookDto> searchBooksByTitleFragment() {
+        return bookService.searchBooksByTitle(nextPrefix());
+    }
+}
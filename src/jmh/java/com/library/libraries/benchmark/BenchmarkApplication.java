@@ -0,0 +1,41 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.LibraryApplication;
+import com.library.libraries.service.imp.UserServiceImp;
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The application's services and repositories on the in-memory database, without the web, security
+ * and documentation layers, seeded with {@link BenchmarkDataset} before the search indexes build.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {SecurityAutoConfiguration.class, UserDetailsServiceAutoConfiguration.class})
+@EntityScan("com.library.libraries.model")
+@EnableJpaRepositories("com.library.libraries.repository")
+@ComponentScan(basePackages = "com.library.libraries", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.REGEX,
+                pattern = "com\\.library\\.libraries\\.(config|controller|security)\\..*"),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+                classes = {LibraryApplication.class, UserServiceImp.class})
+})
+public class BenchmarkApplication {
+
+    @Bean
+    public ModelMapper getModelMapper() {
+        return new LibraryApplication().getModelMapper();
+    }
+
+    @Bean
+    public BenchmarkDataset benchmarkDataset() {
+        return new BenchmarkDataset();
+    }
+}
@@ -0,0 +1,123 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.model.User;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.StudentRepository;
+import com.library.libraries.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic catalog of {@code benchmark.books} books, one author per ten books and one student
+ * per twenty, plus {@code benchmark.users} users named {@link #username(int)}. Titles are drawn
+ * from a small vocabulary so that word and fragment searches hit a realistic share of the catalog.
+ * Runs as an application runner, which is before the application is ready and the search indexes
+ * are built.
+ */
+public class BenchmarkDataset implements ApplicationRunner {
+
+    static final String[] TITLE_WORDS = {
+            "winter", "storm", "kings", "shadow", "river", "garden", "empire", "silent", "glass", "harbor",
+            "crown", "forest", "letters", "night", "summer", "journey", "stone", "mirror", "island", "fire"
+    };
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Value("${benchmark.books:1000}")
+    private int bookCount;
+
+    @Value("${benchmark.users:0}")
+    private int userCount;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Random random = new Random(42);
+
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bookCount / 10); i++) {
+            Author author = new Author();
+            author.setName("Author" + i);
+            author.setLastname(TITLE_WORDS[i % TITLE_WORDS.length] + "son");
+            author.setEmail("author" + i + "@library.test");
+            authors.add(author);
+        }
+        transactionTemplate.execute(status -> authorRepository.saveAll(authors));
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bookCount / 20); i++) {
+            Student student = new Student();
+            student.setRegistration(String.format("%08d", i));
+            student.setFullname("Student " + i);
+            student.setEmail("student" + i + "@library.test");
+            student.setPhone("555-" + i);
+            students.add(student);
+        }
+        transactionTemplate.execute(status -> studentRepository.saveAll(students));
+
+        for (int from = 0; from < bookCount; from += CHUNK_SIZE) {
+            List<Book> books = new ArrayList<>();
+            for (int i = from; i < Math.min(bookCount, from + CHUNK_SIZE); i++) {
+                books.add(book(i, authors.get(i % authors.size()), random));
+            }
+            transactionTemplate.execute(status -> bookRepository.saveAll(books));
+        }
+
+        for (int from = 0; from < userCount; from += CHUNK_SIZE) {
+            List<User> users = new ArrayList<>();
+            for (int i = from; i < Math.min(userCount, from + CHUNK_SIZE); i++) {
+                User user = new User();
+                user.setUsername(username(i));
+                user.setEmail(username(i) + "@library.test");
+                user.setPassword("{noop}benchmark");
+                users.add(user);
+            }
+            transactionTemplate.execute(status -> userRepository.saveAll(users));
+        }
+    }
+
+    static String username(int index) {
+        return String.format("user%08d", index);
+    }
+
+    private static Book book(int index, Author author, Random random) {
+        Book book = new Book();
+        book.setTitle("The " + word(random) + " of " + word(random) + " " + word(random) + " " + index);
+        book.setIsbn(String.format("978-%09d", index));
+        book.setPublishYear(1950 + random.nextInt(70));
+        book.setStatus(Status.FREE);
+        book.setAuthor(author);
+        return book;
+    }
+
+    private static String word(Random random) {
+        String word = TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
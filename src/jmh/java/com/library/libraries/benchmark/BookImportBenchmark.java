@@ -0,0 +1,81 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.dto.BookImportReportDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.service.BookImportService;
+import com.library.libraries.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of loading {@value #ROWS} new books through the bulk CSV import and through one
+ * {@link BookService#save} call per book, the way a client looping over {@code POST /api/book} would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookImportBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private BookImportService bookImportService;
+    private BookService bookService;
+    private long authorId;
+    private long batch;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        bookImportService = library.getBean(BookImportService.class);
+        bookService = library.getBean(BookService.class);
+        authorId = library.getBean(AuthorRepository.class)
+                .findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0).getId();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public BookImportReportDto bulkCsvImport() throws IOException {
+        long prefix = batch++;
+        StringBuilder csv = new StringBuilder("title,isbn,publishYear,authorId\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("Imported ").append(prefix).append('-').append(i)
+                    .append(",import-").append(prefix).append('-').append(i)
+                    .append(",2001,").append(authorId).append('\n');
+        }
+        return bookImportService.importCsv(new StringReader(csv.toString()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long saveOneByOne() {
+        long prefix = batch++;
+        long saved = 0;
+        for (int i = 0; i < ROWS; i++) {
+            BookOneDto book = new BookOneDto();
+            book.setTitle("Saved " + prefix + "-" + i);
+            book.setIsbn("save-" + prefix + "-" + i);
+            book.setPublishYear(2001);
+            book.setAuthorId(authorId);
+            saved += bookService.save(book).getId();
+        }
+        return saved;
+    }
+}
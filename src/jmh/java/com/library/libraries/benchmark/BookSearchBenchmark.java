@@ -0,0 +1,67 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.model.Status;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    private BookService bookService;
+    private BookDto byStatusAndAuthor;
+    private BookDto byTitle;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        bookService = library.getBean(BookService.class);
+
+        byStatusAndAuthor = new BookDto();
+        byStatusAndAuthor.setStatus(Status.FREE);
+        byStatusAndAuthor.setAuthorId(library.getBean(AuthorRepository.class)
+                .findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0).getId());
+
+        byTitle = new BookDto();
+        byTitle.setTitle("winter");
+    }
+
+    @Benchmark
+    public List<BookDto> searchBooksByStatusAndAuthor() {
+        return bookService.searchBooks(byStatusAndAuthor);
+    }
+
+    @Benchmark
+    public List<BookDto> searchBooksByTitleCriteria() {
+        return bookService.searchBooks(byTitle);
+    }
+
+    @Benchmark
+    public List<BookDto> searchBooksByTitleWord() {
+        return bookService.searchBooksByTitle("Winter");
+    }
+
+    @Benchmark
+    public List<BookDto> searchBooksByTitleFragment() {
+        return bookService.searchBooksByTitle("of sto");
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.LibraryApplication;
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.mapper.AuthorMapper;
+import com.library.libraries.mapper.AuthorMapperImpl;
+import com.library.libraries.mapper.BookMapper;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping through the strict ModelMapper and through the generated mappers, on
+ * detached entities so that only the mapping itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+    private final ModelMapper modelMapper = new LibraryApplication().getModelMapper();
+
+    private AnnotationConfigApplicationContext mappers;
+    private BookMapper bookMapper;
+    private AuthorMapper authorMapper;
+
+    private Author author;
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        mappers = new AnnotationConfigApplicationContext(BookMapperImpl.class, AuthorMapperImpl.class);
+        bookMapper = mappers.getBean(BookMapper.class);
+        authorMapper = mappers.getBean(AuthorMapper.class);
+
+        author = new Author();
+        author.setId(1L);
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george@library.test");
+
+        List<Book> books = new ArrayList<>();
+        for (long id = 1; id <= 10; id++) {
+            Book authored = new Book();
+            authored.setId(id);
+            authored.setTitle("A Song of Ice and Fire " + id);
+            authored.setIsbn("978-00000000" + id);
+            authored.setPublishYear(1996);
+            authored.setStatus(Status.FREE);
+            authored.setAuthor(author);
+            books.add(authored);
+        }
+        author.setBooks(books);
+        book = books.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mappers.close();
+    }
+
+    @Benchmark
+    public BookDto bookDtoModelMapper() {
+        return modelMapper.map(book, BookDto.class);
+    }
+
+    @Benchmark
+    public BookDto bookDtoGenerated() {
+        return bookMapper.toBookDto(book);
+    }
+
+    @Benchmark
+    public AuthorDto authorDtoModelMapper() {
+        return modelMapper.map(author, AuthorDto.class);
+    }
+
+    @Benchmark
+    public AuthorDto authorDtoGenerated() {
+        return authorMapper.toAuthorDto(author);
+    }
+}
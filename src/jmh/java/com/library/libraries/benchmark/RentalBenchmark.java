@@ -0,0 +1,54 @@
+package com.library.libraries.benchmark;
+
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.StudentRepository;
+import com.library.libraries.service.StudentService;
+import javassist.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a book out with {@link StudentService#getBookForStudent} and returns it straight away, so
+ * every invocation starts from the same free book.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RentalBenchmark {
+
+    private StudentService studentService;
+    private StudentPatchDto rental;
+
+    @Setup
+    public void setUp(LibraryState library) {
+        studentService = library.getBean(StudentService.class);
+
+        PageRequest first = PageRequest.of(0, 1, Sort.by("id"));
+        rental = new StudentPatchDto();
+        rental.setStudentId(library.getBean(StudentRepository.class).findAll(first).getContent().get(0).getId());
+        rental.setBookId(library.getBean(BookRepository.class).findAll(first).getContent().get(0).getId());
+    }
+
+    @Benchmark
+    public StudentDto checkoutAndReturn() throws NotFoundException {
+        studentService.getBookForStudent(rental);
+        return studentService.leaveBookForStudent(rental);
+    }
+}
@@ -0,0 +1,43 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.event.AuthorSnapshot;
+
+import java.util.Arrays;
+
+final class AuthorColumns extends Columns {
+
+    String[] names;
+    String[] lastnames;
+    String[] emails;
+    String[] abouts;
+
+    AuthorColumns(int expectedSize) {
+        super(expectedSize);
+        resize(ids.length);
+    }
+
+    int put(AuthorSnapshot author) {
+        int row = claimRow(author.getId());
+        names[row] = author.getName();
+        lastnames[row] = author.getLastname();
+        emails[row] = author.getEmail();
+        abouts[row] = author.getAbout();
+        return row;
+    }
+
+    @Override
+    void resize(int capacity) {
+        names = names == null ? new String[capacity] : Arrays.copyOf(names, capacity);
+        lastnames = lastnames == null ? new String[capacity] : Arrays.copyOf(lastnames, capacity);
+        emails = emails == null ? new String[capacity] : Arrays.copyOf(emails, capacity);
+        abouts = abouts == null ? new String[capacity] : Arrays.copyOf(abouts, capacity);
+    }
+
+    @Override
+    void clear(int row) {
+        names[row] = null;
+        lastnames[row] = null;
+        emails[row] = null;
+        abouts[row] = null;
+    }
+}
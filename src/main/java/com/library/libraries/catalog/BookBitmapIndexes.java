@@ -0,0 +1,104 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.model.Status;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One {@link RoaringBitmap} of book rows per status, author, student and publish year. Authors and students
+ * are looked up by their row in the catalog, which is dense, so those bitmaps sit in plain arrays. A book
+ * without a value for an attribute is in none of that attribute's bitmaps.
+ */
+final class BookBitmapIndexes {
+
+    static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final RoaringBitmap[] byStatus = new RoaringBitmap[Status.values().length];
+    private RoaringBitmap[] byAuthorRow = new RoaringBitmap[Columns.INITIAL_CAPACITY];
+    private RoaringBitmap[] byStudentRow = new RoaringBitmap[Columns.INITIAL_CAPACITY];
+    private final Map<Integer, RoaringBitmap> byPublishYear = new HashMap<>();
+
+    BookBitmapIndexes() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new RoaringBitmap();
+        }
+    }
+
+    static BookBitmapIndexes of(BookColumns books) {
+        BookBitmapIndexes indexes = new BookBitmapIndexes();
+        for (int row = 0; row < books.size; row++) {
+            if (books.live[row]) {
+                indexes.add(books, row);
+            }
+        }
+        return indexes;
+    }
+
+    void add(BookColumns books, int row) {
+        if (books.statuses[row] != BookColumns.NO_STATUS) {
+            byStatus[books.statuses[row]].add(row);
+        }
+        if (books.authorRows[row] != BookColumns.NO_ROW) {
+            byAuthorRow = bitmapFor(byAuthorRow, books.authorRows[row]);
+            byAuthorRow[books.authorRows[row]].add(row);
+        }
+        if (books.studentRows[row] != BookColumns.NO_ROW) {
+            byStudentRow = bitmapFor(byStudentRow, books.studentRows[row]);
+            byStudentRow[books.studentRows[row]].add(row);
+        }
+        if (books.publishYears[row] != BookColumns.NO_YEAR) {
+            byPublishYear.computeIfAbsent(books.publishYears[row], year -> new RoaringBitmap()).add(row);
+        }
+    }
+
+    void remove(BookColumns books, int row) {
+        if (books.statuses[row] != BookColumns.NO_STATUS) {
+            byStatus[books.statuses[row]].remove(row);
+        }
+        if (books.authorRows[row] != BookColumns.NO_ROW) {
+            byAuthorRow[books.authorRows[row]].remove(row);
+        }
+        if (books.studentRows[row] != BookColumns.NO_ROW) {
+            byStudentRow[books.studentRows[row]].remove(row);
+        }
+        if (books.publishYears[row] != BookColumns.NO_YEAR) {
+            RoaringBitmap years = byPublishYear.get(books.publishYears[row]);
+            years.remove(row);
+            if (years.isEmpty()) {
+                byPublishYear.remove(books.publishYears[row]);
+            }
+        }
+    }
+
+    RoaringBitmap status(Status status) {
+        return byStatus[status.ordinal()];
+    }
+
+    RoaringBitmap authorRow(int row) {
+        return lookup(byAuthorRow, row);
+    }
+
+    RoaringBitmap studentRow(int row) {
+        return lookup(byStudentRow, row);
+    }
+
+    RoaringBitmap publishYear(int year) {
+        return byPublishYear.getOrDefault(year, EMPTY);
+    }
+
+    private static RoaringBitmap lookup(RoaringBitmap[] bitmaps, int row) {
+        return row >= 0 && row < bitmaps.length && bitmaps[row] != null ? bitmaps[row] : EMPTY;
+    }
+
+    private static RoaringBitmap[] bitmapFor(RoaringBitmap[] bitmaps, int row) {
+        if (row >= bitmaps.length) {
+            bitmaps = Arrays.copyOf(bitmaps, Math.max(bitmaps.length * 2, row + 1));
+        }
+        if (bitmaps[row] == null) {
+            bitmaps[row] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.model.Status;
+
+import java.util.Arrays;
+
+final class BookColumns extends Columns {
+
+    static final int NO_YEAR = Integer.MIN_VALUE;
+    static final byte NO_STATUS = -1;
+    static final int NO_ROW = -1;
+    static final long NO_VERSION = -1;
+
+    private static final Status[] STATUSES = Status.values();
+
+    String[] titles;
+    String[] isbns;
+    int[] publishYears;
+    byte[] statuses;
+    int[] authorRows;
+    int[] studentRows;
+    long[] versions;
+
+    BookColumns(int expectedSize) {
+        super(expectedSize);
+        resize(ids.length);
+    }
+
+    static byte encode(Status status) {
+        return status != null ? (byte) status.ordinal() : NO_STATUS;
+    }
+
+    static Status decode(byte status) {
+        return status != NO_STATUS ? STATUSES[status] : null;
+    }
+
+    @Override
+    void resize(int capacity) {
+        titles = titles == null ? new String[capacity] : Arrays.copyOf(titles, capacity);
+        isbns = isbns == null ? new String[capacity] : Arrays.copyOf(isbns, capacity);
+        publishYears = publishYears == null ? new int[capacity] : Arrays.copyOf(publishYears, capacity);
+        statuses = statuses == null ? new byte[capacity] : Arrays.copyOf(statuses, capacity);
+        authorRows = authorRows == null ? new int[capacity] : Arrays.copyOf(authorRows, capacity);
+        studentRows = studentRows == null ? new int[capacity] : Arrays.copyOf(studentRows, capacity);
+        versions = versions == null ? new long[capacity] : Arrays.copyOf(versions, capacity);
+    }
+
+    @Override
+    void clear(int row) {
+        titles[row] = null;
+        isbns[row] = null;
+    }
+
+    /**
+     * Drops the tombstones and puts the rows back in id order. Every row number changes, which is safe
+     * because no other table points at book rows.
+     */
+    void compact() {
+        int[] rows = rowsInIdOrder();
+        int capacity = Math.max(rows.length * 2, INITIAL_CAPACITY);
+        retainRows(rows, capacity);
+
+        String[] compactTitles = new String[capacity];
+        String[] compactIsbns = new String[capacity];
+        int[] compactYears = new int[capacity];
+        byte[] compactStatuses = new byte[capacity];
+        int[] compactAuthorRows = new int[capacity];
+        int[] compactStudentRows = new int[capacity];
+        long[] compactVersions = new long[capacity];
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            compactTitles[i] = titles[row];
+            compactIsbns[i] = isbns[row];
+            compactYears[i] = publishYears[row];
+            compactStatuses[i] = statuses[row];
+            compactAuthorRows[i] = authorRows[row];
+            compactStudentRows[i] = studentRows[row];
+            compactVersions[i] = versions[row];
+        }
+        titles = compactTitles;
+        isbns = compactIsbns;
+        publishYears = compactYears;
+        statuses = compactStatuses;
+        authorRows = compactAuthorRows;
+        studentRows = compactStudentRows;
+        versions = compactVersions;
+    }
+}
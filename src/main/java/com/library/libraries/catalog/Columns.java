@@ -0,0 +1,138 @@
+package com.library.libraries.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Row bookkeeping shared by the catalog tables: the id of each row, whether it is still live, and the map
+ * from id to row. Subclasses keep one array per column, indexed by the same row numbers. Deleted rows stay
+ * behind as tombstones, so row numbers held elsewhere stay valid. Only {@link BookColumns}, which no other
+ * table points into, reclaims them by compacting; author and student tombstones are a few bytes each.
+ */
+abstract class Columns {
+
+    static final int INITIAL_CAPACITY = 1024;
+
+    long[] ids;
+    boolean[] live;
+    final LongIntHashMap rowsById;
+    int size;
+    int deleted;
+    private boolean ordered = true;
+
+    Columns(int expectedSize) {
+        int capacity = Math.max(expectedSize, INITIAL_CAPACITY);
+        ids = new long[capacity];
+        live = new boolean[capacity];
+        rowsById = new LongIntHashMap(capacity);
+    }
+
+    /**
+     * The row of {@code id}, or {@link LongIntHashMap#MISSING}.
+     */
+    final int row(long id) {
+        return rowsById.get(id);
+    }
+
+    /**
+     * The row of {@code id}, appending an empty one when there is none yet.
+     */
+    final int claimRow(long id) {
+        int row = rowsById.get(id);
+        if (row != LongIntHashMap.MISSING) {
+            return row;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            live = Arrays.copyOf(live, capacity);
+            resize(capacity);
+        }
+        row = size++;
+        if (row > 0 && id < ids[row - 1]) {
+            ordered = false;
+        }
+        ids[row] = id;
+        live[row] = true;
+        rowsById.put(id, row);
+        return row;
+    }
+
+    final boolean removeRow(long id) {
+        int row = rowsById.remove(id);
+        if (row == LongIntHashMap.MISSING) {
+            return false;
+        }
+        live[row] = false;
+        clear(row);
+        deleted++;
+        return true;
+    }
+
+    final boolean isOrdered() {
+        return ordered;
+    }
+
+    final int liveCount() {
+        return size - deleted;
+    }
+
+    /**
+     * The live rows in ascending id order.
+     */
+    final int[] rowsInIdOrder() {
+        int[] rows = new int[liveCount()];
+        int count = 0;
+        if (ordered) {
+            for (int row = 0; row < size; row++) {
+                if (live[row]) {
+                    rows[count++] = row;
+                }
+            }
+            return rows;
+        }
+
+        long[] sortedIds = new long[rows.length];
+        for (int row = 0; row < size; row++) {
+            if (live[row]) {
+                sortedIds[count++] = ids[row];
+            }
+        }
+        Arrays.sort(sortedIds);
+        for (int i = 0; i < sortedIds.length; i++) {
+            rows[i] = rowsById.get(sortedIds[i]);
+        }
+        return rows;
+    }
+
+    /**
+     * Rebuilds the bookkeeping with {@code rows[i]} moved to row {@code i}, dropping every other row.
+     * {@code rows} must be in id order, like {@link #rowsInIdOrder()}. The subclass moves its columns the
+     * same way.
+     */
+    final void retainRows(int[] rows, int capacity) {
+        long[] compactIds = new long[capacity];
+        rowsById.clear();
+        for (int i = 0; i < rows.length; i++) {
+            compactIds[i] = ids[rows[i]];
+            rowsById.put(compactIds[i], i);
+        }
+        boolean[] compactLive = new boolean[capacity];
+        Arrays.fill(compactLive, 0, rows.length, true);
+
+        ids = compactIds;
+        live = compactLive;
+        size = rows.length;
+        deleted = 0;
+        ordered = true;
+    }
+
+    /**
+     * Grows every column to {@code capacity} rows.
+     */
+    abstract void resize(int capacity);
+
+    /**
+     * Releases what a deleted row still references.
+     */
+    abstract void clear(int row);
+}
@@ -0,0 +1,15 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetsDto;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+
+@Getter
+@AllArgsConstructor
+public class FacetedPage {
+
+    private final Page<BookDto> page;
+    private final BookFacetsDto facets;
+}
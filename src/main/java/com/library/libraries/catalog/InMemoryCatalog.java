@@ -0,0 +1,603 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.dto.AuthorDtoForOneEntity;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetsDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.AuthorSnapshot;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.event.StudentChangedEvent;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.model.Status;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read model of the whole catalog held in memory, column by column: one array per attribute indexed by row,
+ * ids resolved to rows through a primitive hash map, authors and students referenced by row number and the
+ * status packed into a byte. Book reads are answered from here once it is loaded, so they cost a scan over
+ * arrays instead of a query, and only the rows returned become objects. Searches on status, author, student
+ * or publish year intersect the {@link BookBitmapIndexes} first and only visit the rows left.
+ * <p>
+ * Loaded when the application is ready and kept current from the change events of the write paths, applied
+ * after their transaction commits. Events that arrive while it loads are replayed on top of the load. The
+ * listeners of two transactions may run in either order, so a book snapshot older than the version already
+ * applied, or than a recent deletion of the book, is ignored.
+ */
+@Component
+public class InMemoryCatalog {
+
+    private static final LoggerFacade logger = new LoggerFacade(InMemoryCatalog.class);
+
+    /**
+     * How many deleted books are remembered to turn away their late updates. Ids are never reused, so only
+     * events that are still in flight when the book is deleted need it.
+     */
+    static final int MAX_DELETED_VERSIONS = 10_000;
+
+    private final AuthorRepository authorRepository;
+    private final BookRepository bookRepository;
+    private final StudentRepository studentRepository;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
+    private AuthorColumns authors;
+    private StudentColumns students;
+    private BookColumns books;
+    private BookBitmapIndexes bookIndexes;
+    private final Map<Long, Long> deletedVersions = new LinkedHashMap<Long, Long>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > MAX_DELETED_VERSIONS;
+        }
+    };
+    private List<Object> pendingEvents;
+    private volatile boolean ready;
+
+    public InMemoryCatalog(AuthorRepository authorRepository, BookRepository bookRepository,
+                           StudentRepository studentRepository,
+                           @Value("${library.catalog.enabled:true}") boolean enabled) {
+        this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.studentRepository = studentRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            logger.info("In-memory catalog is disabled, books are read from the database");
+            return;
+        }
+        writeLock.lock();
+        try {
+            pendingEvents = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        List<AuthorSnapshot> authorRows = authorRepository.findAllSnapshots();
+        List<Long> studentIds = studentRepository.findAllIds();
+        List<BookSnapshot> bookRows = bookRepository.findAllSnapshots();
+
+        AuthorColumns freshAuthors = new AuthorColumns(authorRows.size());
+        authorRows.forEach(freshAuthors::put);
+        StudentColumns freshStudents = new StudentColumns(studentIds.size());
+        for (Long studentId : studentIds) {
+            freshStudents.claimRow(studentId);
+        }
+        BookColumns freshBooks = new BookColumns(bookRows.size());
+
+        writeLock.lock();
+        try {
+            authors = freshAuthors;
+            students = freshStudents;
+            books = freshBooks;
+            bookIndexes = new BookBitmapIndexes();
+            bookRows.forEach(this::putBook);
+            pendingEvents.forEach(this::apply);
+            pendingEvents = null;
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("In-memory catalog loaded with {} books, {} authors and {} students",
+                freshBooks.liveCount(), freshAuthors.liveCount(), freshStudents.liveCount());
+    }
+
+    /**
+     * Runs before the other listeners, so the search result cache never reloads from a catalog that has not
+     * seen the change yet.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        onChange(event);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        onChange(event);
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        onChange(event);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The book with {@code id}, or null when there is none.
+     */
+    public BookOneDto findBook(long id) {
+        readLock.lock();
+        try {
+            int row = books.row(id);
+            return row != LongIntHashMap.MISSING ? toBookOneDto(row) : null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * The books with the given ids, in the order of {@code ids}. Ids without a book are skipped.
+     */
+    public List<BookDto> findBooks(List<Long> ids) {
+        readLock.lock();
+        try {
+            List<BookDto> result = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int row = books.row(id);
+                if (row != LongIntHashMap.MISSING) {
+                    result.add(toBookDto(row));
+                }
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Every book, in id order.
+     */
+    public List<BookDto> findAllBooks() {
+        readLock.lock();
+        try {
+            int[] rows = books.rowsInIdOrder();
+            List<BookDto> result = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                result.add(toBookDto(row));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * The books matching every attribute set on {@code criteria}, with the semantics of
+     * {@link com.library.libraries.specification.BookSpecifications#byAttributes}: equality for all of them
+     * except the title, which matches a case-insensitive substring.
+     */
+    public List<BookDto> searchBooks(BookDto criteria) {
+        readLock.lock();
+        try {
+            int[] rows = matchingRows(criteria);
+            List<BookDto> result = new ArrayList<>(rows.length);
+            for (int row : rows) {
+                result.add(toBookDto(row));
+            }
+            return result;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * The number of books {@link #searchBooks} would return. When only indexed attributes are set, this is
+     * the cardinality of the intersection of their bitmaps and no row is read.
+     */
+    public long countBooks(BookDto criteria) {
+        readLock.lock();
+        try {
+            if (criteria.getId() != null || criteria.getTitle() != null || criteria.getIsbn() != null) {
+                return matchingRows(criteria).length;
+            }
+            List<RoaringBitmap> bitmaps = indexedBitmaps(criteria);
+            if (bitmaps.isEmpty()) {
+                return books.liveCount();
+            }
+            if (bitmaps.size() == 1) {
+                return bitmaps.get(0).cardinality();
+            }
+            RoaringBitmap last = bitmaps.remove(bitmaps.size() - 1);
+            return RoaringBitmap.andCardinality(intersect(bitmaps), last);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * One page of the books {@link #searchBooks} would return, in id order, with the facets of all of them.
+     * The facets are counted in a single pass over the matching rows, into arrays indexed by status and
+     * author row and a primitive map for the years.
+     */
+    public FacetedPage searchFaceted(BookDto criteria, Pageable pageable) {
+        readLock.lock();
+        try {
+            int[] rows = matchingRows(criteria);
+
+            int[] statusCounts = new int[Status.values().length];
+            int[] authorCounts = new int[authors.size];
+            LongIntHashMap yearCounts = new LongIntHashMap(64);
+            for (int row : rows) {
+                if (books.statuses[row] != BookColumns.NO_STATUS) {
+                    statusCounts[books.statuses[row]]++;
+                }
+                if (books.authorRows[row] != BookColumns.NO_ROW) {
+                    authorCounts[books.authorRows[row]]++;
+                }
+                int year = books.publishYears[row];
+                if (year != BookColumns.NO_YEAR) {
+                    int count = yearCounts.get(year);
+                    yearCounts.put(year, count == LongIntHashMap.MISSING ? 1 : count + 1);
+                }
+            }
+
+            BookFacetsDto facets = new BookFacetsDto();
+            putStatusFacets(facets, statusCounts);
+            putYearFacets(facets, yearCounts);
+            putAuthorFacets(facets, authorCounts);
+
+            if (!books.isOrdered()) {
+                sortById(rows);
+            }
+            int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), rows.length) : 0;
+            int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), rows.length) : rows.length;
+            List<BookDto> content = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                content.add(toBookDto(rows[i]));
+            }
+            return new FacetedPage(new PageImpl<>(content, pageable, rows.length), facets);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * The rows of the books matching {@code criteria}, in row order.
+     */
+    private int[] matchingRows(BookDto criteria) {
+        if (criteria.getId() != null) {
+            int row = books.row(criteria.getId());
+            return row != LongIntHashMap.MISSING && matches(row, criteria) ? new int[]{row} : new int[0];
+        }
+
+        List<RoaringBitmap> bitmaps = indexedBitmaps(criteria);
+        int count = 0;
+        if (bitmaps.isEmpty()) {
+            int[] rows = new int[books.liveCount()];
+            for (int row = 0; row < books.size; row++) {
+                if (books.live[row] && matchesUnindexed(row, criteria)) {
+                    rows[count++] = row;
+                }
+            }
+            return count == rows.length ? rows : Arrays.copyOf(rows, count);
+        }
+
+        RoaringBitmap candidates = intersect(bitmaps);
+        int[] rows = new int[candidates.cardinality()];
+        int[] matching = new int[1];
+        candidates.forEach(row -> {
+            if (matchesUnindexed(row, criteria)) {
+                rows[matching[0]++] = row;
+            }
+        });
+        return matching[0] == rows.length ? rows : Arrays.copyOf(rows, matching[0]);
+    }
+
+    private void sortById(int[] rows) {
+        long[] sortedIds = new long[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            sortedIds[i] = books.ids[rows[i]];
+        }
+        Arrays.sort(sortedIds);
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = books.row(sortedIds[i]);
+        }
+    }
+
+    private static void putStatusFacets(BookFacetsDto facets, int[] statusCounts) {
+        long[] packed = new long[statusCounts.length];
+        for (int status = 0; status < statusCounts.length; status++) {
+            packed[status] = packCount(statusCounts[status], status);
+        }
+        Arrays.sort(packed);
+        for (int i = packed.length - 1; i >= 0 && packed[i] >>> 32 > 0; i--) {
+            facets.getStatus().put(BookColumns.decode((byte) unpackKey(packed[i])), packed[i] >>> 32);
+        }
+    }
+
+    private static void putYearFacets(BookFacetsDto facets, LongIntHashMap yearCounts) {
+        long[] packed = new long[yearCounts.size()];
+        int[] count = new int[1];
+        yearCounts.forEach((year, yearBooks) -> packed[count[0]++] = packCount(yearBooks, (int) year));
+        Arrays.sort(packed);
+        for (int i = packed.length - 1; i >= 0; i--) {
+            facets.getPublishYear().put(unpackKey(packed[i]), packed[i] >>> 32);
+        }
+    }
+
+    private void putAuthorFacets(BookFacetsDto facets, int[] authorCounts) {
+        int authorsWithBooks = 0;
+        for (int count : authorCounts) {
+            if (count > 0) {
+                authorsWithBooks++;
+            }
+        }
+        long[] packed = new long[authorsWithBooks];
+        int next = 0;
+        for (int row = 0; row < authorCounts.length; row++) {
+            if (authorCounts[row] > 0) {
+                packed[next++] = packCount(authorCounts[row], row);
+            }
+        }
+        Arrays.sort(packed);
+        for (int i = packed.length - 1; i >= 0 && packed.length - i <= BookFacetsDto.MAX_AUTHORS; i--) {
+            facets.getAuthorId().put(authors.ids[unpackKey(packed[i])], packed[i] >>> 32);
+        }
+    }
+
+    /**
+     * Packs a count and a key into one long that sorts by count, then by descending key, so that the largest
+     * values come out most frequent first with ties in ascending key order.
+     */
+    private static long packCount(int count, int key) {
+        return ((long) count << 32) | (~key & 0xFFFFFFFFL);
+    }
+
+    private static int unpackKey(long packed) {
+        return ~(int) packed;
+    }
+
+    /**
+     * The bitmaps of the indexed attributes set on {@code criteria}, smallest first.
+     */
+    private List<RoaringBitmap> indexedBitmaps(BookDto criteria) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(4);
+        if (criteria.getStatus() != null) {
+            bitmaps.add(bookIndexes.status(criteria.getStatus()));
+        }
+        if (criteria.getAuthorId() != null) {
+            bitmaps.add(bookIndexes.authorRow(authors.row(criteria.getAuthorId())));
+        }
+        if (criteria.getStudentId() != null) {
+            bitmaps.add(bookIndexes.studentRow(students.row(criteria.getStudentId())));
+        }
+        if (criteria.getPublishYear() != null) {
+            bitmaps.add(bookIndexes.publishYear(criteria.getPublishYear()));
+        }
+        bitmaps.sort(Comparator.comparingInt(RoaringBitmap::cardinality));
+        return bitmaps;
+    }
+
+    /**
+     * Starting from the smallest bitmap keeps every intermediate result as small as the final one can be.
+     */
+    private static RoaringBitmap intersect(List<RoaringBitmap> bitmaps) {
+        RoaringBitmap result = bitmaps.get(0);
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, bitmaps.get(i));
+        }
+        return result;
+    }
+
+    private boolean matches(int row, BookDto criteria) {
+        if (criteria.getStatus() != null && books.statuses[row] != BookColumns.encode(criteria.getStatus())) {
+            return false;
+        }
+        if (criteria.getPublishYear() != null && books.publishYears[row] != criteria.getPublishYear()) {
+            return false;
+        }
+        if (criteria.getAuthorId() != null && !references(authors, books.authorRows[row], criteria.getAuthorId())) {
+            return false;
+        }
+        if (criteria.getStudentId() != null
+                && !references(students, books.studentRows[row], criteria.getStudentId())) {
+            return false;
+        }
+        return matchesUnindexed(row, criteria);
+    }
+
+    private boolean matchesUnindexed(int row, BookDto criteria) {
+        if (criteria.getIsbn() != null && !criteria.getIsbn().equals(books.isbns[row])) {
+            return false;
+        }
+        return criteria.getTitle() == null || containsIgnoreCase(books.titles[row], criteria.getTitle());
+    }
+
+    private static boolean references(Columns table, int row, long id) {
+        return row != BookColumns.NO_ROW && table.ids[row] == id;
+    }
+
+    private static boolean containsIgnoreCase(String text, String part) {
+        if (text == null) {
+            return false;
+        }
+        for (int from = 0; from <= text.length() - part.length(); from++) {
+            if (text.regionMatches(true, from, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void onChange(Object event) {
+        writeLock.lock();
+        try {
+            if (pendingEvents != null) {
+                pendingEvents.add(event);
+            }
+            if (ready) {
+                apply(event);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void apply(Object event) {
+        if (event instanceof BookChangedEvent) {
+            BookChangedEvent bookEvent = (BookChangedEvent) event;
+            if (bookEvent.isDeletion()) {
+                removeBook(bookEvent.getPrevious());
+            } else {
+                putBook(bookEvent.getCurrent());
+            }
+        } else if (event instanceof AuthorChangedEvent) {
+            AuthorChangedEvent authorEvent = (AuthorChangedEvent) event;
+            if (authorEvent.isDeletion()) {
+                authors.removeRow(authorEvent.getAuthorId());
+            } else {
+                authors.put(authorEvent.getCurrent());
+            }
+        } else if (event instanceof StudentChangedEvent) {
+            StudentChangedEvent studentEvent = (StudentChangedEvent) event;
+            if (studentEvent.isDeletion()) {
+                students.removeRow(studentEvent.getStudentId());
+            } else {
+                students.claimRow(studentEvent.getStudentId());
+            }
+        }
+    }
+
+    private void putBook(BookSnapshot book) {
+        int existing = books.row(book.getId());
+        if (isStale(book, existing)) {
+            logger.debug("Ignoring version {} of book {}, a later state was applied already",
+                    book.getVersion(), book.getId());
+            return;
+        }
+        if (existing != LongIntHashMap.MISSING) {
+            bookIndexes.remove(books, existing);
+        }
+
+        int row = books.claimRow(book.getId());
+        books.titles[row] = book.getTitle();
+        books.isbns[row] = book.getIsbn();
+        books.publishYears[row] = book.getPublishYear() != null ? book.getPublishYear() : BookColumns.NO_YEAR;
+        books.statuses[row] = BookColumns.encode(book.getStatus());
+        // A row claimed for a reference that arrives before its own event is filled in when the event is applied.
+        books.authorRows[row] = book.getAuthorId() != null ? authors.claimRow(book.getAuthorId()) : BookColumns.NO_ROW;
+        books.studentRows[row] = book.getStudentId() != null
+                ? students.claimRow(book.getStudentId())
+                : BookColumns.NO_ROW;
+        books.versions[row] = book.getVersion() != null ? book.getVersion() : BookColumns.NO_VERSION;
+        bookIndexes.add(books, row);
+    }
+
+    /**
+     * Snapshots without a version are always applied.
+     */
+    private boolean isStale(BookSnapshot book, int row) {
+        if (book.getVersion() == null) {
+            return false;
+        }
+        Long deletedVersion = deletedVersions.get(book.getId());
+        if (deletedVersion != null) {
+            return book.getVersion() <= deletedVersion;
+        }
+        return row != LongIntHashMap.MISSING && book.getVersion() < books.versions[row];
+    }
+
+    /**
+     * A deletion is the last state of a book whatever the order it arrives in, so it is always applied.
+     */
+    private void removeBook(BookSnapshot book) {
+        deletedVersions.put(book.getId(), book.getVersion() != null ? book.getVersion() : Long.MAX_VALUE);
+        int row = books.row(book.getId());
+        if (row == LongIntHashMap.MISSING) {
+            return;
+        }
+        bookIndexes.remove(books, row);
+        books.removeRow(book.getId());
+
+        if (books.deleted > Columns.INITIAL_CAPACITY && books.deleted > books.liveCount()) {
+            books.compact();
+            bookIndexes = BookBitmapIndexes.of(books);
+        }
+    }
+
+    private BookDto toBookDto(int row) {
+        BookDto book = new BookDto();
+        book.setId(books.ids[row]);
+        book.setTitle(books.titles[row]);
+        book.setIsbn(books.isbns[row]);
+        book.setPublishYear(books.publishYears[row] != BookColumns.NO_YEAR ? books.publishYears[row] : null);
+        book.setStatus(BookColumns.decode(books.statuses[row]));
+        book.setStudentId(idOf(students, books.studentRows[row]));
+        book.setAuthorId(idOf(authors, books.authorRows[row]));
+        book.setAuthor(toAuthorDto(books.authorRows[row]));
+        return book;
+    }
+
+    private BookOneDto toBookOneDto(int row) {
+        BookOneDto book = new BookOneDto();
+        book.setId(books.ids[row]);
+        book.setTitle(books.titles[row]);
+        book.setIsbn(books.isbns[row]);
+        book.setPublishYear(books.publishYears[row] != BookColumns.NO_YEAR ? books.publishYears[row] : null);
+        book.setStatus(BookColumns.decode(books.statuses[row]));
+        book.setStudentId(idOf(students, books.studentRows[row]));
+        book.setAuthorId(idOf(authors, books.authorRows[row]));
+        book.setAuthor(toAuthorDto(books.authorRows[row]));
+        return book;
+    }
+
+    private static Long idOf(Columns table, int row) {
+        return row != BookColumns.NO_ROW ? table.ids[row] : null;
+    }
+
+    private AuthorDtoForOneEntity toAuthorDto(int row) {
+        if (row == BookColumns.NO_ROW || !authors.live[row]) {
+            return null;
+        }
+        AuthorDtoForOneEntity author = new AuthorDtoForOneEntity();
+        author.setId(authors.ids[row]);
+        author.setName(authors.names[row]);
+        author.setLastname(authors.lastnames[row]);
+        author.setEmail(authors.emails[row]);
+        author.setAbout(authors.abouts[row]);
+        return author;
+    }
+}
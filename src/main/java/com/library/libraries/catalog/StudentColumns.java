@@ -0,0 +1,20 @@
+package com.library.libraries.catalog;
+
+/**
+ * Students carry nothing but their ids: book reads return the student id only, and the row number is what
+ * the book table stores and filters on.
+ */
+final class StudentColumns extends Columns {
+
+    StudentColumns(int expectedSize) {
+        super(expectedSize);
+    }
+
+    @Override
+    void resize(int capacity) {
+    }
+
+    @Override
+    void clear(int row) {
+    }
+}
@@ -23,4 +23,12 @@ public class ApiPaths {
     public static final class StudentCtrl {
         public static final String CTRL = BASE_PATH + "/student";
     }
+
+    public static final class CacheCtrl {
+        public static final String CTRL = BASE_PATH + "/cache";
+    }
+
+    public static final class RentalCtrl {
+        public static final String CTRL = BASE_PATH + "/rental";
+    }
 }
@@ -1,12 +1,16 @@
 package com.library.libraries.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.libraries.dto.AuthorDto;
 import com.library.libraries.dto.AuthorOneDto;
 import com.library.libraries.dto.AuthorUpdateDto;
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.exception.AuthorDeletionException;
 import com.library.libraries.exception.AuthorNotFoundException;
 import com.library.libraries.service.AuthorService;
 import com.library.libraries.service.util.TPage;
+import com.library.libraries.sql.SqlBudget;
 import io.swagger.annotations.*;
 import javassist.NotFoundException;
 import org.springframework.data.domain.Pageable;
@@ -14,6 +18,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -25,9 +31,11 @@ import java.util.List;
 public class AuthorController {
 
     private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
 
-    public AuthorController(AuthorService authorService) {
+    public AuthorController(AuthorService authorService, ObjectMapper objectMapper) {
         this.authorService = authorService;
+        this.objectMapper = objectMapper;
     }
 
 
@@ -38,6 +46,7 @@ public class AuthorController {
             @ApiResponse(code = 403, message = "Accessing the resource you were trying to reach is forbidden"),
             @ApiResponse(code = 404, message = "The resource you were trying to reach is not found")
     })
+    @SqlBudget(statements = 3)
     @GetMapping
     public ResponseEntity<List<AuthorDto>> getAll() throws NotFoundException {
         List<AuthorDto> authorDtos = authorService.getAll();
@@ -45,6 +54,13 @@ public class AuthorController {
     }
 
 
+    @ApiOperation(value = "Stream all authors", notes = "Writes every author as newline-delimited JSON while it is read from the database.")
+    @GetMapping(produces = NdjsonStreaming.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return NdjsonStreaming.stream(objectMapper, AuthorDto.class, authorService::streamAll);
+    }
+
+
     @ApiOperation(value = "Get a paginated list of authors", notes = "Provides a paginated list of authors based on pageable parameters.")
     @ApiImplicitParams({
             @ApiImplicitParam(name = "page", dataType = "int", paramType = "query", value = "The page number (0..N)"),
@@ -58,26 +74,67 @@ public class AuthorController {
     }
 
 
-    @ApiOperation(value = "Find authors by name or surname", notes = "Returns a list of authors matching the given name or surname.")
+    @ApiOperation(value = "Get a cursor-paginated list of authors", notes = "Seeks past the row encoded in the 'after' cursor instead of skipping an offset. The total count is only computed when withTotal is true.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "after", dataType = "string", paramType = "query", value = "Opaque cursor returned as nextCursor by the previous page"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query", value = "The size of the page to be returned"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", value = "Sort property for the first page; later pages reuse the one in the cursor"),
+            @ApiImplicitParam(name = "withTotal", dataType = "boolean", paramType = "query", value = "Whether to count the total number of elements")
+    })
+    @GetMapping("/pagination/cursor")
+    public ResponseEntity<TPage<AuthorDto>> getAllByCursor(@RequestParam(required = false) String after,
+                                                           @RequestParam(defaultValue = "20") int size,
+                                                           @RequestParam(defaultValue = "id") String sort,
+                                                           @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            TPage<AuthorDto> data = authorService.getAllAfter(after, size, sort, withTotal);
+            return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+
+    @ApiOperation(value = "Find authors by name or surname", notes = "Returns a list of authors matching the given name or surname. With fuzzy=true, name words may contain up to maxEdits typos and the best matches come first.")
     @ApiImplicitParams({
-            @ApiImplicitParam(name = "name", dataType = "string", paramType = "query", value = "The name or surname of the author to find", required = true)
+            @ApiImplicitParam(name = "name", dataType = "string", paramType = "query", value = "The name or surname of the author to find", required = true),
+            @ApiImplicitParam(name = "fuzzy", dataType = "boolean", paramType = "query", value = "Whether to tolerate typos"),
+            @ApiImplicitParam(name = "maxEdits", dataType = "int", paramType = "query", value = "The maximum number of typos per word in fuzzy mode")
     })
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved list of authors"),
             @ApiResponse(code = 404, message = "No authors found with the given name or surname")
     })
+    @SqlBudget(statements = 3)
     @GetMapping("/find")
-    public ResponseEntity<List<AuthorDto>> findAllByName(@RequestParam String name) throws NotFoundException {
-        List<AuthorDto> authorDtos = authorService.findAllByName(name);
+    public ResponseEntity<List<AuthorDto>> findAllByName(@RequestParam String name,
+                                                         @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                         @RequestParam(defaultValue = "2") int maxEdits) throws NotFoundException {
+        List<AuthorDto> authorDtos = fuzzy
+                ? authorService.findAllByNameFuzzy(name, maxEdits)
+                : authorService.findAllByName(name);
         return ResponseEntity.ok(authorDtos);
     }
 
 
+    @ApiOperation(value = "Autocomplete author names", notes = "Returns up to 'limit' (at most 10) authors whose name or lastname starts with the prefix, most rented first.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "prefix", dataType = "string", paramType = "query", value = "What has been typed so far", required = true),
+            @ApiImplicitParam(name = "limit", dataType = "int", paramType = "query", value = "The maximum number of suggestions")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CompletionDto>> completeNames(@RequestParam String prefix,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(authorService.completeNames(prefix, limit));
+    }
+
+
     @ApiOperation(value = "Get an author by ID", notes = "Returns a single author details by ID.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the author"),
             @ApiResponse(code = 404, message = "The author with the specified ID was not found")
     })
+    @SqlBudget(statements = 2)
     @GetMapping("/{id}")
     public ResponseEntity<AuthorOneDto> getOneAuthor(@ApiParam(value = "ID of the author to retrieve", required = true) @PathVariable Long id) throws NotFoundException {
         AuthorOneDto authorDto = authorService.getOne(id);
@@ -100,6 +157,8 @@ public class AuthorController {
             return ResponseEntity.ok(updatedAuthor);
         } catch (AuthorNotFoundException ex) {
             return ResponseEntity.notFound().build();
+        } catch (AuthorDeletionException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception ex) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -111,6 +170,7 @@ public class AuthorController {
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "Author successfully deleted"),
             @ApiResponse(code = 404, message = "The author with the specified ID was not found"),
+            @ApiResponse(code = 409, message = "Some books of the author are RENTED"),
             @ApiResponse(code = 401, message = "You are not authorized to delete the resource"),
             @ApiResponse(code = 403, message = "Deleting the resource is forbidden")
     })
@@ -121,6 +181,8 @@ public class AuthorController {
             return ResponseEntity.noContent().build();
         } catch (AuthorNotFoundException ex) {
             return ResponseEntity.notFound().build();
+        } catch (AuthorDeletionException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception ex) {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
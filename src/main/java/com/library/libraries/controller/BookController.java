@@ -2,28 +2,40 @@ package com.library.libraries.controller;
 
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.libraries.dto.AuthorDto;
 import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetedSearchDto;
+import com.library.libraries.dto.BookImportReportDto;
 import com.library.libraries.dto.BookOneDto;
 import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.dto.CompletionDto;
 import com.library.libraries.exception.BookDeletionException;
 import com.library.libraries.exception.BookNotFoundException;
 import com.library.libraries.logging.LoggerFacade;
 import com.library.libraries.model.Status;
 import com.library.libraries.service.AuthorService;
+import com.library.libraries.service.BookImportService;
 import com.library.libraries.service.BookService;
 import com.library.libraries.service.imp.BookServiceImp;
 import com.library.libraries.service.util.TPage;
+import com.library.libraries.sql.SqlBudget;
 import io.swagger.annotations.*;
 import javassist.NotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,19 +47,32 @@ public class BookController {
 
 
     private final BookService bookService;
+    private final BookImportService bookImportService;
+    private final ObjectMapper objectMapper;
 
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, BookImportService bookImportService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.objectMapper = objectMapper;
     }
 
     private static final LoggerFacade logger = new LoggerFacade(BookController.class);
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    @SqlBudget(statements = 2)
     @GetMapping
     public ResponseEntity<List<BookDto>> getAll() throws NotFoundException {
         List<BookDto> bookDto = bookService.getAll();
         return ResponseEntity.ok().body(bookDto);
     }
 
+    @ApiOperation(value = "Stream all books", notes = "Writes every book as newline-delimited JSON while it is read from the database.")
+    @GetMapping(produces = NdjsonStreaming.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return NdjsonStreaming.stream(objectMapper, BookDto.class, bookService::streamAll);
+    }
+
     @GetMapping("/pagination")
     public ResponseEntity<TPage<BookDto>> getAllByPagination(Pageable pageable) throws NotFoundException {
         TPage<BookDto> data = bookService.getAllPageable(pageable);
@@ -55,11 +80,33 @@ public class BookController {
     }
 
 
+    @ApiOperation(value = "Get a cursor-paginated list of books", notes = "Seeks past the row encoded in the 'after' cursor instead of skipping an offset. The total count is only computed when withTotal is true.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "after", dataType = "string", paramType = "query", value = "Opaque cursor returned as nextCursor by the previous page"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query", value = "The size of the page to be returned"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", value = "Sort property for the first page; later pages reuse the one in the cursor"),
+            @ApiImplicitParam(name = "withTotal", dataType = "boolean", paramType = "query", value = "Whether to count the total number of elements")
+    })
+    @GetMapping("/pagination/cursor")
+    public ResponseEntity<TPage<BookDto>> getAllByCursor(@RequestParam(required = false) String after,
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         @RequestParam(defaultValue = "id") String sort,
+                                                         @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            TPage<BookDto> data = bookService.getAllAfter(after, size, sort, withTotal);
+            return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+
     @ApiOperation(value = "Get an book by ID", notes = "Returns a single book details by ID.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the book"),
             @ApiResponse(code = 404, message = "The book with the specified ID was not found")
     })
+    @SqlBudget(statements = 2)
     @GetMapping("/{id}")
     public ResponseEntity<BookOneDto> getOneAuthor(@ApiParam(value = "ID of the book to retrieve", required = true) @PathVariable Long id) throws NotFoundException {
         BookOneDto bookOneDto = bookService.getOne(id);
@@ -67,21 +114,40 @@ public class BookController {
     }
 
 
-    @ApiOperation(value = "Find books by title", notes = "Returns a list of books matching the given title.")
+    @ApiOperation(value = "Find books by title", notes = "Returns a list of books matching the given title. With fuzzy=true, title words may contain up to maxEdits typos and the best matches come first.")
     @ApiImplicitParams({
-            @ApiImplicitParam(name = "title", dataType = "string", paramType = "query", value = "The title of the book to find", required = true)
+            @ApiImplicitParam(name = "title", dataType = "string", paramType = "query", value = "The title of the book to find", required = true),
+            @ApiImplicitParam(name = "fuzzy", dataType = "boolean", paramType = "query", value = "Whether to tolerate typos"),
+            @ApiImplicitParam(name = "maxEdits", dataType = "int", paramType = "query", value = "The maximum number of typos per word in fuzzy mode")
     })
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved list of books"),
             @ApiResponse(code = 404, message = "No book found with the given title")
     })
+    @SqlBudget(statements = 3)
     @GetMapping("/find/{title}")
-    public ResponseEntity<List<BookDto>> searchBooksByTitle(@RequestParam String title) throws NotFoundException {
-        List<BookDto> bookDtos = bookService.searchBooksByTitle(title);
+    public ResponseEntity<List<BookDto>> searchBooksByTitle(@RequestParam String title,
+                                                            @RequestParam(defaultValue = "false") boolean fuzzy,
+                                                            @RequestParam(defaultValue = "2") int maxEdits) throws NotFoundException {
+        List<BookDto> bookDtos = fuzzy
+                ? bookService.searchBooksByTitleFuzzy(title, maxEdits)
+                : bookService.searchBooksByTitle(title);
         return ResponseEntity.ok(bookDtos);
     }
 
 
+    @ApiOperation(value = "Autocomplete book titles", notes = "Returns up to 'limit' (at most 10) titles with a word starting with the prefix, most rented first.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "prefix", dataType = "string", paramType = "query", value = "What has been typed so far", required = true),
+            @ApiImplicitParam(name = "limit", dataType = "int", paramType = "query", value = "The maximum number of suggestions")
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<CompletionDto>> completeTitles(@RequestParam String prefix,
+                                                              @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(bookService.completeTitles(prefix, limit));
+    }
+
+
     @ApiOperation(value = "Register a new book", notes = "Register a new book with the provided information.")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Book successfully created"),
@@ -94,6 +160,28 @@ public class BookController {
     }
 
 
+    @ApiOperation(value = "Import books from CSV", notes = "Reads a CSV upload with a title,isbn,publishYear,authorId,status header and inserts the books in batches. Returns a report with one entry per rejected row.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Import finished, see the report for rejected rows"),
+            @ApiResponse(code = 400, message = "The CSV header is missing required columns or a record is malformed")
+    })
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<BookImportReportDto> importCsv(InputStream body) throws IOException {
+        try {
+            return ResponseEntity.ok(bookImportService.importCsv(new InputStreamReader(body, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+
+    @ApiOperation(value = "Import books from JSON lines", notes = "Reads one BookOneDto JSON object per line and inserts the books in batches. Returns a report with one entry per rejected row.")
+    @PostMapping(value = "/import", consumes = NdjsonStreaming.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BookImportReportDto> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(bookImportService.importNdjson(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+
+
     @ApiOperation(value = "Delete a book", notes = "Deletes a book with the specified ID.")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Book successfully deleted"),
@@ -112,6 +200,7 @@ public class BookController {
             @ApiResponse(code = 200, message = "Successfully updated the book"),
             @ApiResponse(code = 404, message = "Book not found with the provided ID"),
             @ApiResponse(code = 400, message = "Invalid update request or book is RENTED"),
+            @ApiResponse(code = 409, message = "The book was changed concurrently, reload it and retry"),
             @ApiResponse(code = 500, message = "Internal server error")
     })
     @PutMapping("/{id}")
@@ -125,6 +214,9 @@ public class BookController {
         } catch (IllegalStateException e) {
             logger.error("Error updating book: {}", e.getMessage());
             return ResponseEntity.badRequest().body(null);
+        } catch (OptimisticLockingFailureException e) {
+            logger.warn("Book with ID {} was changed concurrently: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         }
     }
 
@@ -135,6 +227,7 @@ public class BookController {
             @ApiResponse(code = 204, message = "No content, no books found matching the criteria"),
             @ApiResponse(code = 500, message = "Internal server error")
     })
+    @SqlBudget(statements = 2)
     @PostMapping("/search")
     public ResponseEntity<List<BookDto>> searchBooks(@ApiParam(value = "Book search criteria", required = true)
                                                          @RequestBody BookDto bookDto) {
@@ -142,6 +235,28 @@ public class BookController {
         return ResponseEntity.ok(bookDtos);
     }
 
+    @ApiOperation(value = "Faceted Book Search", notes = "Returns one page of the books matching the criteria in BookDto, with the number of matching books per status, publish year and author.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully retrieved the page and its facets"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @PostMapping("/search/faceted")
+    public ResponseEntity<BookFacetedSearchDto> searchBooksFaceted(@ApiParam(value = "Book search criteria", required = true)
+                                                                   @RequestBody BookDto bookDto, Pageable pageable) {
+        return ResponseEntity.ok(bookService.searchBooksFaceted(bookDto, pageable));
+    }
+
+    @ApiOperation(value = "Count Books", notes = "Counts the books matching the criteria in BookDto, e.g. the FREE books of an author.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Successfully counted the matching books"),
+            @ApiResponse(code = 500, message = "Internal server error")
+    })
+    @PostMapping("/count")
+    public ResponseEntity<Long> countBooks(@ApiParam(value = "Book search criteria", required = true)
+                                           @RequestBody BookDto bookDto) {
+        return ResponseEntity.ok(bookService.countBooks(bookDto));
+    }
+
     @GetMapping("/statuses")
     public ResponseEntity<List<Status>> getAllBookStatus() {
         return ResponseEntity.ok(Arrays.asList(Status.values()));
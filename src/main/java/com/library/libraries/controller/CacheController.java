@@ -0,0 +1,40 @@
+package com.library.libraries.controller;
+
+import com.library.libraries.dto.CacheRegionStatisticsDto;
+import com.library.libraries.dto.SearchCacheStatisticsDto;
+import com.library.libraries.service.CacheStatisticsService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Api(value = "CacheController", description = "Cache statistics")
+@RestController
+@CrossOrigin
+@RequestMapping(value = ApiPaths.CacheCtrl.CTRL, produces = MediaType.APPLICATION_JSON_VALUE)
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    @ApiOperation(value = "Get second-level cache statistics", notes = "Hits, misses, puts and cached entries of every entity and collection cache region since startup")
+    @GetMapping("/statistics")
+    public ResponseEntity<List<CacheRegionStatisticsDto>> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getRegionStatistics());
+    }
+
+    @ApiOperation(value = "Get book search result cache statistics", notes = "Hits, misses, stale entries reloaded after a book change, and size evictions of the criteria search cache")
+    @GetMapping("/search-statistics")
+    public ResponseEntity<SearchCacheStatisticsDto> getSearchStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getSearchCacheStatistics());
+    }
+}
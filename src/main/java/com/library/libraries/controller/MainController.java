@@ -57,7 +57,7 @@ public class MainController {
     public ResponseEntity<TokenResponseDto> login(@ApiParam(value = "LoginRequest object", required = true) @RequestBody LoginDto request) {
         try {
             authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
-            final User user = userRepository.findByUsername(request.getUsername())
+            final User user = userRepository.findByUsernameExact(request.getUsername())
                     .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + request.getUsername()));
             final String token = jwtTokenUtil.generateToken(user);
             return ResponseEntity.ok(new TokenResponseDto(user.getUsername(), token));
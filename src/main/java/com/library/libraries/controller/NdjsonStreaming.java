@@ -0,0 +1,63 @@
+package com.library.libraries.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+final class NdjsonStreaming {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private static final int FLUSH_EVERY_ROWS = 256;
+
+    private NdjsonStreaming() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, Class<T> rowType,
+                                                            Consumer<Consumer<T>> producer) {
+        ObjectWriter writer = objectMapper.writerFor(rowType);
+        StreamingResponseBody body = outputStream -> {
+            RowWriter<T> rows = new RowWriter<>(writer, outputStream);
+            try {
+                producer.accept(rows);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    private static final class RowWriter<T> implements Consumer<T> {
+
+        private final ObjectWriter writer;
+        private final OutputStream outputStream;
+        private long written;
+
+        RowWriter(ObjectWriter writer, OutputStream outputStream) {
+            this.writer = writer;
+            this.outputStream = outputStream;
+        }
+
+        @Override
+        public void accept(T row) {
+            try {
+                outputStream.write(writer.writeValueAsBytes(row));
+                outputStream.write('\n');
+                if (++written == 1 || written % FLUSH_EVERY_ROWS == 0) {
+                    outputStream.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.libraries.controller;
+
+import com.library.libraries.dto.AuthorLoanStatsDto;
+import com.library.libraries.dto.BookLoanDto;
+import com.library.libraries.dto.StudentLoanStatsDto;
+import com.library.libraries.service.RentalReportService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Api(value = "RentalController", description = "Rental history and loan counts")
+@RestController
+@CrossOrigin
+@RequestMapping(value = ApiPaths.RentalCtrl.CTRL, produces = MediaType.APPLICATION_JSON_VALUE)
+public class RentalController {
+
+    private final RentalReportService rentalReportService;
+
+    public RentalController(RentalReportService rentalReportService) {
+        this.rentalReportService = rentalReportService;
+    }
+
+    @ApiOperation(value = "Get a student's loan counts", notes = "Books the student has on loan now and has ever borrowed")
+    @GetMapping("/students/{studentId}")
+    public ResponseEntity<StudentLoanStatsDto> getStudentLoans(@PathVariable Long studentId) {
+        return ResponseEntity.ok(rentalReportService.getStudentLoans(studentId));
+    }
+
+    @ApiOperation(value = "Get a book's loan history", notes = "Every loan of the book, most recent first")
+    @GetMapping("/books/{bookId}/loans")
+    public ResponseEntity<List<BookLoanDto>> getBookLoans(@PathVariable Long bookId) {
+        return ResponseEntity.ok(rentalReportService.getBookLoans(bookId));
+    }
+
+    @ApiOperation(value = "Get books on loan per author", notes = "Current and total loans of each author's books, most borrowed first")
+    @GetMapping("/authors")
+    public ResponseEntity<List<AuthorLoanStatsDto>> getAuthorLoans() {
+        return ResponseEntity.ok(rentalReportService.getAuthorLoans());
+    }
+}
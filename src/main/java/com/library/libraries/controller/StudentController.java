@@ -1,9 +1,13 @@
 package com.library.libraries.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.libraries.dto.StudentBatchPatchDto;
+import com.library.libraries.dto.StudentBatchPatchReportDto;
 import com.library.libraries.dto.StudentDto;
 import com.library.libraries.dto.StudentPatchDto;
 import com.library.libraries.service.StudentService;
 import com.library.libraries.service.util.TPage;
+import com.library.libraries.sql.SqlBudget;
 import io.swagger.annotations.*;
 import javassist.NotFoundException;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -23,18 +28,27 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final ObjectMapper objectMapper;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.objectMapper = objectMapper;
     }
 
     @ApiOperation(value = "Get all students", notes = "Retrieve a list of all students")
+    @SqlBudget(statements = 3)
     @GetMapping
     public ResponseEntity<List<StudentDto>> getAll() throws NotFoundException {
         List<StudentDto> studentDtos = studentService.getAll();
         return ResponseEntity.ok(studentDtos);
     }
 
+    @ApiOperation(value = "Stream all students", notes = "Writes every student as newline-delimited JSON while it is read from the database")
+    @GetMapping(produces = NdjsonStreaming.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        return NdjsonStreaming.stream(objectMapper, StudentDto.class, studentService::streamAll);
+    }
+
     @ApiOperation(value = "Get all students with pagination", notes = "Retrieve a paginated list of students")
     @GetMapping("/pagination")
     public ResponseEntity<TPage<StudentDto>> getAllByPagination(Pageable pageable) throws NotFoundException {
@@ -42,11 +56,33 @@ public class StudentController {
         return ResponseEntity.ok(data);
     }
 
+
+    @ApiOperation(value = "Get a cursor-paginated list of students", notes = "Seeks past the row encoded in the 'after' cursor instead of skipping an offset. The total count is only computed when withTotal is true.")
+    @ApiImplicitParams({
+            @ApiImplicitParam(name = "after", dataType = "string", paramType = "query", value = "Opaque cursor returned as nextCursor by the previous page"),
+            @ApiImplicitParam(name = "size", dataType = "int", paramType = "query", value = "The size of the page to be returned"),
+            @ApiImplicitParam(name = "sort", dataType = "string", paramType = "query", value = "Sort property for the first page; later pages reuse the one in the cursor"),
+            @ApiImplicitParam(name = "withTotal", dataType = "boolean", paramType = "query", value = "Whether to count the total number of elements")
+    })
+    @GetMapping("/pagination/cursor")
+    public ResponseEntity<TPage<StudentDto>> getAllByCursor(@RequestParam(required = false) String after,
+                                                            @RequestParam(defaultValue = "20") int size,
+                                                            @RequestParam(defaultValue = "id") String sort,
+                                                            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            TPage<StudentDto> data = studentService.getAllAfter(after, size, sort, withTotal);
+            return ResponseEntity.ok(data);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
     @ApiOperation(value = "Get a single student by ID", notes = "Retrieve details of a specific student by their ID")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Successfully retrieved the student"),
             @ApiResponse(code = 404, message = "Student not found")
     })
+    @SqlBudget(statements = 2)
     @GetMapping("/{id}")
     public ResponseEntity<StudentDto> getOne(@ApiParam(value = "ID of the student to retrieve", required = true) @PathVariable Long id) {
         try {
@@ -75,13 +111,16 @@ public class StudentController {
     @ApiOperation(value = "Assign a book to a student", notes = "Associate a book with a student based on their IDs")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Book successfully assigned to the student"),
-            @ApiResponse(code = 400, message = "Invalid operation or input")
+            @ApiResponse(code = 400, message = "Invalid operation or input"),
+            @ApiResponse(code = 409, message = "The book is already rented")
     })
     @PostMapping("/assign-book")
     public ResponseEntity<StudentDto> assignBookToStudent(@ApiParam(value = "StudentPatchDto object to assign a book to a student", required = true) @Valid @RequestBody StudentPatchDto studentPatchDto) {
         try {
             StudentDto updatedStudentDto = studentService.getBookForStudent(studentPatchDto);
             return ResponseEntity.ok(updatedStudentDto);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error assigning book to student", e);
         }
@@ -90,18 +129,55 @@ public class StudentController {
     @ApiOperation(value = "Remove a book from a student", notes = "Disassociate a book from a student based on their IDs")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Book successfully removed from the student"),
-            @ApiResponse(code = 400, message = "Invalid operation or input")
+            @ApiResponse(code = 400, message = "Invalid operation or input"),
+            @ApiResponse(code = 409, message = "The book is not rented by this student")
     })
     @PostMapping("/leave-book")
     public ResponseEntity<StudentDto> leaveBookForStudent(@ApiParam(value = "StudentPatchDto object to remove a book from a student", required = true) @Valid @RequestBody StudentPatchDto studentPatchDto) {
         try {
             StudentDto updatedStudentDto = studentService.leaveBookForStudent(studentPatchDto);
             return ResponseEntity.ok(updatedStudentDto);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error removing book from student", e);
         }
     }
 
+    @ApiOperation(value = "Assign several books to a student", notes = "Rents every free book in the list to the student in one transaction and reports the outcome per book")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Books processed, see the report for the ones that could not be assigned"),
+            @ApiResponse(code = 400, message = "Invalid operation or input"),
+            @ApiResponse(code = 404, message = "Student not found")
+    })
+    @PostMapping("/assign-books")
+    public ResponseEntity<StudentBatchPatchReportDto> assignBooksToStudent(@ApiParam(value = "Student ID and the IDs of the books to assign", required = true) @Valid @RequestBody StudentBatchPatchDto studentBatchPatchDto) {
+        try {
+            return ResponseEntity.ok(studentService.getBooksForStudent(studentBatchPatchDto));
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error assigning books to student", e);
+        }
+    }
+
+    @ApiOperation(value = "Remove several books from a student", notes = "Returns every listed book the student has rented in one transaction and reports the outcome per book")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Books processed, see the report for the ones that could not be returned"),
+            @ApiResponse(code = 400, message = "Invalid operation or input"),
+            @ApiResponse(code = 404, message = "Student not found")
+    })
+    @PostMapping("/leave-books")
+    public ResponseEntity<StudentBatchPatchReportDto> leaveBooksForStudent(@ApiParam(value = "Student ID and the IDs of the books to return", required = true) @Valid @RequestBody StudentBatchPatchDto studentBatchPatchDto) {
+        try {
+            return ResponseEntity.ok(studentService.leaveBooksForStudent(studentBatchPatchDto));
+        } catch (NotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Error removing books from student", e);
+        }
+    }
+
     @ApiOperation(value = "Delete a student by ID", notes = "Remove a student from the library system by their ID")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Student successfully deleted"),
@@ -6,6 +6,7 @@ import com.library.libraries.service.imp.UserServiceImp;
 import io.swagger.annotations.*;
 import javassist.NotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -41,7 +42,8 @@ public class UserController {
     @ApiOperation(value = "Update user", notes = "Update user details")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "User successfully updated"),
-            @ApiResponse(code = 404, message = "User not found")
+            @ApiResponse(code = 404, message = "User not found"),
+            @ApiResponse(code = 409, message = "The new username is taken, whatever its case")
     })
     @PutMapping("/{username}")
     public ResponseEntity<Boolean> updateUser(@ApiParam(value = "Username of the user to be updated", required = true)
@@ -53,6 +55,8 @@ public class UserController {
             return ResponseEntity.ok(result);
         } catch (NotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found", e);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
         }
     }
 
@@ -0,0 +1,17 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class AuthorLoanStatsDto {
+
+    private Long authorId;
+    private long activeLoans;
+    private long totalLoans;
+}
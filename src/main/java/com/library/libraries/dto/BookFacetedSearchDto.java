@@ -0,0 +1,17 @@
+package com.library.libraries.dto;
+
+import com.library.libraries.service.util.TPage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookFacetedSearchDto {
+
+    private TPage<BookDto> books;
+    private BookFacetsDto facets;
+}
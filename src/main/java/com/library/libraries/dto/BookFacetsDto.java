@@ -0,0 +1,25 @@
+package com.library.libraries.dto;
+
+import com.library.libraries.model.Status;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Number of matching books per value of each facet, most frequent value first. Only the
+ * {@link #MAX_AUTHORS} most frequent authors are listed.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+public class BookFacetsDto {
+
+    public static final int MAX_AUTHORS = 100;
+
+    private Map<Status, Long> status = new LinkedHashMap<>();
+    private Map<Integer, Long> publishYear = new LinkedHashMap<>();
+    private Map<Long, Long> authorId = new LinkedHashMap<>();
+}
@@ -0,0 +1,18 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookImportErrorDto {
+
+    private int line;
+    private String title;
+    private String isbn;
+    private String message;
+}
@@ -0,0 +1,28 @@
+package com.library.libraries.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class BookImportReportDto {
+
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private List<BookImportErrorDto> errors = new ArrayList<>();
+
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(BookImportErrorDto error) {
+        failed++;
+        errors.add(error);
+    }
+}
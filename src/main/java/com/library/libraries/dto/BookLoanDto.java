@@ -0,0 +1,20 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookLoanDto {
+
+    private Long bookId;
+    private Long studentId;
+    private Instant checkedOutAt;
+    private Instant returnedAt;
+}
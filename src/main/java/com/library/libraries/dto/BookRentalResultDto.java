@@ -0,0 +1,17 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class BookRentalResultDto {
+
+    private Long bookId;
+    private boolean success;
+    private String message;
+}
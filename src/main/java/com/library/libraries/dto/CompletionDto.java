@@ -0,0 +1,20 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One autocomplete suggestion. The weight is the number of rentals it was ranked by.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class CompletionDto {
+
+    private Long id;
+    private String text;
+    private long weight;
+}
@@ -0,0 +1,20 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class SearchCacheStatisticsDto {
+
+    private long entries;
+    private long hitCount;
+    private long missCount;
+    private long staleCount;
+    private double hitRatio;
+    private long evictionCount;
+}
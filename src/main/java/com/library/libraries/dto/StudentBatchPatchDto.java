@@ -0,0 +1,26 @@
+package com.library.libraries.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class StudentBatchPatchDto {
+
+    public static final int MAX_BOOKS = 100;
+
+    @NotNull
+    private Long studentId;
+
+    @NotEmpty
+    @Size(max = MAX_BOOKS)
+    private List<@NotNull Long> bookIds;
+
+}
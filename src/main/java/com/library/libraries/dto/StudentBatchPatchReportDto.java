@@ -0,0 +1,29 @@
+package com.library.libraries.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@NoArgsConstructor
+@Getter
+@Setter
+public class StudentBatchPatchReportDto {
+
+    private StudentDto student;
+    private int succeeded;
+    private int failed;
+    private List<BookRentalResultDto> books = new ArrayList<>();
+
+    public void addSuccess(Long bookId) {
+        succeeded++;
+        books.add(new BookRentalResultDto(bookId, true, null));
+    }
+
+    public void addFailure(Long bookId, String message) {
+        failed++;
+        books.add(new BookRentalResultDto(bookId, false, message));
+    }
+}
@@ -0,0 +1,20 @@
+package com.library.libraries.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class StudentLoanStatsDto {
+
+    private Long studentId;
+    private long activeLoans;
+    private long totalLoans;
+    private Instant lastLoanAt;
+}
@@ -0,0 +1,37 @@
+package com.library.libraries.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class AuthorChangedEvent {
+
+    private final AuthorSnapshot previous;
+    private final AuthorSnapshot current;
+
+    private AuthorChangedEvent(AuthorSnapshot previous, AuthorSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static AuthorChangedEvent created(AuthorSnapshot current) {
+        return new AuthorChangedEvent(null, current);
+    }
+
+    public static AuthorChangedEvent updated(AuthorSnapshot previous, AuthorSnapshot current) {
+        return new AuthorChangedEvent(previous, current);
+    }
+
+    public static AuthorChangedEvent deleted(AuthorSnapshot previous) {
+        return new AuthorChangedEvent(previous, null);
+    }
+
+    public Long getAuthorId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+
+    public boolean isDeletion() {
+        return current == null;
+    }
+}
@@ -0,0 +1,23 @@
+package com.library.libraries.event;
+
+import com.library.libraries.model.Author;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthorSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final String lastname;
+    private final String email;
+    private final String about;
+
+    public static AuthorSnapshot of(Author author) {
+        return new AuthorSnapshot(author.getId(), author.getName(), author.getLastname(), author.getEmail(),
+                author.getAbout());
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.libraries.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BookChangedEvent {
+
+    private final BookSnapshot previous;
+    private final BookSnapshot current;
+
+    private BookChangedEvent(BookSnapshot previous, BookSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static BookChangedEvent created(BookSnapshot current) {
+        return new BookChangedEvent(null, current);
+    }
+
+    public static BookChangedEvent updated(BookSnapshot previous, BookSnapshot current) {
+        return new BookChangedEvent(previous, current);
+    }
+
+    public static BookChangedEvent deleted(BookSnapshot previous) {
+        return new BookChangedEvent(previous, null);
+    }
+
+    public Long getBookId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+
+    public boolean isDeletion() {
+        return current == null;
+    }
+}
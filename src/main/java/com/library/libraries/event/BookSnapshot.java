@@ -0,0 +1,38 @@
+package com.library.libraries.event;
+
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookSnapshot {
+
+    private final Long id;
+    private final String title;
+    private final String isbn;
+    private final Status status;
+    private final Integer publishYear;
+    private final Long authorId;
+    private final Long studentId;
+    /**
+     * The {@link Book#getVersion() version} of the row in this state, or null when it is not known. Listeners
+     * applied after commit may see the changes of concurrent transactions out of order and compare it.
+     */
+    private final Long version;
+
+    public static BookSnapshot of(Book book) {
+        return new BookSnapshot(
+                book.getId(),
+                book.getTitle(),
+                book.getIsbn(),
+                book.getStatus(),
+                book.getPublishYear(),
+                book.getAuthor() != null ? book.getAuthor().getId() : null,
+                book.getStudent() != null ? book.getStudent().getId() : null,
+                book.getVersion());
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.libraries.event;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class StudentChangedEvent {
+
+    private final StudentSnapshot previous;
+    private final StudentSnapshot current;
+
+    private StudentChangedEvent(StudentSnapshot previous, StudentSnapshot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static StudentChangedEvent created(StudentSnapshot current) {
+        return new StudentChangedEvent(null, current);
+    }
+
+    public static StudentChangedEvent updated(StudentSnapshot previous, StudentSnapshot current) {
+        return new StudentChangedEvent(previous, current);
+    }
+
+    public static StudentChangedEvent deleted(StudentSnapshot previous) {
+        return new StudentChangedEvent(previous, null);
+    }
+
+    public Long getStudentId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+
+    public boolean isDeletion() {
+        return current == null;
+    }
+}
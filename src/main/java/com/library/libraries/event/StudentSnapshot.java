@@ -0,0 +1,22 @@
+package com.library.libraries.event;
+
+import com.library.libraries.model.Student;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class StudentSnapshot {
+
+    private final Long id;
+    private final String registration;
+    private final String fullname;
+    private final String email;
+
+    public static StudentSnapshot of(Student student) {
+        return new StudentSnapshot(student.getId(), student.getRegistration(), student.getFullname(),
+                student.getEmail());
+    }
+}
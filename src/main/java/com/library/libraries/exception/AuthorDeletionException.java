@@ -0,0 +1,8 @@
+package com.library.libraries.exception;
+
+public class AuthorDeletionException extends RuntimeException {
+
+    public AuthorDeletionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,201 @@
+package com.library.libraries.logging;
+
+import org.slf4j.event.Level;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded lock-free ring buffer between the threads that log and the single thread that writes. Producers
+ * claim a slot with one compare-and-set on the tail and publish it through the slot's sequence number, so
+ * logging never blocks on the writer or on each other.
+ * <p>
+ * Under overload INFO is sampled once the buffer is three quarters full and dropped once it is full. WARN and
+ * ERROR are never dropped: when there is no slot left they are written on the calling thread instead.
+ * <p>
+ * An idle writer parks until a producer unparks it. The writer announces that it is about to park and then
+ * looks at the tail once more, while a producer moves the tail and then looks at the announcement, so at
+ * least one of them sees the other and an event is never left waiting for the next one.
+ */
+final class AsyncLogWriter {
+
+    static final int DEFAULT_CAPACITY = 8192;
+    static final int SAMPLE_EVERY = 16;
+
+    private static final int BATCH_SIZE = 256;
+    private static final long FLUSH_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int capacity;
+    private final int mask;
+    private final int highWaterMark;
+    private final LogEvent[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private volatile long head;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder writtenDirectly = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean stopping;
+
+    AsyncLogWriter(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Log buffer capacity must be a power of two: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.highWaterMark = capacity - capacity / 4;
+        this.slots = new LogEvent[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    static AsyncLogWriter startShared() {
+        int capacity = Integer.getInteger("library.logging.buffer-size", DEFAULT_CAPACITY);
+        AsyncLogWriter writer = new AsyncLogWriter(Integer.highestOneBit(Math.max(capacity, 2)));
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::stop, "log-writer-shutdown"));
+        return writer;
+    }
+
+    void start() {
+        Thread thread = new Thread(this::run, "log-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    void submit(LogEvent event) {
+        if (event.getLevel() == Level.INFO && pending() >= highWaterMark
+                && sampleCounter.getAndIncrement() % SAMPLE_EVERY != 0) {
+            sampledOut.increment();
+            return;
+        }
+        if (offer(event)) {
+            enqueued.increment();
+            if (writerParked) {
+                LockSupport.unpark(writer);
+            }
+        } else if (event.getLevel() == Level.INFO) {
+            dropped.increment();
+        } else {
+            event.write();
+            writtenDirectly.increment();
+        }
+    }
+
+    private boolean offer(LogEvent event) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes up to {@code max} events in the order they were published. Only one thread may drain.
+     */
+    int drain(int max) {
+        int count = 0;
+        long position = head;
+        while (count < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            LogEvent event = slots[index];
+            slots[index] = null;
+            sequences.lazySet(index, position + capacity);
+            position++;
+            head = position;
+
+            try {
+                event.write();
+            } catch (RuntimeException e) {
+                // A failing appender must not stop the writer; the event is lost like a dropped one.
+                dropped.increment();
+            }
+            count++;
+        }
+        written.add(count);
+        return count;
+    }
+
+    private void run() {
+        while (true) {
+            if (drain(BATCH_SIZE) > 0) {
+                continue;
+            }
+            if (stopping) {
+                return;
+            }
+            writerParked = true;
+            long pending = pending();
+            if (pending == 0 && !stopping) {
+                LockSupport.park(this);
+            } else if (pending > 0) {
+                // A producer has claimed a slot but not published it yet.
+                Thread.yield();
+            }
+            writerParked = false;
+        }
+    }
+
+    /**
+     * Waits until everything published so far has been written, or until the timeout passes.
+     */
+    boolean flush(long timeout, TimeUnit unit) {
+        long target = tail.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (head < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(FLUSH_POLL_NANOS);
+        }
+        return true;
+    }
+
+    void stop() {
+        stopping = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    long pending() {
+        return tail.get() - head;
+    }
+
+    LogWriterStatistics statistics() {
+        return new LogWriterStatistics(capacity, pending(), enqueued.sum(), written.sum(), writtenDirectly.sum(),
+                sampledOut.sum(), dropped.sum());
+    }
+}
@@ -0,0 +1,160 @@
+package com.library.libraries.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+import org.slf4j.helpers.FormattingTuple;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A log call waiting in the buffer. Messages whose arguments are all immutable values are formatted by the
+ * writer thread. Any other argument, an entity or a DTO, could change or need a session before the writer
+ * gets to it, so those messages are formatted by the calling thread.
+ * <p>
+ * The time, the thread name and a copy of the MDC are taken when the call is made. With logback they go
+ * into the event handed to the appenders. With another binding the writer thread takes the caller's name
+ * and MDC while it writes, and the time is the time of the write.
+ */
+final class LogEvent {
+
+    private static final Object[] NO_ARGS = new Object[0];
+    private static final boolean LOGBACK = isPresent("ch.qos.logback.classic.Logger");
+
+    private final Logger logger;
+    private final Level level;
+    private final String message;
+    private final Object[] args;
+    private final Throwable throwable;
+    private final long timestamp;
+    private final String threadName;
+    private final Map<String, String> mdc;
+
+    private LogEvent(Logger logger, Level level, String message, Object[] args, Throwable throwable) {
+        this.logger = logger;
+        this.level = level;
+        this.message = message;
+        this.args = args;
+        this.throwable = throwable;
+        this.timestamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+        this.mdc = MDC.getCopyOfContextMap();
+    }
+
+    static LogEvent of(Logger logger, Level level, String format, Object[] args) {
+        for (Object arg : args) {
+            if (!isValue(arg)) {
+                FormattingTuple formatted = MessageFormatter.arrayFormat(format, args);
+                return new LogEvent(logger, level, formatted.getMessage(), null, formatted.getThrowable());
+            }
+        }
+        return new LogEvent(logger, level, format, args, null);
+    }
+
+    static LogEvent of(Logger logger, Level level, String message) {
+        return new LogEvent(logger, level, message, NO_ARGS, null);
+    }
+
+    Logger getLogger() {
+        return logger;
+    }
+
+    Level getLevel() {
+        return level;
+    }
+
+    String getMessage() {
+        return message;
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+
+    Throwable getThrowable() {
+        return throwable;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    String getThreadName() {
+        return threadName;
+    }
+
+    Map<String, String> getMdc() {
+        return mdc != null ? mdc : Collections.emptyMap();
+    }
+
+    void write() {
+        if (LOGBACK && LogbackEvents.supports(logger)) {
+            LogbackEvents.append(this);
+            return;
+        }
+
+        Thread current = Thread.currentThread();
+        String currentName = current.getName();
+        Map<String, String> currentMdc = MDC.getCopyOfContextMap();
+        current.setName(threadName);
+        setMdc(mdc);
+        try {
+            writeThroughSlf4j();
+        } finally {
+            current.setName(currentName);
+            setMdc(currentMdc);
+        }
+    }
+
+    private void writeThroughSlf4j() {
+        switch (level) {
+            case ERROR:
+                if (args != null) {
+                    logger.error(message, args);
+                } else {
+                    logger.error(message, throwable);
+                }
+                break;
+            case WARN:
+                if (args != null) {
+                    logger.warn(message, args);
+                } else {
+                    logger.warn(message, throwable);
+                }
+                break;
+            default:
+                if (args != null) {
+                    logger.info(message, args);
+                } else {
+                    logger.info(message, throwable);
+                }
+        }
+    }
+
+    private static void setMdc(Map<String, String> context) {
+        if (context != null) {
+            MDC.setContextMap(context);
+        } else {
+            MDC.clear();
+        }
+    }
+
+    private static boolean isValue(Object arg) {
+        return arg == null || arg instanceof String || arg instanceof Number || arg instanceof Boolean
+                || arg instanceof Character || arg instanceof Enum || arg instanceof Throwable
+                || arg instanceof TemporalAccessor || arg instanceof UUID;
+    }
+
+    private static boolean isPresent(String className) {
+        try {
+            Class.forName(className, false, LogEvent.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
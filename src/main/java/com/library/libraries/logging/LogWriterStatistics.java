@@ -0,0 +1,24 @@
+package com.library.libraries.logging;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Counters of the shared log writer since startup. {@code sampledOut} and {@code dropped} are INFO lines that
+ * were never written; {@code writtenDirectly} are WARN and ERROR lines written by the caller because the
+ * buffer was full.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LogWriterStatistics {
+
+    private final int capacity;
+    private final long pending;
+    private final long enqueued;
+    private final long written;
+    private final long writtenDirectly;
+    private final long sampledOut;
+    private final long dropped;
+}
@@ -0,0 +1,42 @@
+package com.library.libraries.logging;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+
+/**
+ * Hands a buffered call to logback as an event stamped with the caller's time, thread name and MDC. Only
+ * loaded when logback is on the classpath.
+ */
+final class LogbackEvents {
+
+    private static final String FQCN = LoggerFacade.class.getName();
+
+    private LogbackEvents() {
+    }
+
+    static boolean supports(Logger logger) {
+        return logger instanceof ch.qos.logback.classic.Logger;
+    }
+
+    static void append(LogEvent call) {
+        ch.qos.logback.classic.Logger logbackLogger = (ch.qos.logback.classic.Logger) call.getLogger();
+        LoggingEvent event = new LoggingEvent(FQCN, logbackLogger, toLogback(call.getLevel()), call.getMessage(),
+                call.getThrowable(), call.getArgs());
+        event.setTimeStamp(call.getTimestamp());
+        event.setThreadName(call.getThreadName());
+        event.setMDCPropertyMap(call.getMdc());
+        logbackLogger.callAppenders(event);
+    }
+
+    private static ch.qos.logback.classic.Level toLogback(Level level) {
+        switch (level) {
+            case ERROR:
+                return ch.qos.logback.classic.Level.ERROR;
+            case WARN:
+                return ch.qos.logback.classic.Level.WARN;
+            default:
+                return ch.qos.logback.classic.Level.INFO;
+        }
+    }
+}
@@ -2,24 +2,109 @@ package com.library.libraries.logging;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs through a shared background writer so the calling thread only checks the level and hands the call
+ * over. A disabled level returns before anything is allocated; the fixed-arity overloads also spare the
+ * varargs array at the call site.
+ */
 public class LoggerFacade {
 
+    private static final AsyncLogWriter WRITER = AsyncLogWriter.startShared();
+
     private final Logger logger;
 
     public LoggerFacade(Class<?> clazz) {
         this.logger = LoggerFactory.getLogger(clazz);
     }
 
+    public static LogWriterStatistics statistics() {
+        return WRITER.statistics();
+    }
+
+    /**
+     * Waits until every line logged so far has been written, or until the timeout passes.
+     */
+    public static boolean flush(long timeout, TimeUnit unit) {
+        return WRITER.flush(timeout, unit);
+    }
+
+    public boolean isInfoEnabled() {
+        return logger.isInfoEnabled();
+    }
+
+    public void info(String msg) {
+        if (logger.isInfoEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.INFO, msg));
+        }
+    }
+
+    public void info(String msg, Object arg) {
+        if (logger.isInfoEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.INFO, msg, new Object[]{arg}));
+        }
+    }
+
+    public void info(String msg, Object arg1, Object arg2) {
+        if (logger.isInfoEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.INFO, msg, new Object[]{arg1, arg2}));
+        }
+    }
+
     public void info(String msg, Object... args) {
-        logger.info(msg, args);
+        if (logger.isInfoEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.INFO, msg, args));
+        }
+    }
+
+    public void warn(String msg) {
+        if (logger.isWarnEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.WARN, msg));
+        }
+    }
+
+    public void warn(String msg, Object arg) {
+        if (logger.isWarnEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.WARN, msg, new Object[]{arg}));
+        }
+    }
+
+    public void warn(String msg, Object arg1, Object arg2) {
+        if (logger.isWarnEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.WARN, msg, new Object[]{arg1, arg2}));
+        }
     }
 
     public void warn(String msg, Object... args) {
-        logger.warn(msg, args);
+        if (logger.isWarnEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.WARN, msg, args));
+        }
+    }
+
+    public void error(String msg) {
+        if (logger.isErrorEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.ERROR, msg));
+        }
+    }
+
+    public void error(String msg, Object arg) {
+        if (logger.isErrorEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.ERROR, msg, new Object[]{arg}));
+        }
+    }
+
+    public void error(String msg, Object arg1, Object arg2) {
+        if (logger.isErrorEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.ERROR, msg, new Object[]{arg1, arg2}));
+        }
     }
 
     public void error(String msg, Object... args) {
-        logger.error(msg, args);
+        if (logger.isErrorEnabled()) {
+            WRITER.submit(LogEvent.of(logger, Level.ERROR, msg, args));
+        }
     }
 }
@@ -0,0 +1,17 @@
+package com.library.libraries.mapper;
+
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.AuthorOneDto;
+import com.library.libraries.dto.AuthorUpdateDto;
+import com.library.libraries.model.Author;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring", uses = BookMapper.class)
+public interface AuthorMapper {
+
+    AuthorDto toAuthorDto(Author author);
+
+    AuthorOneDto toAuthorOneDto(Author author);
+
+    AuthorUpdateDto toAuthorUpdateDto(Author author);
+}
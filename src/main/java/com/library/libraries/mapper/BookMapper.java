@@ -0,0 +1,41 @@
+package com.library.libraries.mapper;
+
+import com.library.libraries.dto.AuthorDtoForOneEntity;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookDtoForOneEntity;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+/**
+ * Entity to DTO mappings for books, generated at build time. The mappings reproduce what the strict
+ * {@link org.modelmapper.ModelMapper} configured in the application produced: {@code authorId} and
+ * {@code studentId} come from the associations, and targets with no source property stay null.
+ */
+@Mapper(componentModel = "spring")
+public interface BookMapper {
+
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "studentId", source = "student.id")
+    @Mapping(target = "student", ignore = true)
+    BookDto toBookDto(Book book);
+
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "studentId", source = "student.id")
+    @Mapping(target = "student", ignore = true)
+    BookOneDto toBookOneDto(Book book);
+
+    @Mapping(target = "authorId", source = "author.id")
+    BookUpdateDto toBookUpdateDto(Book book);
+
+    @Mapping(target = "authorId", source = "author.id")
+    @Mapping(target = "studentId", source = "student.id")
+    @Mapping(target = "bookStatus", ignore = true)
+    @Mapping(target = "student", ignore = true)
+    BookDtoForOneEntity toBookDtoForOneEntity(Book book);
+
+    AuthorDtoForOneEntity toAuthorDtoForOneEntity(Author author);
+}
@@ -0,0 +1,19 @@
+package com.library.libraries.mapper;
+
+import com.library.libraries.dto.AuthorLoanStatsDto;
+import com.library.libraries.dto.BookLoanDto;
+import com.library.libraries.dto.StudentLoanStatsDto;
+import com.library.libraries.model.rental.AuthorLoanStats;
+import com.library.libraries.model.rental.BookLoan;
+import com.library.libraries.model.rental.StudentLoanStats;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface RentalMapper {
+
+    StudentLoanStatsDto toStudentLoanStatsDto(StudentLoanStats stats);
+
+    BookLoanDto toBookLoanDto(BookLoan loan);
+
+    AuthorLoanStatsDto toAuthorLoanStatsDto(AuthorLoanStats stats);
+}
@@ -0,0 +1,13 @@
+package com.library.libraries.mapper;
+
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.model.Student;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = BookMapper.class)
+public interface StudentMapper {
+
+    @Mapping(target = "department", ignore = true)
+    StudentDto toStudentDto(Student student);
+}
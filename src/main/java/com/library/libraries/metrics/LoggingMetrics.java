@@ -0,0 +1,39 @@
+package com.library.libraries.metrics;
+
+import com.library.libraries.logging.LogWriterStatistics;
+import com.library.libraries.logging.LoggerFacade;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Exports the counters of the shared log writer, so lines lost to sampling or a full buffer show up next to
+ * the request metrics.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lines(registry, "written", LogWriterStatistics::getWritten);
+        lines(registry, "written_directly", LogWriterStatistics::getWrittenDirectly);
+        lines(registry, "sampled_out", LogWriterStatistics::getSampledOut);
+        lines(registry, "dropped", LogWriterStatistics::getDropped);
+
+        Gauge.builder("library.logging.pending", this, binder -> LoggerFacade.statistics().getPending())
+                .description("Log lines waiting for the writer thread")
+                .register(registry);
+    }
+
+    private void lines(MeterRegistry registry, String result, ToLongFunction<LogWriterStatistics> counter) {
+        FunctionCounter.builder("library.logging.lines", this,
+                binder -> counter.applyAsLong(LoggerFacade.statistics()))
+                .description("Log lines handled by the asynchronous writer")
+                .tag("result", result)
+                .register(registry);
+    }
+}
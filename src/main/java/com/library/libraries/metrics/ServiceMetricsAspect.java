@@ -0,0 +1,75 @@
+package com.library.libraries.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the service implementations as {@code library.service}, tagged with the class,
+ * the method, the outcome and the exception thrown. Runs outside the transaction advice, so the time includes
+ * the commit. Percentiles and histogram buckets are configured with the {@code management.metrics.distribution}
+ * properties; the count per outcome gives throughput and errors.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceMetricsAspect {
+
+    static final String METRIC = "library.service";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry registry;
+    private final Clock clock;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+        this.clock = registry.config().clock();
+    }
+
+    @Around("within(com.library.libraries.service.imp..*) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = clock.monotonicTime();
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timers.computeIfAbsent(new TimerKey(method, exception), this::register)
+                    .record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer register(TimerKey key) {
+        return Timer.builder(METRIC)
+                .description("Latency of service method calls")
+                .tag("class", key.getMethod().getDeclaringClass().getSimpleName())
+                .tag("method", key.getMethod().getName())
+                .tag("outcome", NO_EXCEPTION.equals(key.getException()) ? "SUCCESS" : "ERROR")
+                .tag("exception", key.getException())
+                .register(registry);
+    }
+
+    @Value
+    private static class TimerKey {
+        Method method;
+        String exception;
+    }
+}
@@ -2,10 +2,18 @@ package com.library.libraries.model;
 
 
 
+import com.library.libraries.model.cache.CacheRegions;
+import com.library.libraries.model.id.BlockSequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.Type;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -15,12 +23,22 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "author")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.AUTHOR)
+@BatchSize(size = 100)
+@NamedEntityGraph(name = Author.WITH_BOOKS, attributeNodes = @NamedAttributeNode("books"))
+@Table(name = "author", indexes = {
+        @Index(name = "idx_author_name", columnList = "name, id"),
+        @Index(name = "idx_author_lastname", columnList = "lastname, id")
+})
 public class Author {
 
+    public static final String WITH_BOOKS = "Author.withBooks";
+
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_id")
+    @GenericGenerator(name = "author_id", strategy = BlockSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "author_seq"))
     private Long id;
 
     @NotNull
@@ -39,7 +57,9 @@ public class Author {
     @Column(name = "about", length = 8000)
     private String about;
 
-    @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.AUTHOR_BOOKS)
+    @BatchSize(size = 100)
+    @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Book> books;
 
 }
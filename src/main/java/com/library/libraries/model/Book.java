@@ -1,9 +1,16 @@
 package com.library.libraries.model;
 
 
+import com.library.libraries.model.cache.CacheRegions;
+import com.library.libraries.model.id.BlockSequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 
 import javax.persistence.*;
@@ -13,12 +20,18 @@ import javax.validation.constraints.NotNull;
 @Getter
 @Setter
 @Entity
-@Table(name = "book")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.BOOK)
+@NamedEntityGraph(name = Book.WITH_AUTHOR, attributeNodes = @NamedAttributeNode("author"))
+@Table(name = "book", indexes = { @Index(name = "idx_book_title", columnList = "title, id") })
 public class Book {
 
+    public static final String WITH_AUTHOR = "Book.withAuthor";
+
 
     @Id
-    @GeneratedValue(strategy = GenerationType.TABLE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_id")
+    @GenericGenerator(name = "book_id", strategy = BlockSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_seq"))
     private Long id;
 
     @Column(name = "title", length = 300)
@@ -42,4 +55,8 @@ public class Book {
     @JoinColumn(name = "student_id")
     @ManyToOne(optional = true, fetch = FetchType.LAZY)
     private Student student;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
@@ -1,9 +1,14 @@
 package com.library.libraries.model;
 
 
+import com.library.libraries.model.id.BlockSequenceGenerator;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -13,11 +18,18 @@ import java.util.List;
 @Setter
 @NoArgsConstructor
 @Entity
+@BatchSize(size = 100)
+@NamedEntityGraph(name = Student.WITH_BOOKS, attributeNodes = @NamedAttributeNode(value = "books", subgraph = "books"),
+        subgraphs = @NamedSubgraph(name = "books", attributeNodes = @NamedAttributeNode("author")))
 @Table(name = "student")
 public class Student {
 
+    public static final String WITH_BOOKS = "Student.withBooks";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_id")
+    @GenericGenerator(name = "student_id", strategy = BlockSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "student_seq"))
     private Long id;
 
     @NotNull
@@ -45,7 +57,8 @@ public class Student {
     @Column(name = "address", length = 100)
     private String address;
 
-    @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
+    @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Book> books;
 
 }
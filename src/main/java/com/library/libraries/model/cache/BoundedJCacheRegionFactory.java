@@ -0,0 +1,64 @@
+package com.library.libraries.model.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JCache region factory backed by Caffeine that bounds every region in size and age. Limits are read
+ * from the Hibernate settings, per region first and then as defaults:
+ * {@code library.cache.<region>.max-size}, {@code library.cache.max-size},
+ * {@code library.cache.<region>.expire-after-write-seconds} and
+ * {@code library.cache.expire-after-write-seconds}. Each session factory gets its own cache manager,
+ * so two application contexts in one JVM never see each other's entries.
+ */
+public class BoundedJCacheRegionFactory extends JCacheRegionFactory {
+
+    public static final String SETTINGS_PREFIX = "library.cache.";
+
+    private static final long DEFAULT_MAX_SIZE = 10_000;
+    private static final long DEFAULT_EXPIRE_AFTER_WRITE_SECONDS = TimeUnit.MINUTES.toSeconds(10);
+
+    private Map settings;
+
+    @Override
+    protected CacheManager resolveCacheManager(SessionFactoryOptions options, Map properties) {
+        this.settings = properties;
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // JCache scopes cache managers by class loader, so a private loader gives a private manager
+        return provider.getCacheManager(provider.getDefaultURI(), new SessionFactoryScope(provider.getDefaultClassLoader()));
+    }
+
+    @Override
+    protected Cache<Object, Object> createCache(String regionName) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(setting(regionName, "max-size", DEFAULT_MAX_SIZE)));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(
+                setting(regionName, "expire-after-write-seconds", DEFAULT_EXPIRE_AFTER_WRITE_SECONDS))));
+        return getCacheManager().createCache(regionName, configuration);
+    }
+
+    private long setting(String regionName, String name, long defaultValue) {
+        Object value = settings.get(SETTINGS_PREFIX + regionName + "." + name);
+        if (value == null) {
+            value = settings.get(SETTINGS_PREFIX + name);
+        }
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+    private static final class SessionFactoryScope extends ClassLoader {
+
+        private SessionFactoryScope(ClassLoader parent) {
+            super(parent);
+        }
+    }
+}
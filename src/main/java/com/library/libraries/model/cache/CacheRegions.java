@@ -0,0 +1,17 @@
+package com.library.libraries.model.cache;
+
+/**
+ * Second-level cache region names. Size and expiry of each region are configured with
+ * {@code library.cache.<region>.max-size} and {@code library.cache.<region>.expire-after-write-seconds}.
+ */
+public final class CacheRegions {
+
+    public static final String AUTHOR = "author";
+
+    public static final String AUTHOR_BOOKS = "author.books";
+
+    public static final String BOOK = "book";
+
+    private CacheRegions() {
+    }
+}
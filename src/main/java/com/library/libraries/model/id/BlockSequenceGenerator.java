@@ -0,0 +1,36 @@
+package com.library.libraries.model.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Sequence generator that hands out ids in blocks with the pooled-lo optimizer: one sequence call
+ * reserves {@code library.id.block-size} ids, which are then assigned in memory. The block size
+ * can be overridden per entity with the {@code increment_size} parameter.
+ */
+public class BlockSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "com.library.libraries.model.id.BlockSequenceGenerator";
+
+    public static final String BLOCK_SIZE_SETTING = "library.id.block-size";
+
+    private static final int DEFAULT_BLOCK_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        if (!params.containsKey(INCREMENT_PARAM)) {
+            Object blockSize = serviceRegistry.getService(ConfigurationService.class).getSettings().get(BLOCK_SIZE_SETTING);
+            params.setProperty(INCREMENT_PARAM, blockSize != null ? blockSize.toString() : String.valueOf(DEFAULT_BLOCK_SIZE));
+        }
+        if (!params.containsKey(OPT_PARAM)) {
+            params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        }
+        super.configure(type, params, serviceRegistry);
+    }
+}
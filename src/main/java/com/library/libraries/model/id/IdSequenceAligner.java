@@ -0,0 +1,64 @@
+package com.library.libraries.model.id;
+
+import com.library.libraries.logging.LoggerFacade;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.DatabaseStructure;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Moves every {@link BlockSequenceGenerator} sequence past the ids already stored in its table and
+ * sets its increment to the configured block size. Rows written by the previous table-based
+ * generator keep their ids, and new ids continue after them. Runs once the schema exists and
+ * before the application starts writing.
+ */
+@Component
+public class IdSequenceAligner {
+
+    private static final LoggerFacade logger = new LoggerFacade(IdSequenceAligner.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdSequenceAligner(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (!(persister.getIdentifierGenerator() instanceof BlockSequenceGenerator)
+                    || !(persister instanceof AbstractEntityPersister)) {
+                continue;
+            }
+            DatabaseStructure sequence = ((BlockSequenceGenerator) persister.getIdentifierGenerator()).getDatabaseStructure();
+            if (sequence.isPhysicalSequence()) {
+                align((AbstractEntityPersister) persister, sequence, dialect);
+            }
+        }
+    }
+
+    private void align(AbstractEntityPersister persister, DatabaseStructure sequence, Dialect dialect) {
+        String sequenceName = sequence.getName();
+        Long maxId = jdbcTemplate.queryForObject("select max(" + persister.getIdentifierColumnNames()[0] + ") from "
+                + persister.getTableName(), Long.class);
+        Long nextValue = jdbcTemplate.queryForObject(dialect.getSequenceNextValString(sequenceName), Long.class);
+
+        String alter = "alter sequence " + sequenceName;
+        if (maxId != null && nextValue != null && nextValue <= maxId) {
+            alter += " restart with " + (maxId + 1);
+            logger.info("Restarting sequence {} at {} after existing ids", sequenceName, maxId + 1);
+        }
+        jdbcTemplate.execute(alter + " increment by " + sequence.getIncrementSize());
+    }
+}
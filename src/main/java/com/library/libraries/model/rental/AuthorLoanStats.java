@@ -0,0 +1,38 @@
+package com.library.libraries.model.rental;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "author_loan_stats")
+public class AuthorLoanStats {
+
+    @Id
+    @Column(name = "author_id")
+    private Long authorId;
+
+    @Column(name = "active_loans", nullable = false)
+    private long activeLoans;
+
+    @Column(name = "total_loans", nullable = false)
+    private long totalLoans;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public AuthorLoanStats(Long authorId) {
+        this.authorId = authorId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.library.libraries.model.rental;
+
+import com.library.libraries.model.id.BlockSequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * One loan of a book, open until the matching return is projected.
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "book_loan", indexes = { @Index(name = "idx_book_loan_book", columnList = "book_id, checked_out_at") })
+public class BookLoan {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_loan_id")
+    @GenericGenerator(name = "book_loan_id", strategy = BlockSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_loan_seq"))
+    private Long id;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "checked_out_at", nullable = false)
+    private Instant checkedOutAt;
+
+    @Column(name = "returned_at")
+    private Instant returnedAt;
+
+    public BookLoan(Long bookId, Long studentId, Instant checkedOutAt) {
+        this.bookId = bookId;
+        this.studentId = studentId;
+        this.checkedOutAt = checkedOutAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.library.libraries.model.rental;
+
+import com.library.libraries.model.id.BlockSequenceGenerator;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * One checkout or return, as it happened. Rows are only ever inserted; the current state of a book stays
+ * on {@code book} and everything derived from the history lives in the read models.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Immutable
+@Table(name = "rental_event", indexes = { @Index(name = "idx_rental_event_book", columnList = "book_id") })
+public class RentalEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rental_event_id")
+    @GenericGenerator(name = "rental_event_id", strategy = BlockSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "rental_event_seq"))
+    private Long id;
+
+    @Column(name = "type", length = 20, nullable = false, updatable = false)
+    @Enumerated(EnumType.STRING)
+    private RentalEventType type;
+
+    @Column(name = "book_id", nullable = false, updatable = false)
+    private Long bookId;
+
+    @Column(name = "author_id", updatable = false)
+    private Long authorId;
+
+    @Column(name = "student_id", nullable = false, updatable = false)
+    private Long studentId;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+
+    public RentalEvent(RentalEventType type, Long bookId, Long authorId, Long studentId, Instant occurredAt) {
+        this.type = type;
+        this.bookId = bookId;
+        this.authorId = authorId;
+        this.studentId = studentId;
+        this.occurredAt = occurredAt;
+    }
+}
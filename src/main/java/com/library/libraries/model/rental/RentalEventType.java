@@ -0,0 +1,6 @@
+package com.library.libraries.model.rental;
+
+public enum RentalEventType {
+    CHECKOUT,
+    RETURN
+}
@@ -0,0 +1,29 @@
+package com.library.libraries.model.rental;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Marks a {@link RentalEvent} the projector has not applied yet. Written in the same transaction as the
+ * event and deleted in the same transaction that projects it.
+ */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "rental_outbox")
+public class RentalOutboxEntry {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    public RentalOutboxEntry(Long eventId) {
+        this.eventId = eventId;
+    }
+}
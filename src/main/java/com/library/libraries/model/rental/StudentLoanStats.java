@@ -0,0 +1,42 @@
+package com.library.libraries.model.rental;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+@Table(name = "student_loan_stats")
+public class StudentLoanStats {
+
+    @Id
+    @Column(name = "student_id")
+    private Long studentId;
+
+    @Column(name = "active_loans", nullable = false)
+    private long activeLoans;
+
+    @Column(name = "total_loans", nullable = false)
+    private long totalLoans;
+
+    @Column(name = "last_loan_at")
+    private Instant lastLoanAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    public StudentLoanStats(Long studentId) {
+        this.studentId = studentId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.library.libraries.rental;
+
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.rental.RentalEvent;
+import com.library.libraries.model.rental.RentalEventType;
+import com.library.libraries.model.rental.RentalOutboxEntry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Instant;
+
+/**
+ * Appends checkouts and returns to the rental event log inside the transaction that changes the book, with
+ * an outbox entry for {@link RentalProjector}. The event exists exactly when the change was committed.
+ */
+@Component
+public class RentalOutbox {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Records the change from {@code previous} to {@code current} if it is a checkout or a return, and
+     * ignores any other change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(BookSnapshot previous, BookSnapshot current) {
+        if (current.getStatus() == Status.RENTED && previous.getStatus() != Status.RENTED) {
+            append(RentalEventType.CHECKOUT, current, current.getStudentId());
+        } else if (previous.getStatus() == Status.RENTED && current.getStatus() != Status.RENTED) {
+            append(RentalEventType.RETURN, current, previous.getStudentId());
+        }
+    }
+
+    private void append(RentalEventType type, BookSnapshot book, Long studentId) {
+        RentalEvent event = new RentalEvent(type, book.getId(), book.getAuthorId(), studentId, Instant.now());
+        entityManager.persist(event);
+        entityManager.persist(new RentalOutboxEntry(event.getId()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.library.libraries.rental;
+
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.model.rental.AuthorLoanStats;
+import com.library.libraries.model.rental.BookLoan;
+import com.library.libraries.model.rental.RentalEvent;
+import com.library.libraries.model.rental.RentalEventType;
+import com.library.libraries.model.rental.RentalOutboxEntry;
+import com.library.libraries.model.rental.StudentLoanStats;
+import com.library.libraries.repository.AuthorLoanStatsRepository;
+import com.library.libraries.repository.BookLoanRepository;
+import com.library.libraries.repository.RentalEventRepository;
+import com.library.libraries.repository.RentalOutboxRepository;
+import com.library.libraries.repository.StudentLoanStatsRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies pending rental events to the read models: loan counts per student, loan history per book and
+ * books on loan per author. Each batch is read, applied and removed from the outbox in one transaction,
+ * so an event is projected exactly once even if the application stops halfway.
+ */
+@Component
+public class RentalProjector {
+
+    private static final LoggerFacade logger = new LoggerFacade(RentalProjector.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private final RentalOutboxRepository rentalOutboxRepository;
+    private final RentalEventRepository rentalEventRepository;
+    private final StudentLoanStatsRepository studentLoanStatsRepository;
+    private final AuthorLoanStatsRepository authorLoanStatsRepository;
+    private final BookLoanRepository bookLoanRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public RentalProjector(RentalOutboxRepository rentalOutboxRepository, RentalEventRepository rentalEventRepository,
+                           StudentLoanStatsRepository studentLoanStatsRepository,
+                           AuthorLoanStatsRepository authorLoanStatsRepository, BookLoanRepository bookLoanRepository,
+                           TransactionTemplate transactionTemplate) {
+        this.rentalOutboxRepository = rentalOutboxRepository;
+        this.rentalEventRepository = rentalEventRepository;
+        this.studentLoanStatsRepository = studentLoanStatsRepository;
+        this.authorLoanStatsRepository = authorLoanStatsRepository;
+        this.bookLoanRepository = bookLoanRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${library.rental.projection-delay-ms:1000}")
+    public void poll() {
+        projectPending();
+    }
+
+    /**
+     * Projects batches until the outbox is empty and returns how many events were applied.
+     */
+    public int projectPending() {
+        int total = 0;
+        int projected;
+        do {
+            projected = transactionTemplate.execute(status -> projectBatch());
+            total += projected;
+        } while (projected == BATCH_SIZE);
+
+        if (total > 0) {
+            logger.info("Projected {} rental events", total);
+        }
+        return total;
+    }
+
+    private int projectBatch() {
+        List<Long> eventIds = new ArrayList<>();
+        for (RentalOutboxEntry entry : rentalOutboxRepository.findNextBatch(PageRequest.of(0, BATCH_SIZE))) {
+            eventIds.add(entry.getEventId());
+        }
+        if (eventIds.isEmpty()) {
+            return 0;
+        }
+        List<RentalEvent> events = rentalEventRepository.findByIdInOrderByIdAsc(eventIds);
+
+        Set<Long> studentIds = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        Set<Long> bookIds = new HashSet<>();
+        for (RentalEvent event : events) {
+            studentIds.add(event.getStudentId());
+            bookIds.add(event.getBookId());
+            if (event.getAuthorId() != null) {
+                authorIds.add(event.getAuthorId());
+            }
+        }
+
+        Map<Long, StudentLoanStats> students = new HashMap<>();
+        studentLoanStatsRepository.findAllById(studentIds).forEach(stats -> students.put(stats.getStudentId(), stats));
+        Map<Long, AuthorLoanStats> authors = new HashMap<>();
+        authorLoanStatsRepository.findAllById(authorIds).forEach(stats -> authors.put(stats.getAuthorId(), stats));
+        Map<Long, BookLoan> openLoans = new HashMap<>();
+        bookLoanRepository.findByBookIdInAndReturnedAtIsNull(bookIds).forEach(loan -> openLoans.put(loan.getBookId(), loan));
+
+        for (RentalEvent event : events) {
+            StudentLoanStats student = students.computeIfAbsent(event.getStudentId(),
+                    id -> studentLoanStatsRepository.save(new StudentLoanStats(id)));
+            AuthorLoanStats author = event.getAuthorId() == null ? null : authors.computeIfAbsent(event.getAuthorId(),
+                    id -> authorLoanStatsRepository.save(new AuthorLoanStats(id)));
+
+            if (event.getType() == RentalEventType.CHECKOUT) {
+                applyCheckout(event, student, author, openLoans);
+            } else {
+                applyReturn(event, student, author, openLoans);
+            }
+        }
+
+        rentalOutboxRepository.deleteByEventIds(eventIds);
+        return eventIds.size();
+    }
+
+    private void applyCheckout(RentalEvent event, StudentLoanStats student, AuthorLoanStats author,
+                               Map<Long, BookLoan> openLoans) {
+        student.setActiveLoans(student.getActiveLoans() + 1);
+        student.setTotalLoans(student.getTotalLoans() + 1);
+        student.setLastLoanAt(event.getOccurredAt());
+        if (author != null) {
+            author.setActiveLoans(author.getActiveLoans() + 1);
+            author.setTotalLoans(author.getTotalLoans() + 1);
+        }
+        openLoans.put(event.getBookId(),
+                bookLoanRepository.save(new BookLoan(event.getBookId(), event.getStudentId(), event.getOccurredAt())));
+    }
+
+    private void applyReturn(RentalEvent event, StudentLoanStats student, AuthorLoanStats author,
+                             Map<Long, BookLoan> openLoans) {
+        student.setActiveLoans(Math.max(0, student.getActiveLoans() - 1));
+        if (author != null) {
+            author.setActiveLoans(Math.max(0, author.getActiveLoans() - 1));
+        }
+
+        BookLoan loan = openLoans.get(event.getBookId());
+        if (loan != null && loan.getStudentId().equals(event.getStudentId())) {
+            loan.setReturnedAt(event.getOccurredAt());
+            openLoans.remove(event.getBookId());
+        } else {
+            logger.warn("Rental event {} returns book {} without an open loan for student {}",
+                    event.getId(), event.getBookId(), event.getStudentId());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.rental.AuthorLoanStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AuthorLoanStatsRepository extends JpaRepository<AuthorLoanStats, Long> {
+}
@@ -0,0 +1,28 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.model.Author;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only author listings that select the {@link AuthorDto} columns directly, then fill in every
+ * listed author's books with one more query per thousand authors. A {@code null} specification matches
+ * every author.
+ */
+public interface AuthorProjectionRepository {
+
+    List<AuthorDto> findAuthorDtos(Specification<Author> spec, Sort sort);
+
+    Page<AuthorDto> findAuthorDtos(Pageable pageable);
+
+    /**
+     * The authors with the given ids, in no particular order, read a thousand ids per query.
+     */
+    List<AuthorDto> findAuthorDtosByIds(Collection<Long> ids);
+}
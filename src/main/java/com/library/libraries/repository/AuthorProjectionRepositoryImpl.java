@@ -0,0 +1,107 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.BookDtoForOneEntity;
+import com.library.libraries.model.Author;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class AuthorProjectionRepositoryImpl implements AuthorProjectionRepository {
+
+    private static final String BOOKS_BY_AUTHOR = "select b.id as id, b.title as title, b.isbn as isbn, "
+            + "b.publishYear as publishYear, b.author.id as authorId, s.id as studentId "
+            + "from Book b left join b.student s where b.author.id in :authorIds order by b.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuthorDto> findAuthorDtos(Specification<Author> spec, Sort sort) {
+        List<AuthorDto> authors = ProjectionQueries.find(entityManager, Author.class, spec, sort,
+                AuthorProjectionRepositoryImpl::authorDtoColumns, AuthorProjectionRepositoryImpl::toAuthorDto);
+        addBooks(authors);
+        return authors;
+    }
+
+    @Override
+    public Page<AuthorDto> findAuthorDtos(Pageable pageable) {
+        Page<AuthorDto> page = ProjectionQueries.find(entityManager, Author.class, null, pageable,
+                AuthorProjectionRepositoryImpl::authorDtoColumns, AuthorProjectionRepositoryImpl::toAuthorDto);
+        addBooks(page.getContent());
+        return page;
+    }
+
+    @Override
+    public List<AuthorDto> findAuthorDtosByIds(Collection<Long> ids) {
+        return ProjectionQueries.inChunks(ids,
+                chunk -> findAuthorDtos(ProjectionQueries.idIn(chunk), Sort.unsorted()));
+    }
+
+    private void addBooks(List<AuthorDto> authors) {
+        if (authors.isEmpty()) {
+            return;
+        }
+
+        Map<Long, AuthorDto> authorsById = new HashMap<>();
+        for (AuthorDto author : authors) {
+            authorsById.put(author.getId(), author);
+        }
+
+        List<Tuple> rows = ProjectionQueries.inChunks(authorsById.keySet(), authorIds -> entityManager
+                .createQuery(BOOKS_BY_AUTHOR, Tuple.class)
+                .setParameter("authorIds", authorIds)
+                .setHint(HINT_READONLY, true)
+                .getResultList());
+        for (Tuple row : rows) {
+            authorsById.get(row.get("authorId", Long.class)).getBooks().add(toBookDto(row));
+        }
+    }
+
+    private static List<Selection<?>> authorDtoColumns(Root<Author> author, CriteriaBuilder criteriaBuilder) {
+        return Arrays.asList(
+                author.get("id").alias("id"),
+                author.get("name").alias("name"),
+                author.get("lastname").alias("lastname"),
+                author.get("email").alias("email"),
+                author.get("about").alias("about"));
+    }
+
+    private static AuthorDto toAuthorDto(Tuple row) {
+        AuthorDto authorDto = new AuthorDto();
+        authorDto.setId(row.get("id", Long.class));
+        authorDto.setName(row.get("name", String.class));
+        authorDto.setLastname(row.get("lastname", String.class));
+        authorDto.setEmail(row.get("email", String.class));
+        authorDto.setAbout(row.get("about", String.class));
+        authorDto.setBooks(new ArrayList<>());
+        return authorDto;
+    }
+
+    private static BookDtoForOneEntity toBookDto(Tuple row) {
+        BookDtoForOneEntity bookDto = new BookDtoForOneEntity();
+        bookDto.setId(row.get("id", Long.class));
+        bookDto.setTitle(row.get("title", String.class));
+        bookDto.setIsbn(row.get("isbn", String.class));
+        bookDto.setPublishYear(row.get("publishYear", Integer.class));
+        bookDto.setAuthorId(row.get("authorId", Long.class));
+        bookDto.setStudentId(row.get("studentId", Long.class));
+        return bookDto;
+    }
+}
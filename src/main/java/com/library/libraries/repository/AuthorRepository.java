@@ -1,15 +1,44 @@
 package com.library.libraries.repository;
 
+import com.library.libraries.event.AuthorSnapshot;
 import com.library.libraries.model.Author;
+import com.library.libraries.repository.projection.AuthorNameView;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface AuthorRepository extends JpaRepository<Author, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface AuthorRepository extends JpaRepository<Author, Long>, AuthorProjectionRepository {
 
     @Query("select a from Author a where a.name like %:name% or a.lastname like %:lastname%")
     List<Author> findByNameOrLastname(String name, String lastname);
 
     boolean existsByEmail(String email);
+
+    @EntityGraph(Author.WITH_BOOKS)
+    Optional<Author> findWithBooksById(Long id);
+
+    List<AuthorNameView> findAllNamesBy();
+
+    @Query("select a.id from Author a where a.id in :ids")
+    Set<Long> findIdsIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.library.libraries.event.AuthorSnapshot(a.id, a.name, a.lastname, a.email, a.about) "
+            + "from Author a order by a.id")
+    List<AuthorSnapshot> findAllSnapshots();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select a from Author a order by a.id")
+    Stream<Author> streamAll();
 }
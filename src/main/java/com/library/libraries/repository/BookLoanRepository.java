@@ -0,0 +1,19 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.rental.BookLoan;
+import com.library.libraries.repository.projection.LoanCountView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BookLoanRepository extends JpaRepository<BookLoan, Long> {
+
+    List<BookLoan> findByBookIdOrderByCheckedOutAtDesc(Long bookId);
+
+    List<BookLoan> findByBookIdInAndReturnedAtIsNull(Collection<Long> bookIds);
+
+    @Query("select l.bookId as id, count(l) as loans from BookLoan l group by l.bookId")
+    List<LoanCountView> countLoansPerBook();
+}
@@ -0,0 +1,39 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only book listings that select the {@link BookDto} columns directly instead of loading entities.
+ * A {@code null} specification matches every book.
+ */
+public interface BookProjectionRepository {
+
+    List<BookDto> findBookDtos(Specification<Book> spec, Sort sort);
+
+    Page<BookDto> findBookDtos(Specification<Book> spec, Pageable pageable);
+
+    /**
+     * The books with the given ids, in no particular order, read a thousand ids per query.
+     */
+    List<BookDto> findBookDtosByIds(Collection<Long> ids);
+
+    /**
+     * Number of matching books per status, publish year or author id, most frequent first. Books without a
+     * value are not counted.
+     */
+    Map<Status, Long> countByStatus(Specification<Book> spec);
+
+    Map<Integer, Long> countByPublishYear(Specification<Book> spec);
+
+    Map<Long, Long> countByAuthorId(Specification<Book> spec, int limit);
+}
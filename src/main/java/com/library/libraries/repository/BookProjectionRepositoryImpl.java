@@ -0,0 +1,109 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.AuthorDtoForOneEntity;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookDto> findBookDtos(Specification<Book> spec, Sort sort) {
+        return ProjectionQueries.find(entityManager, Book.class, spec, sort,
+                BookProjectionRepositoryImpl::bookDtoColumns, BookProjectionRepositoryImpl::toBookDto);
+    }
+
+    @Override
+    public Page<BookDto> findBookDtos(Specification<Book> spec, Pageable pageable) {
+        return ProjectionQueries.find(entityManager, Book.class, spec, pageable,
+                BookProjectionRepositoryImpl::bookDtoColumns, BookProjectionRepositoryImpl::toBookDto);
+    }
+
+    @Override
+    public List<BookDto> findBookDtosByIds(Collection<Long> ids) {
+        return ProjectionQueries.inChunks(ids,
+                chunk -> findBookDtos(ProjectionQueries.idIn(chunk), Sort.unsorted()));
+    }
+
+    @Override
+    public Map<Status, Long> countByStatus(Specification<Book> spec) {
+        return ProjectionQueries.countBy(entityManager, Book.class, spec, book -> book.get("status"), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Map<Integer, Long> countByPublishYear(Specification<Book> spec) {
+        return ProjectionQueries.countBy(entityManager, Book.class, spec, book -> book.get("publishYear"),
+                Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Map<Long, Long> countByAuthorId(Specification<Book> spec, int limit) {
+        return ProjectionQueries.countBy(entityManager, Book.class, spec, book -> book.get("author").get("id"), limit);
+    }
+
+    private static List<Selection<?>> bookDtoColumns(Root<Book> book, CriteriaBuilder criteriaBuilder) {
+        Join<Book, Author> author = book.join("author", JoinType.LEFT);
+        Join<Book, Student> student = book.join("student", JoinType.LEFT);
+        return Arrays.asList(
+                book.get("id").alias("id"),
+                book.get("title").alias("title"),
+                book.get("isbn").alias("isbn"),
+                book.get("publishYear").alias("publishYear"),
+                book.get("status").alias("status"),
+                student.get("id").alias("studentId"),
+                author.get("id").alias("authorId"),
+                author.get("name").alias("authorName"),
+                author.get("lastname").alias("authorLastname"),
+                author.get("email").alias("authorEmail"),
+                author.get("about").alias("authorAbout"));
+    }
+
+    private static BookDto toBookDto(Tuple row) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(row.get("id", Long.class));
+        bookDto.setTitle(row.get("title", String.class));
+        bookDto.setIsbn(row.get("isbn", String.class));
+        bookDto.setPublishYear(row.get("publishYear", Integer.class));
+        bookDto.setStatus(row.get("status", Status.class));
+        bookDto.setStudentId(row.get("studentId", Long.class));
+        bookDto.setAuthorId(row.get("authorId", Long.class));
+        bookDto.setAuthor(toAuthorDto(row));
+        return bookDto;
+    }
+
+    static AuthorDtoForOneEntity toAuthorDto(Tuple row) {
+        Long authorId = row.get("authorId", Long.class);
+        if (authorId == null) {
+            return null;
+        }
+        AuthorDtoForOneEntity authorDto = new AuthorDtoForOneEntity();
+        authorDto.setId(authorId);
+        authorDto.setName(row.get("authorName", String.class));
+        authorDto.setLastname(row.get("authorLastname", String.class));
+        authorDto.setEmail(row.get("authorEmail", String.class));
+        authorDto.setAbout(row.get("authorAbout", String.class));
+        return authorDto;
+    }
+}
@@ -0,0 +1,27 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.Student;
+
+import java.util.Collection;
+
+/**
+ * Conditional checkouts and returns. Each runs as a single statement, so two concurrent requests cannot both
+ * see a book free, and returns the number of rows changed. Only the cached entries of the changed books are
+ * evicted from the second-level cache, not the whole book region as a JPQL bulk update would.
+ */
+public interface BookRentalRepository {
+
+    /**
+     * Rents the book to {@code student} only if it is still free. 0 means it is missing or rented.
+     */
+    int checkOut(Long id, Student student);
+
+    /**
+     * Frees the book only if it is rented by {@code student}.
+     */
+    int checkIn(Long id, Student student);
+
+    int checkOutAll(Collection<Long> ids, Student student);
+
+    int checkInAll(Collection<Long> ids, Student student);
+}
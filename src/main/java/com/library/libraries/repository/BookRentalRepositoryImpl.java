@@ -0,0 +1,91 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the updates as native statements with an empty synchronized query space, which tells Hibernate they
+ * touch no cached entity, and evicts the changed books itself. The authors' cached book lists only hold ids
+ * and a rental does not change which books an author has, so they stay cached.
+ */
+public class BookRentalRepositoryImpl implements BookRentalRepository {
+
+    private static final String CHECK_OUT = "update book set status = :rented, student_id = :studentId, "
+            + "version = version + 1 "
+            + "where id in (:ids) and status = :free";
+
+    private static final String CHECK_IN = "update book set status = :free, student_id = null, "
+            + "version = version + 1 "
+            + "where id in (:ids) and status = :rented and student_id = :studentId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int checkOut(Long id, Student student) {
+        return checkOutAll(Collections.singletonList(id), student);
+    }
+
+    @Override
+    public int checkIn(Long id, Student student) {
+        return checkInAll(Collections.singletonList(id), student);
+    }
+
+    @Override
+    public int checkOutAll(Collection<Long> ids, Student student) {
+        return update(CHECK_OUT, ids, student);
+    }
+
+    @Override
+    public int checkInAll(Collection<Long> ids, Student student) {
+        return update(CHECK_IN, ids, student);
+    }
+
+    private int update(String sql, Collection<Long> ids, Student student) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        Query update = entityManager.createNativeQuery(sql)
+                .setParameter("ids", ids)
+                .setParameter("studentId", student.getId())
+                .setParameter("free", Status.FREE.name())
+                .setParameter("rented", Status.RENTED.name());
+        update.unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+        int updated = update.executeUpdate();
+        entityManager.clear();
+        evictBooks(ids);
+        return updated;
+    }
+
+    /**
+     * Evicts now, so this transaction reads the new rows, and again once it ends, in case another transaction
+     * put the old row back in the meantime.
+     */
+    private void evictBooks(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        List<Long> bookIds = new ArrayList<>(ids);
+        bookIds.forEach(id -> cache.evict(Book.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bookIds.forEach(id -> cache.evict(Book.class, id));
+                }
+            });
+        }
+    }
+}
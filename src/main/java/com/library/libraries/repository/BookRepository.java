@@ -1,18 +1,67 @@
 package com.library.libraries.repository;
 
+import com.library.libraries.event.BookSnapshot;
 import com.library.libraries.model.Book;
+import com.library.libraries.repository.projection.BookTitleView;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>,
+        BookProjectionRepository, BookRentalRepository {
 
     List<Book> findByTitle(String title);
 
     boolean existsByTitle(String Title);
 
+    @EntityGraph(Book.WITH_AUTHOR)
+    Optional<Book> findWithAuthorById(Long id);
+
     @Query("select b from Book b where b.title like %:title%")
     List<Book> searchBooksByTitle(String title);
+
+    List<BookTitleView> findAllTitlesBy();
+
+    @Query("select b.title from Book b where b.title in :titles")
+    Set<String> findTitlesIn(Collection<String> titles);
+
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    Set<String> findIsbnsIn(Collection<String> isbns);
+
+    /**
+     * Locks the books until the transaction ends, in id order so that two batches over the same books
+     * cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Book b where b.id in :ids order by b.id")
+    List<Book> lockAllById(Collection<Long> ids);
+
+    @Query("select new com.library.libraries.event.BookSnapshot(b.id, b.title, b.isbn, b.status, b.publishYear, a.id, s.id, "
+            + "b.version) "
+            + "from Book b left join b.author a left join b.student s where b.id in :ids")
+    List<BookSnapshot> findSnapshots(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.library.libraries.event.BookSnapshot(b.id, b.title, b.isbn, b.status, b.publishYear, a.id, s.id, "
+            + "b.version) "
+            + "from Book b left join b.author a left join b.student s order by b.id")
+    List<BookSnapshot> findAllSnapshots();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Book b order by b.id")
+    Stream<Book> streamAll();
 }
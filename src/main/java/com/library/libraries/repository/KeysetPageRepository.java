@@ -0,0 +1,54 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.service.util.PageCursor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * Seeks to the row after a cursor instead of skipping an offset, so every page costs the same as the
+ * first one. Rows are ordered by {@code (sortProperty nulls first, id)}; the cursor predicate is the
+ * expanded form of {@code (sortProperty, id) > (lastKey, lastId)}. Callers must only pass property
+ * names from their own whitelist because the name is part of the query text.
+ */
+@Repository
+public class KeysetPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> List<T> findAfter(Class<T> entityType, String sortProperty, PageCursor after, int limit) {
+        boolean sortById = "id".equals(sortProperty);
+        StringBuilder jpql = new StringBuilder("select e from ").append(entityType.getSimpleName()).append(" e");
+
+        if (after != null) {
+            if (sortById) {
+                jpql.append(" where e.id > :lastId");
+            } else if (after.getLastKey() == null) {
+                jpql.append(" where (e.").append(sortProperty).append(" is null and e.id > :lastId)")
+                        .append(" or e.").append(sortProperty).append(" is not null");
+            } else {
+                jpql.append(" where e.").append(sortProperty).append(" > :lastKey")
+                        .append(" or (e.").append(sortProperty).append(" = :lastKey and e.id > :lastId)");
+            }
+        }
+
+        jpql.append(" order by ");
+        if (!sortById) {
+            jpql.append("e.").append(sortProperty).append(" asc nulls first, ");
+        }
+        jpql.append("e.id asc");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), entityType);
+        if (after != null) {
+            query.setParameter("lastId", after.getLastId());
+            if (!sortById && after.getLastKey() != null) {
+                query.setParameter("lastKey", after.getLastKey());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
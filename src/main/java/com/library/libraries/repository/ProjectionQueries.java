@@ -0,0 +1,149 @@
+package com.library.libraries.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * Shared plumbing for the DTO projection fragments: runs a tuple query over an entity filtered by an
+ * optional {@link Specification}, sorted and optionally paged, and converts each row as it is read.
+ * Rows never become managed entities, so there are no snapshots to dirty check and no proxies to load.
+ */
+final class ProjectionQueries {
+
+    static final int IN_CLAUSE_LIMIT = 1000;
+
+    private ProjectionQueries() {
+    }
+
+    static <T, R> List<R> find(EntityManager entityManager, Class<T> type, Specification<T> spec, Sort sort,
+                               BiFunction<Root<T>, CriteriaBuilder, List<Selection<?>>> selections,
+                               Function<Tuple, R> converter) {
+        return toList(query(entityManager, type, spec, sort, selections), converter);
+    }
+
+    static <T, R> Page<R> find(EntityManager entityManager, Class<T> type, Specification<T> spec, Pageable pageable,
+                               BiFunction<Root<T>, CriteriaBuilder, List<Selection<?>>> selections,
+                               Function<Tuple, R> converter) {
+        TypedQuery<Tuple> query = query(entityManager, type, spec, pageable.getSort(), selections);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<R> content = toList(query, converter);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityManager, type, spec));
+    }
+
+    /**
+     * Counts the rows matching {@code spec} per distinct non-null value of {@code key}, most frequent value
+     * first, for at most {@code limit} values.
+     */
+    static <T, K> Map<K, Long> countBy(EntityManager entityManager, Class<T> type, Specification<T> spec,
+                                       Function<Root<T>, Path<K>> key, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        Path<K> keyPath = key.apply(root);
+        Expression<Long> count = criteriaBuilder.count(root);
+        query.multiselect(keyPath.alias("key"), count.alias("count"));
+
+        Predicate hasKey = criteriaBuilder.isNotNull(keyPath);
+        Predicate predicate = toPredicate(spec, root, query, criteriaBuilder);
+        query.where(predicate != null ? criteriaBuilder.and(predicate, hasKey) : hasKey);
+        query.groupBy(keyPath);
+        query.orderBy(criteriaBuilder.desc(count), criteriaBuilder.asc(keyPath));
+
+        Map<K, Long> counts = new LinkedHashMap<>();
+        for (Tuple row : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            @SuppressWarnings("unchecked")
+            K value = (K) row.get("key");
+            counts.put(value, row.get("count", Long.class));
+        }
+        return counts;
+    }
+
+    /**
+     * Splits {@code ids} into chunks small enough for an {@code in} list and collects what
+     * {@code loader} returns for each chunk.
+     */
+    static <R> List<R> inChunks(Collection<Long> ids, Function<List<Long>, List<R>> loader) {
+        List<Long> all = new ArrayList<>(ids);
+        List<R> result = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CLAUSE_LIMIT) {
+            result.addAll(loader.apply(all.subList(from, Math.min(from + IN_CLAUSE_LIMIT, all.size()))));
+        }
+        return result;
+    }
+
+    static <T> Specification<T> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    private static <T> TypedQuery<Tuple> query(EntityManager entityManager, Class<T> type, Specification<T> spec,
+                                               Sort sort,
+                                               BiFunction<Root<T>, CriteriaBuilder, List<Selection<?>>> selections) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        query.multiselect(selections.apply(root, criteriaBuilder));
+
+        Predicate predicate = toPredicate(spec, root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query).setHint(HINT_READONLY, true);
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> type, Specification<T> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(criteriaBuilder.count(root));
+
+        Predicate predicate = toPredicate(spec, root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static <T> Predicate toPredicate(Specification<T> spec, Root<T> root, CriteriaQuery<?> query,
+                                             CriteriaBuilder criteriaBuilder) {
+        return spec == null ? null : spec.toPredicate(root, query, criteriaBuilder);
+    }
+
+    private static <R> List<R> toList(TypedQuery<Tuple> query, Function<Tuple, R> converter) {
+        List<Tuple> rows = query.getResultList();
+        List<R> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            result.add(converter.apply(row));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.rental.RentalEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface RentalEventRepository extends JpaRepository<RentalEvent, Long> {
+
+    List<RentalEvent> findByIdInOrderByIdAsc(Collection<Long> ids);
+}
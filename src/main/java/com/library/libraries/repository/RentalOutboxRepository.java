@@ -0,0 +1,27 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.rental.RentalOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+public interface RentalOutboxRepository extends JpaRepository<RentalOutboxEntry, Long> {
+
+    /**
+     * The oldest pending entries, locked until the transaction ends so two projectors never apply the
+     * same event.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from RentalOutboxEntry o order by o.eventId")
+    List<RentalOutboxEntry> findNextBatch(Pageable pageable);
+
+    @Modifying
+    @Query("delete from RentalOutboxEntry o where o.eventId in :eventIds")
+    int deleteByEventIds(Collection<Long> eventIds);
+}
@@ -0,0 +1,7 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.model.rental.StudentLoanStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StudentLoanStatsRepository extends JpaRepository<StudentLoanStats, Long> {
+}
@@ -0,0 +1,19 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.StudentDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+/**
+ * Read-only student listings that select the {@link StudentDto} columns directly, then fill in every
+ * listed student's rented books, with their authors, with one more query per thousand students.
+ */
+public interface StudentProjectionRepository {
+
+    List<StudentDto> findStudentDtos(Sort sort);
+
+    Page<StudentDto> findStudentDtos(Pageable pageable);
+}
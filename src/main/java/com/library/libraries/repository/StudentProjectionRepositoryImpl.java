@@ -0,0 +1,109 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class StudentProjectionRepositoryImpl implements StudentProjectionRepository {
+
+    private static final String BOOKS_BY_STUDENT = "select b.id as id, b.title as title, b.isbn as isbn, "
+            + "b.publishYear as publishYear, b.status as status, s.id as studentId, a.id as authorId, "
+            + "a.name as authorName, a.lastname as authorLastname, a.email as authorEmail, a.about as authorAbout "
+            + "from Book b join b.student s left join b.author a where s.id in :studentIds order by b.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StudentDto> findStudentDtos(Sort sort) {
+        List<StudentDto> students = ProjectionQueries.find(entityManager, Student.class, null, sort,
+                StudentProjectionRepositoryImpl::studentDtoColumns, StudentProjectionRepositoryImpl::toStudentDto);
+        addBooks(students);
+        return students;
+    }
+
+    @Override
+    public Page<StudentDto> findStudentDtos(Pageable pageable) {
+        Page<StudentDto> page = ProjectionQueries.find(entityManager, Student.class, null, pageable,
+                StudentProjectionRepositoryImpl::studentDtoColumns, StudentProjectionRepositoryImpl::toStudentDto);
+        addBooks(page.getContent());
+        return page;
+    }
+
+    private void addBooks(List<StudentDto> students) {
+        if (students.isEmpty()) {
+            return;
+        }
+
+        Map<Long, StudentDto> studentsById = new HashMap<>();
+        for (StudentDto student : students) {
+            studentsById.put(student.getId(), student);
+        }
+
+        List<Tuple> rows = ProjectionQueries.inChunks(studentsById.keySet(), studentIds -> entityManager
+                .createQuery(BOOKS_BY_STUDENT, Tuple.class)
+                .setParameter("studentIds", studentIds)
+                .setHint(HINT_READONLY, true)
+                .getResultList());
+        for (Tuple row : rows) {
+            studentsById.get(row.get("studentId", Long.class)).getBooks().add(toBookDto(row));
+        }
+    }
+
+    private static List<Selection<?>> studentDtoColumns(Root<Student> student, CriteriaBuilder criteriaBuilder) {
+        return Arrays.asList(
+                student.get("id").alias("id"),
+                student.get("registration").alias("registration"),
+                student.get("fullname").alias("fullname"),
+                student.get("university").alias("university"),
+                student.get("email").alias("email"),
+                student.get("phone").alias("phone"),
+                student.get("course").alias("course"),
+                student.get("address").alias("address"));
+    }
+
+    private static StudentDto toStudentDto(Tuple row) {
+        StudentDto studentDto = new StudentDto();
+        studentDto.setId(row.get("id", Long.class));
+        studentDto.setRegistration(row.get("registration", String.class));
+        studentDto.setFullname(row.get("fullname", String.class));
+        studentDto.setUniversity(row.get("university", String.class));
+        studentDto.setEmail(row.get("email", String.class));
+        studentDto.setPhone(row.get("phone", String.class));
+        studentDto.setCourse(row.get("course", String.class));
+        studentDto.setAddress(row.get("address", String.class));
+        studentDto.setBooks(new ArrayList<>());
+        return studentDto;
+    }
+
+    private static BookOneDto toBookDto(Tuple row) {
+        BookOneDto bookDto = new BookOneDto();
+        bookDto.setId(row.get("id", Long.class));
+        bookDto.setTitle(row.get("title", String.class));
+        bookDto.setIsbn(row.get("isbn", String.class));
+        bookDto.setPublishYear(row.get("publishYear", Integer.class));
+        bookDto.setStatus(row.get("status", Status.class));
+        bookDto.setStudentId(row.get("studentId", Long.class));
+        bookDto.setAuthorId(row.get("authorId", Long.class));
+        bookDto.setAuthor(BookProjectionRepositoryImpl.toAuthorDto(row));
+        return bookDto;
+    }
+}
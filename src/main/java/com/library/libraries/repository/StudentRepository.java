@@ -1,13 +1,33 @@
 package com.library.libraries.repository;
 
 import com.library.libraries.model.Student;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface StudentRepository extends JpaRepository<Student, Long> {
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentProjectionRepository {
 
     List<Student> findByEmail(String email);
     boolean existsByRegistration(String registration);
     boolean existsByEmail(String email);
+
+    @EntityGraph(Student.WITH_BOOKS)
+    Optional<Student> findWithBooksById(Long id);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select s.id from Student s order by s.id")
+    List<Long> findAllIds();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select s from Student s order by s.id")
+    Stream<Student> streamAll();
 }
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -15,5 +16,33 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
-    @Query("select u from User u where u.username like %:username%")
-    Optional<User> findByUsername(@Param("username")String username);}
+    Optional<User> findFirstByUsername(String username);
+
+    boolean existsByUsernameIgnoreCase(String username);
+
+    boolean existsByUsernameIgnoreCaseAndIdNot(String username, Long id);
+
+    /**
+     * Users whose username was stored before usernames were normalized.
+     */
+    @Query("select u from User u where u.username <> lower(trim(u.username)) order by u.id")
+    List<User> findWithUnnormalizedUsername();
+
+    /**
+     * Exact lookup on the indexed username column. Usernames are stored normalized, so the
+     * normalized form is tried first; accounts registered before normalization keep matching
+     * their username as typed.
+     */
+    default Optional<User> findByUsernameExact(String username) {
+        String normalized = normalizeUsername(username);
+        Optional<User> user = findFirstByUsername(normalized);
+        if (user.isPresent() || normalized.equals(username)) {
+            return user;
+        }
+        return findFirstByUsername(username);
+    }
+
+    static String normalizeUsername(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.libraries.repository.projection;
+
+public interface AuthorNameView {
+
+    Long getId();
+
+    String getName();
+
+    String getLastname();
+}
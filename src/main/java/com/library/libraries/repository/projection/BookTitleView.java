@@ -0,0 +1,8 @@
+package com.library.libraries.repository.projection;
+
+public interface BookTitleView {
+
+    Long getId();
+
+    String getTitle();
+}
@@ -0,0 +1,8 @@
+package com.library.libraries.repository.projection;
+
+public interface LoanCountView {
+
+    Long getId();
+
+    Long getLoans();
+}
@@ -0,0 +1,101 @@
+package com.library.libraries.search;
+
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.projection.AuthorNameView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class AuthorSearchIndex {
+
+    private static final LoggerFacade logger = new LoggerFacade(AuthorSearchIndex.class);
+
+    private final AuthorRepository authorRepository;
+    private final int fuzzyMaxEdits;
+
+    private volatile NameIndexes nameIndexes;
+    private List<AuthorChangedEvent> pendingEvents;
+
+    public AuthorSearchIndex(AuthorRepository authorRepository,
+                             @Value("${library.search.fuzzy.max-edits:2}") int fuzzyMaxEdits) {
+        this.authorRepository = authorRepository;
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+
+        NameIndexes freshIndexes = new NameIndexes(fuzzyMaxEdits);
+        for (AuthorNameView author : authorRepository.findAllNamesBy()) {
+            freshIndexes.index(author.getId(), author.getName(), author.getLastname());
+        }
+
+        synchronized (this) {
+            pendingEvents.forEach(freshIndexes::apply);
+            pendingEvents = null;
+            nameIndexes = freshIndexes;
+        }
+        logger.info("Author search index rebuilt with {} authors", freshIndexes.substrings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAuthorChanged(AuthorChangedEvent event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+        if (nameIndexes != null) {
+            nameIndexes.apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return nameIndexes != null;
+    }
+
+    public List<Long> searchName(String query) {
+        return nameIndexes.substrings.search(query);
+    }
+
+    /**
+     * Authors whose name or lastname words are within {@code maxEdits} typos of the query, so "Tolkein"
+     * finds Tolkien. Ranked like {@link BookSearchIndex#searchTitleFuzzy}.
+     */
+    public List<Long> searchNameFuzzy(String query, int maxEdits) {
+        return nameIndexes.fuzzy.search(query, maxEdits);
+    }
+
+    private static final class NameIndexes {
+
+        private final TrigramIndex substrings = new TrigramIndex();
+        private final FuzzyTokenIndex fuzzy;
+
+        NameIndexes(int fuzzyMaxEdits) {
+            fuzzy = new FuzzyTokenIndex(fuzzyMaxEdits);
+        }
+
+        void index(long id, String name, String lastname) {
+            substrings.index(id, name, lastname);
+            fuzzy.index(id, name, lastname);
+        }
+
+        void apply(AuthorChangedEvent event) {
+            if (event.isDeletion()) {
+                substrings.remove(event.getAuthorId());
+                fuzzy.remove(event.getAuthorId());
+            } else {
+                index(event.getAuthorId(), event.getCurrent().getName(), event.getCurrent().getLastname());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.library.libraries.search;
+
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.AuthorSnapshot;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.rental.AuthorLoanStats;
+import com.library.libraries.repository.AuthorLoanStatsRepository;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookLoanRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.projection.AuthorNameView;
+import com.library.libraries.repository.projection.BookTitleView;
+import com.library.libraries.repository.projection.LoanCountView;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Title and author name completions weighted by how often the book, or any book of the author, was rented.
+ * The weights start from the rental projections and then grow with every checkout published by the services,
+ * so they may run ahead of the projections for a while. A checkout committed during a rebuild but not yet
+ * projected is left out until the next rebuild rather than counted twice.
+ */
+@Component
+public class AutocompleteIndex {
+
+    public static final int MAX_COMPLETIONS = 10;
+
+    private static final LoggerFacade logger = new LoggerFacade(AutocompleteIndex.class);
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final BookLoanRepository bookLoanRepository;
+    private final AuthorLoanStatsRepository authorLoanStatsRepository;
+
+    private volatile Tries tries;
+    private List<Object> pendingEvents;
+
+    public AutocompleteIndex(BookRepository bookRepository, AuthorRepository authorRepository,
+                             BookLoanRepository bookLoanRepository,
+                             AuthorLoanStatsRepository authorLoanStatsRepository) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.bookLoanRepository = bookLoanRepository;
+        this.authorLoanStatsRepository = authorLoanStatsRepository;
+    }
+
+    /**
+     * Reads the rental weights before it starts buffering change events, so a buffered checkout was committed
+     * after the weights were read and cannot already be counted in them. Titles and names are still read after
+     * the buffer opens, so a rename committed in between is replayed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, Long> bookLoans = new HashMap<>();
+        for (LoanCountView count : bookLoanRepository.countLoansPerBook()) {
+            bookLoans.put(count.getId(), count.getLoans());
+        }
+        Map<Long, Long> authorLoans = new HashMap<>();
+        for (AuthorLoanStats stats : authorLoanStatsRepository.findAll()) {
+            authorLoans.put(stats.getAuthorId(), stats.getTotalLoans());
+        }
+
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+
+        Tries freshTries = new Tries();
+        for (BookTitleView book : bookRepository.findAllTitlesBy()) {
+            freshTries.titles.put(book.getId(), book.getTitle(), bookLoans.getOrDefault(book.getId(), 0L));
+        }
+        for (AuthorNameView author : authorRepository.findAllNamesBy()) {
+            freshTries.names.put(author.getId(), fullName(author.getName(), author.getLastname()),
+                    authorLoans.getOrDefault(author.getId(), 0L));
+        }
+
+        synchronized (this) {
+            pendingEvents.forEach(freshTries::apply);
+            pendingEvents = null;
+            tries = freshTries;
+        }
+        logger.info("Autocomplete index rebuilt with {} titles and {} authors",
+                freshTries.titles.size(), freshTries.names.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        onChanged(event);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        onChanged(event);
+    }
+
+    private synchronized void onChanged(Object event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+        if (tries != null) {
+            tries.apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return tries != null;
+    }
+
+    public List<CompletionDto> completeTitle(String prefix, int limit) {
+        return toDtos(tries.titles.complete(prefix, limit));
+    }
+
+    public List<CompletionDto> completeAuthorName(String prefix, int limit) {
+        return toDtos(tries.names.complete(prefix, limit));
+    }
+
+    private static List<CompletionDto> toDtos(List<CompletionTrie.Completion> completions) {
+        List<CompletionDto> dtos = new ArrayList<>(completions.size());
+        for (CompletionTrie.Completion completion : completions) {
+            dtos.add(new CompletionDto(completion.getId(), completion.getText(), completion.getWeight()));
+        }
+        return dtos;
+    }
+
+    private static String fullName(String name, String lastname) {
+        return lastname == null ? name : name + " " + lastname;
+    }
+
+    private static final class Tries {
+
+        private final CompletionTrie titles = new CompletionTrie(MAX_COMPLETIONS);
+        private final CompletionTrie names = new CompletionTrie(MAX_COMPLETIONS);
+
+        void apply(Object event) {
+            if (event instanceof BookChangedEvent) {
+                apply((BookChangedEvent) event);
+            } else if (event instanceof AuthorChangedEvent) {
+                apply((AuthorChangedEvent) event);
+            }
+        }
+
+        private void apply(BookChangedEvent event) {
+            if (event.isDeletion()) {
+                titles.remove(event.getBookId());
+                return;
+            }
+
+            BookSnapshot previous = event.getPrevious();
+            BookSnapshot current = event.getCurrent();
+            if (previous == null || !Objects.equals(previous.getTitle(), current.getTitle())) {
+                titles.put(current.getId(), current.getTitle(), titles.weight(current.getId()));
+            }
+            if (previous != null && previous.getStatus() != Status.RENTED && current.getStatus() == Status.RENTED) {
+                titles.addWeight(current.getId(), 1);
+                if (current.getAuthorId() != null) {
+                    names.addWeight(current.getAuthorId(), 1);
+                }
+            }
+        }
+
+        private void apply(AuthorChangedEvent event) {
+            if (event.isDeletion()) {
+                names.remove(event.getAuthorId());
+                return;
+            }
+
+            AuthorSnapshot previous = event.getPrevious();
+            AuthorSnapshot current = event.getCurrent();
+            if (previous == null || !Objects.equals(previous.getName(), current.getName())
+                    || !Objects.equals(previous.getLastname(), current.getLastname())) {
+                names.put(current.getId(), fullName(current.getName(), current.getLastname()),
+                        names.weight(current.getId()));
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.libraries.search;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.model.Status;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The attributes of a {@link BookDto} that {@code BookSpecifications.byAttributes} filters on, normalized
+ * the way the query compares them, so equivalent searches share a cache entry.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public final class BookSearchCriteria {
+
+    private final Long id;
+    private final String title;
+    private final String isbn;
+    private final Integer publishYear;
+    private final Long studentId;
+    private final Status status;
+    private final Long authorId;
+
+    private BookSearchCriteria(BookDto bookDto) {
+        this.id = bookDto.getId();
+        this.title = bookDto.getTitle() != null ? bookDto.getTitle().toLowerCase(Locale.ROOT) : null;
+        this.isbn = bookDto.getIsbn();
+        this.publishYear = bookDto.getPublishYear();
+        this.studentId = bookDto.getStudentId();
+        this.status = bookDto.getStatus();
+        this.authorId = bookDto.getAuthorId();
+    }
+
+    public static BookSearchCriteria of(BookDto bookDto) {
+        return new BookSearchCriteria(bookDto);
+    }
+
+    /**
+     * The invalidation tag of a search: its author, status and year, each {@code null} when the search
+     * does not filter on it.
+     */
+    Tag tag() {
+        return new Tag(authorId, status, publishYear);
+    }
+
+    static final class Tag {
+
+        private final Long authorId;
+        private final Status status;
+        private final Integer publishYear;
+
+        Tag(Long authorId, Status status, Integer publishYear) {
+            this.authorId = authorId;
+            this.status = status;
+            this.publishYear = publishYear;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Tag)) {
+                return false;
+            }
+            Tag tag = (Tag) o;
+            return Objects.equals(authorId, tag.authorId) && status == tag.status
+                    && Objects.equals(publishYear, tag.publishYear);
+        }
+
+        // Uses the status ordinal rather than the enum's identity hash so stripes are stable across runs
+        @Override
+        public int hashCode() {
+            return Objects.hash(authorId, status != null ? status.ordinal() : null, publishYear);
+        }
+
+        /**
+         * Every tag whose searches could match {@code book}: each attribute either equal to the book's
+         * or left open.
+         */
+        static Tag[] matching(BookSnapshot book) {
+            Tag[] tags = new Tag[8];
+            for (int mask = 0; mask < tags.length; mask++) {
+                tags[mask] = new Tag(
+                        (mask & 1) != 0 ? book.getAuthorId() : null,
+                        (mask & 2) != 0 ? book.getStatus() : null,
+                        (mask & 4) != 0 ? book.getPublishYear() : null);
+            }
+            return tags;
+        }
+    }
+}
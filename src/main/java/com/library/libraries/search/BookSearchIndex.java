@@ -0,0 +1,123 @@
+package com.library.libraries.search;
+
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.projection.BookTitleView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+public class BookSearchIndex {
+
+    private static final LoggerFacade logger = new LoggerFacade(BookSearchIndex.class);
+
+    private final BookRepository bookRepository;
+    private final int fuzzyMaxEdits;
+
+    private volatile TitleIndexes titleIndexes;
+    private List<BookChangedEvent> pendingEvents;
+
+    public BookSearchIndex(BookRepository bookRepository,
+                           @Value("${library.search.fuzzy.max-edits:2}") int fuzzyMaxEdits) {
+        this.bookRepository = bookRepository;
+        this.fuzzyMaxEdits = fuzzyMaxEdits;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            pendingEvents = new ArrayList<>();
+        }
+
+        TitleIndexes freshIndexes = new TitleIndexes(fuzzyMaxEdits);
+        for (BookTitleView book : bookRepository.findAllTitlesBy()) {
+            freshIndexes.index(book.getId(), book.getTitle());
+        }
+
+        synchronized (this) {
+            pendingEvents.forEach(freshIndexes::apply);
+            pendingEvents = null;
+            titleIndexes = freshIndexes;
+        }
+        logger.info("Book search index rebuilt with {} titles", freshIndexes.substrings.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookChanged(BookChangedEvent event) {
+        if (pendingEvents != null) {
+            pendingEvents.add(event);
+        }
+        if (titleIndexes != null) {
+            titleIndexes.apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return titleIndexes != null;
+    }
+
+    public List<Long> searchTitle(String query) {
+        TitleIndexes indexes = titleIndexes;
+
+        List<Long> substringMatches = indexes.substrings.search(query);
+        if (substringMatches.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> matching = new HashSet<>(substringMatches);
+        Set<Long> ranked = new LinkedHashSet<>(substringMatches.size());
+        for (Long id : indexes.tokens.search(query)) {
+            if (matching.contains(id)) {
+                ranked.add(id);
+            }
+        }
+        ranked.addAll(substringMatches);
+        return new ArrayList<>(ranked);
+    }
+
+    /**
+     * Titles sharing words with the query within {@code maxEdits} typos, ranked by how many query words
+     * they contain and then by the typos it took.
+     */
+    public List<Long> searchTitleFuzzy(String query, int maxEdits) {
+        return titleIndexes.fuzzy.search(query, maxEdits);
+    }
+
+    private static final class TitleIndexes {
+
+        private final InvertedIndex tokens = new InvertedIndex();
+        private final TrigramIndex substrings = new TrigramIndex();
+        private final FuzzyTokenIndex fuzzy;
+
+        TitleIndexes(int fuzzyMaxEdits) {
+            fuzzy = new FuzzyTokenIndex(fuzzyMaxEdits);
+        }
+
+        void index(long id, String title) {
+            tokens.index(id, title);
+            substrings.index(id, title);
+            fuzzy.index(id, title);
+        }
+
+        void apply(BookChangedEvent event) {
+            if (event.isDeletion()) {
+                tokens.remove(event.getBookId());
+                substrings.remove(event.getBookId());
+                fuzzy.remove(event.getBookId());
+            } else {
+                index(event.getBookId(), event.getCurrent().getTitle());
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.library.libraries.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Results of criteria book searches, keyed by {@link BookSearchCriteria}, whether they were read from the
+ * in-memory catalog or, while it loads, from the database. Entries are invalidated by
+ * tag: every search is tagged with the author, status and year it filters on, and a book change bumps
+ * the version of the tags of the book before and after the change. An entry whose tag version moved on
+ * since it was loaded is stale and gets reloaded. Versions live in a fixed array of stripes, so two
+ * tags sharing a stripe only cause an extra reload. Author changes alter the author embedded in the
+ * results and clear the whole cache.
+ */
+@Component
+public class BookSearchResultCache {
+
+    private static final int MAX_ENTRIES = 5_000;
+    private static final int VERSION_STRIPES = 1 << 12;
+
+    private final Cache<BookSearchCriteria, CachedResult> results = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .recordStats()
+            .build();
+
+    private final AtomicLongArray tagVersions = new AtomicLongArray(VERSION_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+
+    public List<BookDto> get(BookSearchCriteria criteria, Function<BookSearchCriteria, List<BookDto>> loader) {
+        int stripe = stripe(criteria.tag());
+
+        CachedResult cached = results.getIfPresent(criteria);
+        if (cached != null && cached.version == tagVersions.get(stripe)) {
+            hits.increment();
+            return cached.books;
+        }
+        if (cached != null) {
+            staleReads.increment();
+        }
+        misses.increment();
+
+        // Read the version before querying: a change committed meanwhile bumps it and outdates this result
+        long version = tagVersions.get(stripe);
+        List<BookDto> books = Collections.unmodifiableList(loader.apply(criteria));
+        results.put(criteria, new CachedResult(version, books));
+        return books;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        invalidate(event.getPrevious());
+        invalidate(event.getCurrent());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        if (event.getPrevious() != null) {
+            results.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return results.estimatedSize();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getStaleCount() {
+        return staleReads.sum();
+    }
+
+    public long getEvictionCount() {
+        return results.stats().evictionCount();
+    }
+
+    private void invalidate(BookSnapshot book) {
+        if (book == null) {
+            return;
+        }
+        for (BookSearchCriteria.Tag tag : BookSearchCriteria.Tag.matching(book)) {
+            tagVersions.incrementAndGet(stripe(tag));
+        }
+    }
+
+    private static int stripe(BookSearchCriteria.Tag tag) {
+        int hash = tag.hashCode();
+        return (hash ^ (hash >>> 16)) & (VERSION_STRIPES - 1);
+    }
+
+    private static final class CachedResult {
+
+        private final long version;
+        private final List<BookDto> books;
+
+        private CachedResult(long version, List<BookDto> books) {
+            this.version = version;
+            this.books = books;
+        }
+    }
+}
@@ -0,0 +1,399 @@
+package com.library.libraries.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Radix trie over case and accent folded text that answers "which documents start with this prefix" with the
+ * heaviest ones first. Every word of a document starts a key, so {@code thr} completes "A Game of Thrones".
+ * <p>
+ * Each node keeps the best {@code maxCompletions} documents of its subtree, so a lookup is a walk down the
+ * prefix and a copy of that list, whatever the size of the subtree. Writes pay instead: inserting, removing
+ * or reweighing a document recomputes those lists along the paths of its keys.
+ */
+public class CompletionTrie {
+
+    static final int MAX_KEY_LENGTH = 64;
+
+    private static final Document[] NO_DOCUMENTS = new Document[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Comparator<Document> BY_WEIGHT = Comparator
+            .comparingLong((Document document) -> document.weight).reversed()
+            .thenComparingLong(document -> document.id);
+
+    private final int maxCompletions;
+    private final Node root = new Node("");
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CompletionTrie(int maxCompletions) {
+        if (maxCompletions < 1) {
+            throw new IllegalArgumentException("At least one completion must be kept: " + maxCompletions);
+        }
+        this.maxCompletions = maxCompletions;
+    }
+
+    public int getMaxCompletions() {
+        return maxCompletions;
+    }
+
+    /**
+     * Indexes {@code text} under {@code id}, replacing what was indexed for it before.
+     */
+    public void put(long id, String text, long weight) {
+        Document document = new Document(id, text, weight, keys(text));
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            documents.put(id, document);
+            for (String key : document.keys) {
+                insert(key, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the weight of an indexed document. Unknown ids are ignored.
+     */
+    public void addWeight(long id, long delta) {
+        lock.writeLock().lock();
+        try {
+            Document document = documents.get(id);
+            if (document == null || delta == 0) {
+                return;
+            }
+            document.weight += delta;
+            for (String key : document.keys) {
+                List<Node> path = path(key);
+                if (path != null) {
+                    recompute(path);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the weight of an indexed document, or 0 when it is not indexed.
+     */
+    public long weight(long id) {
+        lock.readLock().lock();
+        try {
+            Document document = documents.get(id);
+            return document != null ? document.weight : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Completion> complete(String prefix, int limit) {
+        String key = key(TextNormalizer.tokenize(prefix));
+        if (key.isEmpty() || limit < 1) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                Node child = node.child(key.charAt(matched));
+                if (child == null) {
+                    return Collections.emptyList();
+                }
+                int common = commonPrefix(child.label, key, matched);
+                if (common < child.label.length() && matched + common < key.length()) {
+                    return Collections.emptyList();
+                }
+                matched += common;
+                node = child;
+            }
+
+            Document[] best = node.best;
+            int count = Math.min(limit, best.length);
+            List<Completion> completions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                completions.add(new Completion(best[i].id, best[i].text, best[i].weight));
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> keys(String text) {
+        List<String> tokens = TextNormalizer.tokenize(text);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            keys.add(key(tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static String key(List<String> tokens) {
+        String key = String.join(" ", tokens);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private void insert(String key, Document document) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            int slot = node.slot(key.charAt(matched));
+            if (slot < 0) {
+                Node leaf = new Node(key.substring(matched));
+                node.addChild(leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+
+            Node child = node.children[slot];
+            int common = commonPrefix(child.label, key, matched);
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.best = child.best;
+                node.children[slot] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            matched += common;
+        }
+
+        node.terminals = append(node.terminals, document);
+        recompute(path);
+    }
+
+    private void removeUnlocked(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String key : document.keys) {
+            List<Node> path = path(key);
+            if (path == null) {
+                continue;
+            }
+            Node end = path.get(path.size() - 1);
+            end.terminals = without(end.terminals, document);
+            prune(path);
+        }
+    }
+
+    /**
+     * Drops the nodes the removal left without documents and merges the ones left with a single child, so the
+     * trie stays as compact as if the document had never been there. Recomputes the best lists on the way up.
+     */
+    private void prune(List<Node> path) {
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node node = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (node.terminals.length == 0 && node.children.length == 0) {
+                parent.removeChild(node.label.charAt(0));
+            } else if (node.terminals.length == 0 && node.children.length == 1) {
+                Node only = node.children[0];
+                only.label = node.label + only.label;
+                parent.children[parent.slot(only.label.charAt(0))] = only;
+            } else {
+                node.best = best(node);
+            }
+        }
+        root.best = best(root);
+    }
+
+    private List<Node> path(String key) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int matched = 0;
+        while (matched < key.length()) {
+            Node child = node.child(key.charAt(matched));
+            if (child == null || !key.startsWith(child.label, matched)) {
+                return null;
+            }
+            node = child;
+            path.add(node);
+            matched += child.label.length();
+        }
+        return path;
+    }
+
+    private void recompute(List<Node> path) {
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            node.best = best(node);
+        }
+    }
+
+    /**
+     * The children's lists are already the best of their subtrees, so the best of this subtree is among them
+     * and the documents that end here. A document indexed under several keys may show up more than once.
+     */
+    private Document[] best(Node node) {
+        List<Document> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.best));
+        }
+        if (candidates.isEmpty()) {
+            return NO_DOCUMENTS;
+        }
+        candidates.sort(BY_WEIGHT);
+
+        List<Document> best = new ArrayList<>(Math.min(maxCompletions, candidates.size()));
+        Set<Long> seen = new HashSet<>();
+        for (Document candidate : candidates) {
+            if (seen.add(candidate.id)) {
+                best.add(candidate);
+                if (best.size() == maxCompletions) {
+                    break;
+                }
+            }
+        }
+        return best.toArray(NO_DOCUMENTS);
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Document[] append(Document[] documents, Document document) {
+        Document[] appended = Arrays.copyOf(documents, documents.length + 1);
+        appended[documents.length] = document;
+        return appended;
+    }
+
+    private static Document[] without(Document[] documents, Document document) {
+        for (int i = 0; i < documents.length; i++) {
+            if (documents[i] == document) {
+                Document[] remaining = new Document[documents.length - 1];
+                System.arraycopy(documents, 0, remaining, 0, i);
+                System.arraycopy(documents, i + 1, remaining, i, remaining.length - i);
+                return remaining;
+            }
+        }
+        return documents;
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class Completion {
+
+        private final long id;
+        private final String text;
+        private final long weight;
+    }
+
+    private static final class Document {
+
+        private final long id;
+        private final String text;
+        private final String[] keys;
+        private long weight;
+
+        Document(long id, String text, long weight, Set<String> keys) {
+            this.id = id;
+            this.text = text;
+            this.weight = weight;
+            this.keys = keys.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Children are kept sorted by the first character of their label, which is unique among siblings. The
+     * arrays are replaced rather than changed in place, so a best list can be shared by a split node.
+     */
+    private static final class Node {
+
+        private String label;
+        private char[] firsts = new char[0];
+        private Node[] children = NO_CHILDREN;
+        private Document[] terminals = NO_DOCUMENTS;
+        private Document[] best = NO_DOCUMENTS;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int slot(char first) {
+            return Arrays.binarySearch(firsts, first);
+        }
+
+        Node child(char first) {
+            int slot = slot(first);
+            return slot >= 0 ? children[slot] : null;
+        }
+
+        void addChild(Node child) {
+            int insertion = -slot(child.label.charAt(0)) - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            newFirsts[insertion] = child.label.charAt(0);
+            newChildren[insertion] = child;
+            System.arraycopy(firsts, insertion, newFirsts, insertion + 1, firsts.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void removeChild(char first) {
+            int slot = slot(first);
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, slot);
+            System.arraycopy(children, 0, newChildren, 0, slot);
+            System.arraycopy(firsts, slot + 1, newFirsts, slot, newFirsts.length - slot);
+            System.arraycopy(children, slot + 1, newChildren, slot, newChildren.length - slot);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.library.libraries.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo tolerant token search with a symmetric deletion index: every distinct token is stored under each
+ * string obtained by deleting up to {@code maxEdits} characters from its first {@link #PREFIX_LENGTH}
+ * characters. The deletions of a query token then find every token within that many edits without looking
+ * at the rest of the vocabulary, and only those candidates are checked with the real distance, which counts
+ * an adjacent transposition ("tolkein") as one edit.
+ * <p>
+ * Short tokens tolerate fewer edits: none up to two characters and at most one up to five. Documents are
+ * ranked by how many query tokens they match, then by the sum of the edits those matches took. A document
+ * has to match at least half of the query tokens.
+ */
+public class FuzzyTokenIndex {
+
+    static final int PREFIX_LENGTH = 7;
+
+    private static final Comparator<Match> BY_RELEVANCE = Comparator
+            .comparingInt((Match match) -> match.coverage).reversed()
+            .thenComparingInt(match -> match.edits)
+            .thenComparingLong(match -> match.id);
+
+    private final int maxEdits;
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<String, Set<String>> tokensByDeletion = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FuzzyTokenIndex(int maxEdits) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("Edit distance must not be negative: " + maxEdits);
+        }
+        this.maxEdits = maxEdits;
+    }
+
+    public int getMaxEdits() {
+        return maxEdits;
+    }
+
+    public void index(long id, String... fields) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields) {
+            tokens.addAll(TextNormalizer.tokenize(field));
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            documents.put(id, tokens.toArray(new String[0]));
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, this::addToVocabulary).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the matching documents, best first. {@code edits} is capped by the distance the index was
+     * built for.
+     */
+    public List<Long> search(String query, int edits) {
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+        if (queryTokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int allowed = Math.max(0, Math.min(edits, maxEdits));
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Match> matches = new HashMap<>();
+            for (String queryToken : queryTokens) {
+                Map<Long, Integer> closest = new HashMap<>();
+                Map<String, Integer> similarTokens = similarTokens(queryToken, allowedEdits(queryToken, allowed));
+                for (Map.Entry<String, Integer> similar : similarTokens.entrySet()) {
+                    for (Long id : postings.get(similar.getKey())) {
+                        closest.merge(id, similar.getValue(), Math::min);
+                    }
+                }
+                for (Map.Entry<Long, Integer> entry : closest.entrySet()) {
+                    matches.computeIfAbsent(entry.getKey(), Match::new).add(entry.getValue());
+                }
+            }
+
+            int minCoverage = (queryTokens.size() + 1) / 2;
+            List<Match> ranked = new ArrayList<>();
+            for (Match match : matches.values()) {
+                if (match.coverage >= minCoverage) {
+                    ranked.add(match);
+                }
+            }
+            ranked.sort(BY_RELEVANCE);
+
+            List<Long> ids = new ArrayList<>(ranked.size());
+            for (Match match : ranked) {
+                ids.add(match.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int allowedEdits(String token, int edits) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 5 ? Math.min(edits, 1) : edits;
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and transpositions of adjacent
+     * characters. Gives up as soon as the distance is known to exceed {@code max} and returns {@code max + 1}.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    static Set<String> deletions(String token, int edits) {
+        String prefix = token.length() > PREFIX_LENGTH ? token.substring(0, PREFIX_LENGTH) : token;
+        Set<String> variants = new HashSet<>();
+        variants.add(prefix);
+        List<String> frontier = Collections.singletonList(prefix);
+        for (int edit = 0; edit < edits; edit++) {
+            List<String> next = new ArrayList<>();
+            for (String variant : frontier) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String deleted = variant.substring(0, i) + variant.substring(i + 1);
+                    if (variants.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    private Map<String, Integer> similarTokens(String queryToken, int edits) {
+        if (edits == 0) {
+            return postings.containsKey(queryToken)
+                    ? Collections.singletonMap(queryToken, 0)
+                    : Collections.emptyMap();
+        }
+
+        Set<String> candidates = new HashSet<>();
+        for (String variant : deletions(queryToken, edits)) {
+            Set<String> tokens = tokensByDeletion.get(variant);
+            if (tokens != null) {
+                candidates.addAll(tokens);
+            }
+        }
+
+        Map<String, Integer> similar = new HashMap<>();
+        for (String candidate : candidates) {
+            int distance = distance(queryToken, candidate, edits);
+            if (distance <= edits) {
+                similar.put(candidate, distance);
+            }
+        }
+        return similar;
+    }
+
+    private Set<Long> addToVocabulary(String token) {
+        for (String variant : deletions(token, maxEdits)) {
+            tokensByDeletion.computeIfAbsent(variant, key -> new HashSet<>()).add(token);
+        }
+        return new HashSet<>();
+    }
+
+    private void removeUnlocked(long id) {
+        String[] tokens = documents.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(token);
+                for (String variant : deletions(token, maxEdits)) {
+                    Set<String> variantTokens = tokensByDeletion.get(variant);
+                    if (variantTokens != null && variantTokens.remove(token) && variantTokens.isEmpty()) {
+                        tokensByDeletion.remove(variant);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Match {
+
+        private final long id;
+        private int coverage;
+        private int edits;
+
+        Match(long id) {
+            this.id = id;
+        }
+
+        void add(int tokenEdits) {
+            coverage++;
+            edits += tokenEdits;
+        }
+    }
+}
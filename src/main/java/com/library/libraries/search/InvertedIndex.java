@@ -0,0 +1,218 @@
+package com.library.libraries.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Token to document postings over case and accent folded text. A query matches a document when its
+ * tokens appear consecutively in the document, which is what a {@code like %query%} gives for
+ * whole-token queries. Matches are ranked with BM25.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalTokens;
+
+    public void index(long id, String text) {
+        String[] tokens = TextNormalizer.tokenize(text).toArray(new String[0]);
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            documents.put(id, tokens);
+            totalTokens += tokens.length;
+            for (Map.Entry<String, Integer> term : termFrequencies(tokens).entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new Postings()).put(id, term.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        String[] queryTokens = TextNormalizer.tokenize(query).toArray(new String[0]);
+        if (queryTokens.length == 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> queryTerms = termFrequencies(queryTokens);
+            List<Postings> lists = new ArrayList<>(queryTerms.size());
+            for (String term : queryTerms.keySet()) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings shortest = lists.get(0);
+            List<ScoredDocument> matches = new ArrayList<>();
+            for (int i = 0; i < shortest.size; i++) {
+                long id = shortest.ids[i];
+                if (containsAll(lists, id) && containsPhrase(documents.get(id), queryTokens)) {
+                    matches.add(new ScoredDocument(id, score(id, queryTerms.keySet())));
+                }
+            }
+
+            matches.sort(ScoredDocument.BY_RELEVANCE);
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (ScoredDocument match : matches) {
+                ids.add(match.id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(long id) {
+        String[] tokens = documents.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        totalTokens -= tokens.length;
+        for (String term : termFrequencies(tokens).keySet()) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private double score(long id, Iterable<String> terms) {
+        int documentLength = documents.get(id).length;
+        double averageLength = documents.isEmpty() ? 1 : (double) totalTokens / documents.size();
+        double score = 0;
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            int frequency = list.frequency(id);
+            double idf = Math.log(1 + (documents.size() - list.size + 0.5) / (list.size + 0.5));
+            score += idf * frequency * (K1 + 1)
+                    / (frequency + K1 * (1 - B + B * documentLength / averageLength));
+        }
+        return score;
+    }
+
+    private static boolean containsAll(List<Postings> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (lists.get(i).indexOf(id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsPhrase(String[] tokens, String[] phrase) {
+        for (int start = 0; start + phrase.length <= tokens.length; start++) {
+            int matched = 0;
+            while (matched < phrase.length && tokens[start + matched].equals(phrase[matched])) {
+                matched++;
+            }
+            if (matched == phrase.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, Integer> termFrequencies(String[] tokens) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return frequencies;
+    }
+
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void put(long id, int frequency) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                frequencies[index] = frequency;
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            frequencies[insertAt] = frequency;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int frequency(long id) {
+            int index = indexOf(id);
+            return index >= 0 ? frequencies[index] : 0;
+        }
+
+        int indexOf(long id) {
+            return Arrays.binarySearch(ids, 0, size, id);
+        }
+    }
+
+    private static final class ScoredDocument {
+
+        static final Comparator<ScoredDocument> BY_RELEVANCE = Comparator
+                .comparingDouble((ScoredDocument document) -> document.score).reversed()
+                .thenComparingLong(document -> document.id);
+
+        final long id;
+        final double score;
+
+        ScoredDocument(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.library.libraries.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Substring index over one or more text fields per document. Candidates come from intersecting the
+ * postings of every trigram of the query and are then verified against the stored folded text, so
+ * results are exactly the documents where some field contains the query. Queries shorter than a
+ * trigram cannot be answered from postings and are verified against every document instead.
+ */
+public class TrigramIndex {
+
+    private final Map<Long, SortedLongSet> postings = new HashMap<>();
+    private final Map<Long, String[]> documents = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(long id, String... fields) {
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = TextNormalizer.normalize(fields[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            documents.put(id, normalized);
+            for (long trigram : trigrams(normalized)) {
+                postings.computeIfAbsent(trigram, key -> new SortedLongSet()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        String normalizedQuery = TextNormalizer.normalize(query);
+
+        lock.readLock().lock();
+        try {
+            if (normalizedQuery.length() < 3) {
+                return scan(normalizedQuery);
+            }
+
+            List<SortedLongSet> lists = new ArrayList<>();
+            for (long trigram : trigrams(new String[]{normalizedQuery})) {
+                SortedLongSet list = postings.get(trigram);
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(SortedLongSet::size));
+
+            SortedLongSet shortest = lists.get(0);
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < shortest.size(); i++) {
+                long id = shortest.get(i);
+                if (containsAll(lists, id) && anyFieldContains(documents.get(id), normalizedQuery)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> scan(String normalizedQuery) {
+        List<Long> ids = new ArrayList<>();
+        for (Map.Entry<Long, String[]> document : documents.entrySet()) {
+            if (anyFieldContains(document.getValue(), normalizedQuery)) {
+                ids.add(document.getKey());
+            }
+        }
+        return ids;
+    }
+
+    private void removeUnlocked(long id) {
+        String[] fields = documents.remove(id);
+        if (fields == null) {
+            return;
+        }
+        for (long trigram : trigrams(fields)) {
+            SortedLongSet list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size() == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private static Set<Long> trigrams(String[] fields) {
+        Set<Long> trigrams = new HashSet<>();
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                trigrams.add(((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2));
+            }
+        }
+        return trigrams;
+    }
+
+    private static boolean containsAll(List<SortedLongSet> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean anyFieldContains(String[] fields, String normalizedQuery) {
+        for (String field : fields) {
+            if (field.contains(normalizedQuery)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class SortedLongSet {
+
+        private long[] values = new long[4];
+        private int size;
+
+        void add(long value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+            values[insertAt] = value;
+            size++;
+        }
+
+        boolean remove(long value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        long get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.library.libraries.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.library.libraries.service.imp.UserDetailsServiceImp;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path caches for {@link JwtAuthenticationFilter}. Verified token claims are kept until the
+ * token expires, so a token's signature is checked once rather than on every request, and user
+ * details are kept for a short time so authenticated requests do not query the user table.
+ * Parsing or lookup failures are not cached. Only the filter should read user details from here:
+ * the authentication manager erases the password of the details it authenticates, which would
+ * corrupt a shared cached instance.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private static final int MAX_TOKENS = 10_000;
+    private static final long MAX_TOKEN_TTL_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private static final int MAX_USERS = 10_000;
+    private static final long USER_DETAILS_TTL_SECONDS = 60;
+
+    private final JwtTokenUtil jwtTokenUtil;
+    private final UserDetailsServiceImp userDetailsService;
+
+    private final Cache<String, Claims> claimsByToken = Caffeine.newBuilder()
+            .maximumSize(MAX_TOKENS)
+            .expireAfter(new UntilTokenExpires())
+            .build();
+
+    private final Cache<String, UserDetails> userDetailsByUsername = Caffeine.newBuilder()
+            .maximumSize(MAX_USERS)
+            .expireAfterWrite(USER_DETAILS_TTL_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    public JwtAuthenticationCache(JwtTokenUtil jwtTokenUtil, UserDetailsServiceImp userDetailsService) {
+        this.jwtTokenUtil = jwtTokenUtil;
+        this.userDetailsService = userDetailsService;
+    }
+
+    public Claims getClaims(String token) {
+        return claimsByToken.get(token, jwtTokenUtil::getAllClaimsFromToken);
+    }
+
+    public UserDetails getUserDetails(String username) {
+        return userDetailsByUsername.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    public void evictUser(String username) {
+        userDetailsByUsername.invalidate(username);
+    }
+
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long ttl = TimeUnit.SECONDS.toNanos(MAX_TOKEN_TTL_SECONDS);
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                long untilExpiration = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+                ttl = Math.max(0, Math.min(ttl, untilExpiration));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.library.libraries.security;
 
 
-import com.library.libraries.service.imp.UserDetailsServiceImp;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.SignatureException;
 import lombok.extern.slf4j.Slf4j;
@@ -33,19 +33,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenUtil jwtTokenUtil;
 
     @Autowired
-    private UserDetailsServiceImp userDetailsService;
+    private JwtAuthenticationCache authenticationCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
             throws IOException, ServletException {
 
         String header = req.getHeader(HEADER_STRING);
-        String username = null;
-        String authToken = null;
-        if (header != null && header.startsWith(TOKEN_PREFIX)) {
-            authToken = header.replace(TOKEN_PREFIX, "");
+        Claims claims = null;
+        if (header != null && header.startsWith(TOKEN_PREFIX)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String authToken = header.replace(TOKEN_PREFIX, "");
             try {
-                username = jwtTokenUtil.getUsernameFromToken(authToken);
+                claims = authenticationCache.getClaims(authToken);
             } catch (IllegalArgumentException e) {
 //                log.error("an error occured during getting username from token", e);
             } catch (ExpiredJwtException e) {
@@ -55,11 +55,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }  //            log.warn("couldn't find bearer string, will ignore the header");
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (claims != null && claims.getSubject() != null) {
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = authenticationCache.getUserDetails(claims.getSubject());
 
-            if (jwtTokenUtil.validateToken(authToken, userDetails)) {
+            if (jwtTokenUtil.validateClaims(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, Arrays.asList(new SimpleGrantedAuthority("ROLE_ADMIN")));
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
@@ -0,0 +1,56 @@
+package com.library.libraries.security;
+
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.model.User;
+import com.library.libraries.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Normalizes the usernames stored before registration trimmed and lowercased them, so that every account
+ * is found by the indexed exact lookup. Runs at startup and does nothing once all usernames are normalized.
+ * <p>
+ * A username whose normalized form is already taken is left as it is and reported: the two accounts have to
+ * be merged or renamed by hand. Until then the account keeps logging in with the username as stored.
+ */
+@Component
+public class UsernameMigration {
+
+    private static final LoggerFacade logger = new LoggerFacade(UsernameMigration.class);
+
+    private final UserRepository userRepository;
+
+    public UsernameMigration(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void normalizeUsernames() {
+        List<User> users = userRepository.findWithUnnormalizedUsername();
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Set<String> claimed = new HashSet<>();
+        int normalized = 0;
+        for (User user : users) {
+            String username = UserRepository.normalizeUsername(user.getUsername());
+            if (claimed.contains(username) || userRepository.findFirstByUsername(username).isPresent()) {
+                logger.warn("Username of user {} clashes with another account once normalized, left as it is",
+                        user.getId());
+                continue;
+            }
+            claimed.add(username);
+            user.setUsername(username);
+            normalized++;
+        }
+        logger.info("Normalized {} of {} legacy usernames", normalized, users.size());
+    }
+}
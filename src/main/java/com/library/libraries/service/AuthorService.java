@@ -3,19 +3,25 @@ package com.library.libraries.service;
 import com.library.libraries.dto.AuthorDto;
 import com.library.libraries.dto.AuthorOneDto;
 import com.library.libraries.dto.AuthorUpdateDto;
+import com.library.libraries.dto.CompletionDto;
 import com.library.libraries.service.util.TPage;
 import javassist.NotFoundException;
 import org.springframework.data.domain.Pageable;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface AuthorService {
 
     public AuthorDto save(AuthorDto authorDto);
     public List<AuthorDto> getAll();
+    public void streamAll(Consumer<AuthorDto> consumer);
     public TPage<AuthorDto> getAllPageable(Pageable pageable);
+    public TPage<AuthorDto> getAllAfter(String after, int size, String sort, boolean withTotal);
     public List<AuthorDto> findAllByName(String name);
+    public List<AuthorDto> findAllByNameFuzzy(String name, int maxEdits);
+    public List<CompletionDto> completeNames(String prefix, int limit);
     public AuthorUpdateDto update(Long id, @Valid AuthorUpdateDto authorUpdateDto);
     public AuthorOneDto getOne(Long id);
     public void delete(Long id) ;
@@ -0,0 +1,11 @@
+package com.library.libraries.service;
+
+import com.library.libraries.dto.BookImportReportDto;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface BookImportService {
+    BookImportReportDto importCsv(Reader reader) throws IOException;
+    BookImportReportDto importNdjson(Reader reader) throws IOException;
+}
@@ -1,8 +1,10 @@
 package com.library.libraries.service;
 
 import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetedSearchDto;
 import com.library.libraries.dto.BookOneDto;
 import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.dto.CompletionDto;
 import com.library.libraries.exception.AuthorNotFoundException;
 import com.library.libraries.exception.BookAlreadyExistsException;
 import com.library.libraries.exception.BookDeletionException;
@@ -12,14 +14,21 @@ import javassist.NotFoundException;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookService {
     BookOneDto save(BookOneDto bookOneDto) throws BookAlreadyExistsException, AuthorNotFoundException;
     List<BookDto> getAll();
+    void streamAll(Consumer<BookDto> consumer);
     TPage<BookDto> getAllPageable(Pageable pageable) throws NotFoundException;
+    TPage<BookDto> getAllAfter(String after, int size, String sort, boolean withTotal);
     BookUpdateDto update(Long id, BookUpdateDto bookUpdateDto) throws NotFoundException, IllegalStateException;
     BookOneDto getOne(Long id) throws NotFoundException;
     void delete(Long id) throws BookNotFoundException, BookDeletionException;
     List<BookDto> searchBooksByTitle(String title);
+    List<BookDto> searchBooksByTitleFuzzy(String title, int maxEdits);
     List<BookDto> searchBooks(BookDto bookDto);
+    long countBooks(BookDto bookDto);
+    BookFacetedSearchDto searchBooksFaceted(BookDto bookDto, Pageable pageable);
+    List<CompletionDto> completeTitles(String prefix, int limit);
 }
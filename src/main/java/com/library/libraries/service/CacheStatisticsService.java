@@ -0,0 +1,11 @@
+package com.library.libraries.service;
+
+import com.library.libraries.dto.CacheRegionStatisticsDto;
+import com.library.libraries.dto.SearchCacheStatisticsDto;
+
+import java.util.List;
+
+public interface CacheStatisticsService {
+    List<CacheRegionStatisticsDto> getRegionStatistics();
+    SearchCacheStatisticsDto getSearchCacheStatistics();
+}
@@ -0,0 +1,13 @@
+package com.library.libraries.service;
+
+import com.library.libraries.dto.AuthorLoanStatsDto;
+import com.library.libraries.dto.BookLoanDto;
+import com.library.libraries.dto.StudentLoanStatsDto;
+
+import java.util.List;
+
+public interface RentalReportService {
+    StudentLoanStatsDto getStudentLoans(Long studentId);
+    List<BookLoanDto> getBookLoans(Long bookId);
+    List<AuthorLoanStatsDto> getAuthorLoans();
+}
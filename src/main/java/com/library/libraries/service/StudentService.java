@@ -1,5 +1,7 @@
 package com.library.libraries.service;
 
+import com.library.libraries.dto.StudentBatchPatchDto;
+import com.library.libraries.dto.StudentBatchPatchReportDto;
 import com.library.libraries.dto.StudentDto;
 import com.library.libraries.dto.StudentPatchDto;
 import com.library.libraries.service.util.TPage;
@@ -8,15 +10,20 @@ import org.springframework.data.domain.Pageable;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StudentService {
 
     public StudentDto save(@Valid StudentDto studentDto);
     public TPage<StudentDto> getAllPageable(Pageable pageable);
+    public TPage<StudentDto> getAllAfter(String after, int size, String sort, boolean withTotal);
     public List<StudentDto> getAll();
+    public void streamAll(Consumer<StudentDto> consumer);
     public StudentDto findById(Long id) throws NotFoundException;
     public StudentDto update(Long id, @Valid StudentDto studentDto) throws NotFoundException;
     public StudentDto getBookForStudent(@Valid StudentPatchDto studentPatchDto) throws NotFoundException;
     public Boolean delete(Long id) throws NotFoundException;
     public StudentDto leaveBookForStudent(@Valid StudentPatchDto studentPatchDto) throws NotFoundException;
+    public StudentBatchPatchReportDto getBooksForStudent(@Valid StudentBatchPatchDto studentBatchPatchDto) throws NotFoundException;
+    public StudentBatchPatchReportDto leaveBooksForStudent(@Valid StudentBatchPatchDto studentBatchPatchDto) throws NotFoundException;
 }
\ No newline at end of file
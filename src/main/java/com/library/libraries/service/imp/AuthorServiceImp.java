@@ -4,43 +4,98 @@ package com.library.libraries.service.imp;
 import com.library.libraries.dto.AuthorDto;
 import com.library.libraries.dto.AuthorOneDto;
 import com.library.libraries.dto.AuthorUpdateDto;
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.AuthorSnapshot;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
 import com.library.libraries.exception.AuthorAlreadyExistsException;
+import com.library.libraries.exception.AuthorDeletionException;
 import com.library.libraries.exception.AuthorNotFoundException;
 import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.mapper.AuthorMapper;
 import com.library.libraries.model.Author;
+import com.library.libraries.model.Status;
 import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.KeysetPageRepository;
 import com.library.libraries.repository.UserRepository;
+import com.library.libraries.search.AuthorSearchIndex;
+import com.library.libraries.search.AutocompleteIndex;
 import com.library.libraries.service.AuthorService;
+import com.library.libraries.service.util.EntityStreams;
+import com.library.libraries.service.util.KeysetPaging;
+import com.library.libraries.service.util.PageCursor;
 import com.library.libraries.service.util.TPage;
+import com.library.libraries.specification.AuthorSpecifications;
 import org.springframework.data.domain.Page;
 
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class AuthorServiceImp implements AuthorService {
 
 
     private final ModelMapper modelMapper;
+    private final AuthorMapper authorMapper;
     private final UserRepository userRepository;
     private final AuthorRepository authorRepository;
+    private final KeysetPageRepository keysetPageRepository;
+    private final AuthorSearchIndex authorSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private static final LoggerFacade logger = new LoggerFacade(AuthorServiceImp.class);
 
+    private static final int MAX_FUZZY_RESULTS = 100;
+
+    /**
+     * Like the title search, a name search of a letter or two is cut off here instead of listing everyone.
+     */
+    private static final int MAX_NAME_RESULTS = 1000;
 
-    public AuthorServiceImp(ModelMapper modelMapper, UserRepository userRepository, AuthorRepository authorRepository) {
+    private static final Map<String, Function<Author, String>> CURSOR_SORT_KEYS = new HashMap<>();
+
+    static {
+        CURSOR_SORT_KEYS.put("id", author -> null);
+        CURSOR_SORT_KEYS.put("name", Author::getName);
+        CURSOR_SORT_KEYS.put("lastname", Author::getLastname);
+    }
+
+
+    public AuthorServiceImp(ModelMapper modelMapper, AuthorMapper authorMapper, UserRepository userRepository,
+                            AuthorRepository authorRepository,
+                            KeysetPageRepository keysetPageRepository, AuthorSearchIndex authorSearchIndex,
+                            AutocompleteIndex autocompleteIndex, ApplicationEventPublisher eventPublisher) {
 
         super();
         this.modelMapper = modelMapper;
+        this.authorMapper = authorMapper;
         this.userRepository = userRepository;
         this.authorRepository = authorRepository;
+        this.keysetPageRepository = keysetPageRepository;
+        this.authorSearchIndex = authorSearchIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -54,34 +109,44 @@ public class AuthorServiceImp implements AuthorService {
 
         Author author = modelMapper.map(authorDto, Author.class);
         Author savedAuthor = authorRepository.save(author);
+        eventPublisher.publishEvent(AuthorChangedEvent.created(AuthorSnapshot.of(savedAuthor)));
         logger.info("Author successfully saved with ID: {}", savedAuthor.getId());
 
-        return modelMapper.map(savedAuthor, AuthorDto.class);
+        return authorMapper.toAuthorDto(savedAuthor);
     }
 
 
+    @Transactional(readOnly = true)
     public List<AuthorDto> getAll() {
 
         logger.info("Retrieving all authors");
 
-        List<Author> authors = authorRepository.findAll();
+        List<AuthorDto> authors = authorRepository.findAuthorDtos(null, Sort.by(Sort.Direction.ASC, "id"));
 
         if (authors.isEmpty()) {
             logger.info("No authors found");
             return Collections.emptyList();
         }
 
-        return authors.stream()
-                .map(author -> modelMapper.map(author, AuthorDto.class))
-                .collect(Collectors.toList());
+        return authors;
     }
 
 
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<AuthorDto> consumer) {
+        logger.info("Streaming all authors");
+
+        long streamed = EntityStreams.forEach(authorRepository.streamAll(), entityManager,
+                authorMapper::toAuthorDto, consumer);
+
+        logger.info("Streamed {} authors", streamed);
+    }
+
     @Transactional(readOnly = true)
     public TPage<AuthorDto> getAllPageable(Pageable pageable) {
         logger.info("Fetching pageable list of authors with page number: {} and page size: {}", pageable.getPageNumber(), pageable.getPageSize());
 
-        Page<Author> page = authorRepository.findAll(pageable);
+        Page<AuthorDto> page = authorRepository.findAuthorDtos(pageable);
 
         if (page.isEmpty()) {
             logger.info("No authors found for the provided page request.");
@@ -89,24 +154,40 @@ public class AuthorServiceImp implements AuthorService {
             logger.info("Found {} authors for the provided page request.", page.getNumberOfElements());
         }
 
-        List<AuthorDto> authorDtos = page.getContent().stream()
-                .map(author -> modelMapper.map(author, AuthorDto.class))
-                .collect(Collectors.toList());
-
         TPage<AuthorDto> tPage = new TPage<>();
-        tPage.setStat(page, authorDtos);
+        tPage.setStat(page, page.getContent());
         logger.info("Returning pageable response for authors. Total elements: {}, Total pages: {}", page.getTotalElements(),
                 page.getTotalPages());
         return tPage;
     }
 
 
+    @Transactional(readOnly = true)
+    public TPage<AuthorDto> getAllAfter(String after, int size, String sort, boolean withTotal) {
+        KeysetPaging.validateSize(size);
+        PageCursor cursor = after != null ? PageCursor.decode(after) : null;
+        String sortProperty = cursor != null ? cursor.getSortProperty() : sort;
+
+        Function<Author, String> sortKey = CURSOR_SORT_KEYS.get(sortProperty);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Authors cannot be paged by cursor on: " + sortProperty);
+        }
+
+        logger.info("Fetching authors after cursor sorted by {} with page size: {}", sortProperty, size);
+        List<Author> authors = keysetPageRepository.findAfter(Author.class, sortProperty, cursor, size + 1);
+        Long totalElements = withTotal ? authorRepository.count() : null;
+
+        return KeysetPaging.toPage(authors, size, sortProperty, sortKey, Author::getId,
+                authorMapper::toAuthorDto, totalElements);
+    }
+
+
     @Transactional(readOnly = true)
     public List<AuthorDto> findAllByName(String name) {
 
         logger.info("Searching for authors with name or lastname matching: {}", name);
 
-        List<Author> authors = authorRepository.findByNameOrLastname(name, name);
+        List<AuthorDto> authors = findAuthorsByName(name);
 
         if (authors.isEmpty()) {
             logger.info("No authors found with name or lastname: {}", name);
@@ -114,10 +195,72 @@ public class AuthorServiceImp implements AuthorService {
         }
 
         logger.info("Found {} authors with name or lastname: {}", authors.size(), name);
+        return authors;
+    }
+
+
+    /**
+     * Returns the {@link #MAX_FUZZY_RESULTS} best matches and falls back to the exact search until the index
+     * is built, like the fuzzy title search.
+     */
+    @Transactional(readOnly = true)
+    public List<AuthorDto> findAllByNameFuzzy(String name, int maxEdits) {
+
+        logger.info("Searching for authors with name or lastname within {} edits of: {}", maxEdits, name);
+
+        if (!authorSearchIndex.isReady()) {
+            return findAllByName(name);
+        }
 
-        return authors.stream()
-                .map(author -> modelMapper.map(author, AuthorDto.class))
-                .collect(Collectors.toList());
+        List<Long> rankedIds = authorSearchIndex.searchNameFuzzy(name, maxEdits);
+        if (rankedIds.size() > MAX_FUZZY_RESULTS) {
+            rankedIds = rankedIds.subList(0, MAX_FUZZY_RESULTS);
+        }
+        if (rankedIds.isEmpty()) {
+            logger.info("No authors found with name or lastname close to: {}", name);
+            return Collections.emptyList();
+        }
+
+        Map<Long, Integer> rankById = new HashMap<>();
+        for (int rank = 0; rank < rankedIds.size(); rank++) {
+            rankById.put(rankedIds.get(rank), rank);
+        }
+
+        List<AuthorDto> authors = new ArrayList<>(authorRepository.findAuthorDtosByIds(rankedIds));
+        authors.sort(Comparator.comparing(author -> rankById.get(author.getId())));
+
+        logger.info("Found {} authors with name or lastname close to: {}", authors.size(), name);
+        return authors;
+    }
+
+
+    /**
+     * Served from memory only, like the title completions.
+     */
+    public List<CompletionDto> completeNames(String prefix, int limit) {
+        if (!autocompleteIndex.isReady()) {
+            return Collections.emptyList();
+        }
+        return autocompleteIndex.completeAuthorName(prefix, Math.min(limit, AutocompleteIndex.MAX_COMPLETIONS));
+    }
+
+
+    private List<AuthorDto> findAuthorsByName(String name) {
+        if (!authorSearchIndex.isReady()) {
+            return authorRepository.findAuthorDtos(AuthorSpecifications.nameOrLastname(name), Sort.unsorted());
+        }
+
+        List<Long> ids = authorSearchIndex.searchName(name);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (ids.size() > MAX_NAME_RESULTS) {
+            ids = ids.subList(0, MAX_NAME_RESULTS);
+        }
+
+        List<AuthorDto> authors = new ArrayList<>(authorRepository.findAuthorDtosByIds(ids));
+        authors.sort(Comparator.comparing(AuthorDto::getId));
+        return authors;
     }
 
 
@@ -126,14 +269,13 @@ public class AuthorServiceImp implements AuthorService {
 
         logger.info("Attempting to find author with ID: {}", id);
 
-        Author author = authorRepository.findById(id)
+        Author author = authorRepository.findWithBooksById(id)
                 .orElseThrow(() -> {
                     logger.error("Author does not exist: {}", id);
                     return new AuthorNotFoundException(id);
                 });
 
-        AuthorOneDto authorOneDto = modelMapper.map(author, AuthorOneDto.class);
-        authorOneDto.getBooks().forEach(bookDto -> bookDto.setAuthorId(id));
+        AuthorOneDto authorOneDto = authorMapper.toAuthorOneDto(author);
 
         logger.info("Successfully found author with ID: {}", id);
         return authorOneDto;
@@ -147,12 +289,14 @@ public class AuthorServiceImp implements AuthorService {
                     logger.error("Author does not exist: {}", id);
                     return new AuthorNotFoundException(id);
                 });
+        AuthorSnapshot previous = AuthorSnapshot.of(author);
 
         modelMapper.map(authorUpdateDto, author);
         authorRepository.save(author);
+        eventPublisher.publishEvent(AuthorChangedEvent.updated(previous, AuthorSnapshot.of(author)));
 
         logger.info("Author with ID: {} successfully updated", author.getId());
-        return modelMapper.map(author, AuthorUpdateDto.class);
+        return authorMapper.toAuthorUpdateDto(author);
     }
 
 
@@ -161,13 +305,22 @@ public class AuthorServiceImp implements AuthorService {
 
         logger.info("Attempting to delete author with ID: {}", id);
 
-        boolean exists = authorRepository.existsById(id);
-        if (!exists) {
-            logger.error("Attempted to delete non-existent author with ID: {}", id);
-            throw new AuthorNotFoundException(id);
+        Author author = authorRepository.findById(id)
+                .orElseThrow(() -> {
+                    logger.error("Attempted to delete non-existent author with ID: {}", id);
+                    return new AuthorNotFoundException(id);
+                });
+
+        // Deleting a rented book would end its loan without a RETURN in the rental log.
+        if (author.getBooks().stream().anyMatch(book -> book.getStatus() == Status.RENTED)) {
+            String errorMessage = "Cannot delete author with ID: " + id + " while some of their books are RENTED.";
+            logger.error(errorMessage);
+            throw new AuthorDeletionException(errorMessage);
         }
 
-        authorRepository.deleteById(id);
+        authorRepository.delete(author);
+        eventPublisher.publishEvent(AuthorChangedEvent.deleted(AuthorSnapshot.of(author)));
+        author.getBooks().forEach(book -> eventPublisher.publishEvent(BookChangedEvent.deleted(BookSnapshot.of(book))));
         logger.info("Author with ID: {} successfully deleted", id);
     }
 }
\ No newline at end of file
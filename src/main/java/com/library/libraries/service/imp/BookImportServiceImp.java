@@ -0,0 +1,311 @@
+package com.library.libraries.service.imp;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.library.libraries.dto.BookImportErrorDto;
+import com.library.libraries.dto.BookImportReportDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.service.BookImportService;
+import com.library.libraries.service.util.CsvFormatException;
+import com.library.libraries.service.util.CsvReader;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class BookImportServiceImp implements BookImportService {
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader rowReader;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final LoggerFacade logger = new LoggerFacade(BookImportServiceImp.class);
+
+    private static final int CHUNK_SIZE = 1000;
+
+    public BookImportServiceImp(BookRepository bookRepository, AuthorRepository authorRepository,
+                                TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.rowReader = objectMapper.readerFor(BookOneDto.class);
+    }
+
+    public BookImportReportDto importCsv(Reader reader) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return new BookImportReportDto();
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : new String[]{"title", "isbn", "authorid"}) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header must contain title, isbn and authorId columns");
+            }
+        }
+
+        return importRows(() -> {
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            ImportRow row = new ImportRow(csv.getRecordLineNumber());
+            try {
+                BookOneDto book = new BookOneDto();
+                book.setTitle(field(record, columns, "title"));
+                book.setIsbn(field(record, columns, "isbn"));
+                String publishYear = field(record, columns, "publishyear");
+                book.setPublishYear(publishYear != null ? Integer.valueOf(publishYear) : null);
+                String authorId = field(record, columns, "authorid");
+                book.setAuthorId(authorId != null ? Long.valueOf(authorId) : null);
+                String status = field(record, columns, "status");
+                book.setStatus(status != null ? Status.valueOf(status.toUpperCase(Locale.ROOT)) : null);
+                row.book = book;
+            } catch (IllegalArgumentException e) {
+                row.error = "Invalid value: " + e.getMessage();
+            }
+            return row;
+        });
+    }
+
+    public BookImportReportDto importNdjson(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        int[] lineNumber = {0};
+
+        return importRows(() -> {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return null;
+                }
+                lineNumber[0]++;
+            } while (line.trim().isEmpty());
+
+            ImportRow row = new ImportRow(lineNumber[0]);
+            try {
+                row.book = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                row.error = "Invalid JSON: " + e.getOriginalMessage();
+            }
+            return row;
+        });
+    }
+
+    /**
+     * Imports the rows chunk by chunk, each in its own transaction. A malformed CSV record ends the import
+     * with the chunks before it committed.
+     */
+    private BookImportReportDto importRows(RowSource rows) throws IOException {
+        long start = System.currentTimeMillis();
+        BookImportReportDto report = new BookImportReportDto();
+
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        ImportRow row;
+        try {
+            while ((row = rows.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (CsvFormatException e) {
+            logger.warn("Book import stopped on line {} after {} books were imported", e.getLine(),
+                    report.getImported());
+            throw new CsvFormatException(e.getLine(), e.getMessage() + "; the " + report.getImported()
+                    + " books imported before it were kept");
+        }
+        importChunk(chunk, report);
+        report.getErrors().sort(Comparator.comparingInt(BookImportErrorDto::getLine));
+
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        logger.info("Book import finished: {} imported, {} failed in {} ms", report.getImported(),
+                report.getFailed(), report.getElapsedMillis());
+        return report;
+    }
+
+    /**
+     * Duplicates within the chunk are caught here, with the line they repeat. Earlier chunks are committed
+     * by then, so {@link #insert} finds duplicates of their rows in the table.
+     */
+    private void importChunk(List<ImportRow> chunk, BookImportReportDto report) {
+        Map<String, Integer> titleLines = new HashMap<>();
+        Map<String, Integer> isbnLines = new HashMap<>();
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (row.error == null) {
+                row.error = validate(row, titleLines, isbnLines);
+            }
+            if (row.error != null) {
+                report.addError(row.toError());
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        List<ImportRow> rejected = new ArrayList<>();
+        try {
+            report.addImported(transactionTemplate.execute(status -> insert(candidates, rejected)));
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Chunk starting on line {} conflicted with concurrent writes, importing its rows one by one",
+                    candidates.get(0).line);
+            rejected.clear();
+            for (ImportRow candidate : candidates) {
+                candidate.error = null;
+                try {
+                    report.addImported(transactionTemplate.execute(
+                            status -> insert(Collections.singletonList(candidate), rejected)));
+                } catch (DataIntegrityViolationException rowConflict) {
+                    candidate.error = "Title or ISBN was added concurrently";
+                    rejected.add(candidate);
+                }
+            }
+        }
+        for (ImportRow rejectedRow : rejected) {
+            report.addError(rejectedRow.toError());
+        }
+    }
+
+    private static String validate(ImportRow row, Map<String, Integer> titleLines, Map<String, Integer> isbnLines) {
+        BookOneDto book = row.book;
+        if (book.getTitle() == null || book.getTitle().trim().isEmpty()) {
+            return "Title is required";
+        }
+        if (book.getIsbn() == null || book.getIsbn().trim().isEmpty()) {
+            return "ISBN is required";
+        }
+        if (book.getAuthorId() == null) {
+            return "Author ID is required";
+        }
+        if (book.getStatus() != null && book.getStatus() != Status.FREE) {
+            return "Books are imported FREE, rent them out once they are in the catalog";
+        }
+        book.setTitle(book.getTitle().trim());
+        book.setIsbn(book.getIsbn().trim());
+
+        Integer titleLine = titleLines.putIfAbsent(book.getTitle(), row.line);
+        if (titleLine != null) {
+            return "Duplicate title, first seen on line " + titleLine;
+        }
+        Integer isbnLine = isbnLines.putIfAbsent(book.getIsbn(), row.line);
+        if (isbnLine != null) {
+            return "Duplicate ISBN, first seen on line " + isbnLine;
+        }
+        return null;
+    }
+
+    private long insert(List<ImportRow> rows, List<ImportRow> rejected) {
+        Set<String> titles = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        Set<Long> authorIds = new HashSet<>();
+        for (ImportRow row : rows) {
+            titles.add(row.book.getTitle());
+            isbns.add(row.book.getIsbn());
+            authorIds.add(row.book.getAuthorId());
+        }
+        Set<String> existingTitles = bookRepository.findTitlesIn(titles);
+        Set<String> existingIsbns = bookRepository.findIsbnsIn(isbns);
+        Set<Long> existingAuthorIds = authorRepository.findIdsIn(authorIds);
+
+        List<Book> inserted = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            BookOneDto dto = row.book;
+            if (existingTitles.contains(dto.getTitle())) {
+                row.error = "Book already exists with this title";
+            } else if (existingIsbns.contains(dto.getIsbn())) {
+                row.error = "Book already exists with this ISBN";
+            } else if (!existingAuthorIds.contains(dto.getAuthorId())) {
+                row.error = "Author not found for ID: " + dto.getAuthorId();
+            }
+            if (row.error != null) {
+                rejected.add(row);
+                continue;
+            }
+
+            Book book = new Book();
+            book.setTitle(dto.getTitle());
+            book.setIsbn(dto.getIsbn());
+            book.setPublishYear(dto.getPublishYear());
+            book.setStatus(Status.FREE);
+            book.setAuthor(entityManager.getReference(Author.class, dto.getAuthorId()));
+            inserted.add(book);
+        }
+
+        bookRepository.saveAll(inserted);
+        bookRepository.flush();
+        for (Book book : inserted) {
+            eventPublisher.publishEvent(BookChangedEvent.created(BookSnapshot.of(book)));
+        }
+        entityManager.clear();
+        return inserted.size();
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private interface RowSource {
+        ImportRow next() throws IOException;
+    }
+
+    private static final class ImportRow {
+
+        final int line;
+        BookOneDto book;
+        String error;
+
+        ImportRow(int line) {
+            this.line = line;
+        }
+
+        BookImportErrorDto toError() {
+            return new BookImportErrorDto(line, book != null ? book.getTitle() : null,
+                    book != null ? book.getIsbn() : null, error);
+        }
+    }
+}
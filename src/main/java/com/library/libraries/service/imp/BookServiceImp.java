@@ -1,53 +1,116 @@
 package com.library.libraries.service.imp;
 
+import com.library.libraries.catalog.FacetedPage;
+import com.library.libraries.catalog.InMemoryCatalog;
 import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetedSearchDto;
+import com.library.libraries.dto.BookFacetsDto;
 import com.library.libraries.dto.BookOneDto;
 import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
 import com.library.libraries.exception.AuthorNotFoundException;
 import com.library.libraries.exception.BookAlreadyExistsException;
 import com.library.libraries.exception.BookDeletionException;
 import com.library.libraries.exception.BookNotFoundException;
 import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.mapper.BookMapper;
 import com.library.libraries.model.Author;
 import com.library.libraries.model.Book;
 import com.library.libraries.model.Status;
 import com.library.libraries.repository.AuthorRepository;
 import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.KeysetPageRepository;
 import com.library.libraries.repository.UserRepository;
+import com.library.libraries.search.AutocompleteIndex;
+import com.library.libraries.search.BookSearchCriteria;
+import com.library.libraries.search.BookSearchIndex;
+import com.library.libraries.search.BookSearchResultCache;
 import com.library.libraries.service.BookService;
+import com.library.libraries.service.util.EntityStreams;
+import com.library.libraries.service.util.KeysetPaging;
+import com.library.libraries.service.util.PageCursor;
 import com.library.libraries.service.util.TPage;
 import com.library.libraries.specification.BookSpecifications;
 import javassist.NotFoundException;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class BookServiceImp implements BookService {
 
     private final ModelMapper modelMapper;
+    private final BookMapper bookMapper;
     private final UserRepository userRepository;
 
     private final AuthorRepository authorRepository;
     private final BookRepository bookRepository;
+    private final KeysetPageRepository keysetPageRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSearchResultCache bookSearchResultCache;
+    private final InMemoryCatalog catalog;
+    private final AutocompleteIndex autocompleteIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private static final LoggerFacade logger = new LoggerFacade(BookServiceImp.class);
 
-    public BookServiceImp(ModelMapper modelMapper, UserRepository userRepository, AuthorRepository authorRepository,
-                          BookRepository bookRepository) {
+    private static final int MAX_FUZZY_RESULTS = 100;
+
+    /**
+     * A one or two letter title search matches nearly every book; past this many matches the user has to
+     * type more.
+     */
+    private static final int MAX_TITLE_RESULTS = 1000;
+
+    private static final Map<String, Function<Book, String>> CURSOR_SORT_KEYS = new HashMap<>();
+
+    static {
+        CURSOR_SORT_KEYS.put("id", book -> null);
+        CURSOR_SORT_KEYS.put("title", Book::getTitle);
+        CURSOR_SORT_KEYS.put("isbn", Book::getIsbn);
+    }
+
+    public BookServiceImp(ModelMapper modelMapper, BookMapper bookMapper, UserRepository userRepository,
+                          AuthorRepository authorRepository, BookRepository bookRepository,
+                          KeysetPageRepository keysetPageRepository,
+                          BookSearchIndex bookSearchIndex, BookSearchResultCache bookSearchResultCache,
+                          InMemoryCatalog catalog, AutocompleteIndex autocompleteIndex,
+                          ApplicationEventPublisher eventPublisher) {
         super();
         this.modelMapper = modelMapper;
+        this.bookMapper = bookMapper;
         this.userRepository = userRepository;
         this.authorRepository = authorRepository;
         this.bookRepository = bookRepository;
+        this.keysetPageRepository = keysetPageRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSearchResultCache = bookSearchResultCache;
+        this.catalog = catalog;
+        this.autocompleteIndex = autocompleteIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -68,17 +131,24 @@ public class BookServiceImp implements BookService {
 
         Book book = modelMapper.map(bookOneDto, Book.class);
         book.setAuthor(author);
+        // A new book is rented through checkOut like any other, which records the loan.
+        book.setStatus(Status.FREE);
+        book.setStudent(null);
         Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.created(BookSnapshot.of(savedBook)));
 
         logger.info("Book successfully saved with ID: {}", savedBook.getId());
 
-        return modelMapper.map(savedBook, BookOneDto.class);
+        return bookMapper.toBookOneDto(savedBook);
     }
 
+    @Transactional(readOnly = true)
     public List<BookDto> getAll() {
         logger.info("Retrieving all books");
 
-        List<Book> books = bookRepository.findAll(Sort.by(Sort.Direction.ASC, "id"));
+        List<BookDto> books = catalog.isReady()
+                ? catalog.findAllBooks()
+                : bookRepository.findBookDtos(null, Sort.by(Sort.Direction.ASC, "id"));
 
         if (books.isEmpty()) {
             logger.info("No books found");
@@ -86,10 +156,17 @@ public class BookServiceImp implements BookService {
         }
 
         logger.info("Found {} books", books.size());
+        return books;
+    }
 
-        return books.stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<BookDto> consumer) {
+        logger.info("Streaming all books");
+
+        long streamed = EntityStreams.forEach(bookRepository.streamAll(), entityManager,
+                bookMapper::toBookDto, consumer);
+
+        logger.info("Streamed {} books", streamed);
     }
 
     @Transactional
@@ -103,40 +180,66 @@ public class BookServiceImp implements BookService {
             logger.error("Cannot update book with ID: {} because it is currently RENTED", id);
             throw new IllegalStateException("Cannot update book as it is currently RENTED.");
         }
+        // Rentals change the status through checkOut and checkIn only, so that every change reaches the rental log.
+        Status status = book.getStatus();
+        if (bookUpdateDto.getStatus() != null && bookUpdateDto.getStatus() != status) {
+            logger.error("Cannot change the status of book with ID: {} to {} outside a rental", id,
+                    bookUpdateDto.getStatus());
+            throw new IllegalStateException("Book status can only be changed by renting or returning the book.");
+        }
+        BookSnapshot previous = BookSnapshot.of(book);
 
         Author author = authorRepository.findById(bookUpdateDto.getAuthorId())
                 .orElseThrow(() -> new NotFoundException("Author does not exist id: " + bookUpdateDto.getAuthorId()));
 
         modelMapper.map(bookUpdateDto, book);
         book.setAuthor(author);
+        book.setStatus(status);
 
-        book = bookRepository.save(book);
+        // Flushed so that the snapshot carries the version the update wrote.
+        book = bookRepository.saveAndFlush(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(previous, BookSnapshot.of(book)));
         logger.info("Book with ID: {} successfully updated", book.getId());
 
-        return modelMapper.map(book, BookUpdateDto.class);
+        return bookMapper.toBookUpdateDto(book);
     }
 
 
+    @Transactional(readOnly = true)
     public TPage<BookDto> getAllPageable(Pageable pageable) throws NotFoundException {
-        Page<Book> page = bookRepository.findAll(pageable);
+        Page<BookDto> page = bookRepository.findBookDtos(null, pageable);
         if (page.isEmpty()) {
             throw new NotFoundException("No books available.");
         }
 
-        List<BookDto> bookDtos = page.getContent().stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
-                .collect(Collectors.toList());
-
         TPage<BookDto> tPage = new TPage<>();
-        tPage.setStat(page, bookDtos);
+        tPage.setStat(page, page.getContent());
         return tPage;
     }
 
+    @Transactional(readOnly = true)
+    public TPage<BookDto> getAllAfter(String after, int size, String sort, boolean withTotal) {
+        KeysetPaging.validateSize(size);
+        PageCursor cursor = after != null ? PageCursor.decode(after) : null;
+        String sortProperty = cursor != null ? cursor.getSortProperty() : sort;
+
+        Function<Book, String> sortKey = CURSOR_SORT_KEYS.get(sortProperty);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Books cannot be paged by cursor on: " + sortProperty);
+        }
+
+        List<Book> books = keysetPageRepository.findAfter(Book.class, sortProperty, cursor, size + 1);
+        Long totalElements = withTotal ? bookRepository.count() : null;
+
+        return KeysetPaging.toPage(books, size, sortProperty, sortKey, Book::getId,
+                bookMapper::toBookDto, totalElements);
+    }
+
+    @Transactional(readOnly = true)
     public BookOneDto getOne(Long id) throws NotFoundException {
         logger.info("Retrieving book with ID: {}", id);
 
-        BookOneDto bookOneDto = bookRepository.findById(id)
-                .map(book -> modelMapper.map(book, BookOneDto.class))
+        BookOneDto bookOneDto = findBookOneDto(id)
                 .orElseThrow(() -> {
                     logger.error("Book with ID: {} does not exist", id);
                     return new NotFoundException("Book with ID: " + id + " does not exist.");
@@ -146,6 +249,13 @@ public class BookServiceImp implements BookService {
         return bookOneDto;
     }
 
+    private Optional<BookOneDto> findBookOneDto(Long id) {
+        if (catalog.isReady()) {
+            return Optional.ofNullable(catalog.findBook(id));
+        }
+        return bookRepository.findWithAuthorById(id).map(bookMapper::toBookOneDto);
+    }
+
     @Transactional
     public void delete(Long id) throws BookNotFoundException, BookDeletionException {
         Book book = bookRepository.findById(id)
@@ -163,6 +273,7 @@ public class BookServiceImp implements BookService {
 
         try {
             bookRepository.delete(book);
+            eventPublisher.publishEvent(BookChangedEvent.deleted(BookSnapshot.of(book)));
             logger.info("Successfully deleted book with ID: {}", id);
         } catch (Exception e) {
             String errorMessage = "Error deleting book with ID: " + id;
@@ -171,10 +282,11 @@ public class BookServiceImp implements BookService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<BookDto> searchBooksByTitle(String title) {
 
         logger.info("Searching books with title: \"{}\"", title);
-        List<Book> books = bookRepository.searchBooksByTitle(title.trim());
+        List<BookDto> books = findBooksByTitle(title.trim());
 
         if (books.isEmpty()) {
             logger.info("No books found with the given title: \"{}\"", title);
@@ -182,18 +294,70 @@ public class BookServiceImp implements BookService {
         }
 
         logger.info("{} books found with the given title: \"{}\"", books.size(), title);
+        return books;
+    }
+
+    private List<BookDto> findBooksByTitle(String title) {
+        if (!bookSearchIndex.isReady()) {
+            return bookRepository.findBookDtos(BookSpecifications.titleContains(title), Sort.unsorted());
+        }
+
+        List<Long> rankedIds = bookSearchIndex.searchTitle(title);
+        if (rankedIds.size() > MAX_TITLE_RESULTS) {
+            rankedIds = rankedIds.subList(0, MAX_TITLE_RESULTS);
+        }
+        return findBooksInOrder(rankedIds);
+    }
+
+    /**
+     * Returns the {@link #MAX_FUZZY_RESULTS} best matches. Falls back to the exact search until the index is
+     * built, since typos cannot be matched in SQL without reading every title.
+     */
+    @Transactional(readOnly = true)
+    public List<BookDto> searchBooksByTitleFuzzy(String title, int maxEdits) {
+
+        logger.info("Searching books with title: \"{}\" within {} edits", title, maxEdits);
+        if (!bookSearchIndex.isReady()) {
+            return searchBooksByTitle(title);
+        }
+
+        List<Long> rankedIds = bookSearchIndex.searchTitleFuzzy(title.trim(), maxEdits);
+        if (rankedIds.size() > MAX_FUZZY_RESULTS) {
+            rankedIds = rankedIds.subList(0, MAX_FUZZY_RESULTS);
+        }
+        List<BookDto> books = findBooksInOrder(rankedIds);
+
+        logger.info("{} books found with the given title: \"{}\"", books.size(), title);
+        return books;
+    }
+
+    private List<BookDto> findBooksInOrder(List<Long> rankedIds) {
+        if (rankedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (catalog.isReady()) {
+            return catalog.findBooks(rankedIds);
+        }
 
-        return books.stream()
-                .map(book -> modelMapper.map(book, BookDto.class))
-                .collect(Collectors.toList());
+        Map<Long, Integer> rankById = new HashMap<>();
+        for (int rank = 0; rank < rankedIds.size(); rank++) {
+            rankById.put(rankedIds.get(rank), rank);
+        }
+
+        List<BookDto> books = new ArrayList<>(bookRepository.findBookDtosByIds(rankedIds));
+        books.sort(Comparator.comparing(book -> rankById.get(book.getId())));
+        return books;
     }
 
+    @Transactional(readOnly = true)
     public List<BookDto> searchBooks(BookDto bookDto) {
 
         try {
             logger.info("Initiating search for books with criteria");
 
-            List<Book> books = bookRepository.findAll(BookSpecifications.byAttributes(bookDto));
+            List<BookDto> books = bookSearchResultCache.get(BookSearchCriteria.of(bookDto), criteria -> catalog.isReady()
+                    ? catalog.searchBooks(bookDto)
+                    : bookRepository.findBookDtos(BookSpecifications.byAttributes(bookDto), Sort.unsorted()));
 
             if (books.isEmpty()) {
                 logger.info("No books found matching the criteria");
@@ -201,10 +365,7 @@ public class BookServiceImp implements BookService {
             }
 
             logger.info("{} books found matching the criteria", books.size());
-
-            return books.stream()
-                    .map(book -> modelMapper.map(book, BookDto.class))
-                    .collect(Collectors.toList());
+            return books;
 
         } catch (Exception e) {
 
@@ -212,4 +373,58 @@ public class BookServiceImp implements BookService {
             throw new RuntimeException("Search operation failed", e);
         }
     }
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    public BookFacetedSearchDto searchBooksFaceted(BookDto bookDto, Pageable pageable) {
+        logger.info("Initiating faceted search for books with criteria");
+
+        Page<BookDto> page;
+        BookFacetsDto facets;
+        if (catalog.isReady() && isSortedById(pageable.getSort())) {
+            FacetedPage facetedPage = catalog.searchFaceted(bookDto, pageable);
+            page = facetedPage.getPage();
+            facets = facetedPage.getFacets();
+        } else {
+            Specification<Book> spec = BookSpecifications.byAttributes(bookDto);
+            page = bookRepository.findBookDtos(spec, pageable);
+            facets = new BookFacetsDto();
+            facets.setStatus(bookRepository.countByStatus(spec));
+            facets.setPublishYear(bookRepository.countByPublishYear(spec));
+            facets.setAuthorId(bookRepository.countByAuthorId(spec, BookFacetsDto.MAX_AUTHORS));
+        }
+
+        TPage<BookDto> tPage = new TPage<>();
+        tPage.setStat(page, page.getContent());
+
+        logger.info("{} books found matching the criteria", page.getTotalElements());
+        return new BookFacetedSearchDto(tPage, facets);
+    }
+
+    /**
+     * The catalog only pages in id order; any other order is left to the database.
+     */
+    private static boolean isSortedById(Sort sort) {
+        return sort.isUnsorted() || sort.equals(Sort.by(Sort.Direction.ASC, "id"));
+    }
+
+    @Transactional(readOnly = true)
+    public long countBooks(BookDto bookDto) {
+        long count = catalog.isReady()
+                ? catalog.countBooks(bookDto)
+                : bookRepository.count(BookSpecifications.byAttributes(bookDto));
+
+        logger.info("{} books match the criteria", count);
+        return count;
+    }
+
+    /**
+     * Served from memory only: typeahead calls this on every keystroke, so until the index is built it
+     * suggests nothing rather than scanning the titles.
+     */
+    public List<CompletionDto> completeTitles(String prefix, int limit) {
+        if (!autocompleteIndex.isReady()) {
+            return Collections.emptyList();
+        }
+        return autocompleteIndex.completeTitle(prefix, Math.min(limit, AutocompleteIndex.MAX_COMPLETIONS));
+    }
+}
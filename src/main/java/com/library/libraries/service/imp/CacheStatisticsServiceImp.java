@@ -0,0 +1,53 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.dto.CacheRegionStatisticsDto;
+import com.library.libraries.dto.SearchCacheStatisticsDto;
+import com.library.libraries.search.BookSearchResultCache;
+import com.library.libraries.service.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class CacheStatisticsServiceImp implements CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookSearchResultCache bookSearchResultCache;
+
+    public CacheStatisticsServiceImp(EntityManagerFactory entityManagerFactory,
+                                     BookSearchResultCache bookSearchResultCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.bookSearchResultCache = bookSearchResultCache;
+    }
+
+    public List<CacheRegionStatisticsDto> getRegionStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+
+        List<CacheRegionStatisticsDto> regions = new ArrayList<>(regionNames.length);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            long lookups = region.getHitCount() + region.getMissCount();
+            double hitRatio = lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+            regions.add(new CacheRegionStatisticsDto(regionName, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), hitRatio, region.getElementCountInMemory()));
+        }
+        return regions;
+    }
+
+    public SearchCacheStatisticsDto getSearchCacheStatistics() {
+        long hits = bookSearchResultCache.getHitCount();
+        long misses = bookSearchResultCache.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new SearchCacheStatisticsDto(bookSearchResultCache.size(), hits, misses,
+                bookSearchResultCache.getStaleCount(), hitRatio, bookSearchResultCache.getEvictionCount());
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.dto.AuthorLoanStatsDto;
+import com.library.libraries.dto.BookLoanDto;
+import com.library.libraries.dto.StudentLoanStatsDto;
+import com.library.libraries.mapper.RentalMapper;
+import com.library.libraries.repository.AuthorLoanStatsRepository;
+import com.library.libraries.repository.BookLoanRepository;
+import com.library.libraries.repository.StudentLoanStatsRepository;
+import com.library.libraries.service.RentalReportService;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serves rental history and loan counts from the projected read models only, never from {@code book}.
+ * Figures trail the rentals by up to one projection interval.
+ */
+@Service
+public class RentalReportServiceImp implements RentalReportService {
+
+    private final StudentLoanStatsRepository studentLoanStatsRepository;
+    private final BookLoanRepository bookLoanRepository;
+    private final AuthorLoanStatsRepository authorLoanStatsRepository;
+    private final RentalMapper rentalMapper;
+
+    public RentalReportServiceImp(StudentLoanStatsRepository studentLoanStatsRepository,
+                                  BookLoanRepository bookLoanRepository,
+                                  AuthorLoanStatsRepository authorLoanStatsRepository, RentalMapper rentalMapper) {
+        this.studentLoanStatsRepository = studentLoanStatsRepository;
+        this.bookLoanRepository = bookLoanRepository;
+        this.authorLoanStatsRepository = authorLoanStatsRepository;
+        this.rentalMapper = rentalMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public StudentLoanStatsDto getStudentLoans(Long studentId) {
+        return studentLoanStatsRepository.findById(studentId)
+                .map(rentalMapper::toStudentLoanStatsDto)
+                .orElseGet(() -> new StudentLoanStatsDto(studentId, 0, 0, null));
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookLoanDto> getBookLoans(Long bookId) {
+        return bookLoanRepository.findByBookIdOrderByCheckedOutAtDesc(bookId).stream()
+                .map(rentalMapper::toBookLoanDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<AuthorLoanStatsDto> getAuthorLoans() {
+        return authorLoanStatsRepository.findAll(Sort.by(Sort.Direction.DESC, "activeLoans").and(Sort.by("authorId")))
+                .stream()
+                .map(rentalMapper::toAuthorLoanStatsDto)
+                .collect(Collectors.toList());
+    }
+}
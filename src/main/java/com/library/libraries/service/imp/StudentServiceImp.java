@@ -1,18 +1,31 @@
 package com.library.libraries.service.imp;
 
 
+import com.library.libraries.dto.StudentBatchPatchDto;
+import com.library.libraries.dto.StudentBatchPatchReportDto;
 import com.library.libraries.dto.StudentDto;
 import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.event.StudentChangedEvent;
+import com.library.libraries.event.StudentSnapshot;
 import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.mapper.StudentMapper;
 import com.library.libraries.model.Book;
 import com.library.libraries.model.Status;
 import com.library.libraries.model.Student;
+import com.library.libraries.rental.RentalOutbox;
 import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.KeysetPageRepository;
 import com.library.libraries.repository.StudentRepository;
 import com.library.libraries.service.StudentService;
+import com.library.libraries.service.util.EntityStreams;
+import com.library.libraries.service.util.KeysetPaging;
+import com.library.libraries.service.util.PageCursor;
 import com.library.libraries.service.util.TPage;
 import javassist.NotFoundException;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -20,27 +33,57 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.Valid;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class StudentServiceImp implements StudentService {
 
     private final ModelMapper modelMapper;
+    private final StudentMapper studentMapper;
     private final StudentRepository studentRepository;
     private final BookRepository bookRepository;
+    private final KeysetPageRepository keysetPageRepository;
+    private final RentalOutbox rentalOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private static final LoggerFacade logger = new LoggerFacade(StudentServiceImp.class);
 
-    public StudentServiceImp(ModelMapper modelMapper, StudentRepository studentRepository,
-                             BookRepository bookRepository) {
+    private static final Map<String, Function<Student, String>> CURSOR_SORT_KEYS = new HashMap<>();
+
+    static {
+        CURSOR_SORT_KEYS.put("id", student -> null);
+        CURSOR_SORT_KEYS.put("fullname", Student::getFullname);
+        CURSOR_SORT_KEYS.put("registration", Student::getRegistration);
+    }
+
+    public StudentServiceImp(ModelMapper modelMapper, StudentMapper studentMapper, StudentRepository studentRepository,
+                             BookRepository bookRepository, KeysetPageRepository keysetPageRepository,
+                             RentalOutbox rentalOutbox, ApplicationEventPublisher eventPublisher) {
         super();
         this.modelMapper = modelMapper;
+        this.studentMapper = studentMapper;
         this.studentRepository = studentRepository;
         this.bookRepository = bookRepository;
+        this.keysetPageRepository = keysetPageRepository;
+        this.rentalOutbox = rentalOutbox;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -54,6 +97,7 @@ public class StudentServiceImp implements StudentService {
         try {
             Student student = modelMapper.map(studentDto, Student.class);
             student = studentRepository.save(student);
+            eventPublisher.publishEvent(StudentChangedEvent.created(StudentSnapshot.of(student)));
             studentDto.setId(student.getId());
 
             logger.info("Student successfully saved. ID: {}", student.getId());
@@ -81,20 +125,39 @@ public class StudentServiceImp implements StudentService {
         }
     }
 
+    @Transactional(readOnly = true)
     public TPage<StudentDto> getAllPageable(Pageable pageable) {
 
-        Page<Student> studentPage = studentRepository.findAll(pageable);
-        List<StudentDto> studentDtos = mapEntityPageIntoDtoPage(studentPage, StudentDto.class);
+        Page<StudentDto> studentPage = studentRepository.findStudentDtos(pageable);
 
         TPage<StudentDto> tPage = new TPage<>();
-        tPage.setStat(studentPage, studentDtos);
+        tPage.setStat(studentPage, studentPage.getContent());
         return tPage;
     }
 
+    @Transactional(readOnly = true)
+    public TPage<StudentDto> getAllAfter(String after, int size, String sort, boolean withTotal) {
+        KeysetPaging.validateSize(size);
+        PageCursor cursor = after != null ? PageCursor.decode(after) : null;
+        String sortProperty = cursor != null ? cursor.getSortProperty() : sort;
+
+        Function<Student, String> sortKey = CURSOR_SORT_KEYS.get(sortProperty);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Students cannot be paged by cursor on: " + sortProperty);
+        }
+
+        List<Student> students = keysetPageRepository.findAfter(Student.class, sortProperty, cursor, size + 1);
+        Long totalElements = withTotal ? studentRepository.count() : null;
+
+        return KeysetPaging.toPage(students, size, sortProperty, sortKey, Student::getId,
+                studentMapper::toStudentDto, totalElements);
+    }
+
+    @Transactional(readOnly = true)
     public List<StudentDto> getAll() {
         try {
             logger.info("Retrieving all students");
-            List<Student> students = studentRepository.findAll(Sort.by(Sort.Direction.ASC, "id"));
+            List<StudentDto> students = studentRepository.findStudentDtos(Sort.by(Sort.Direction.ASC, "id"));
 
             if (students.isEmpty()) {
                 logger.info("No students found");
@@ -102,16 +165,27 @@ public class StudentServiceImp implements StudentService {
             }
 
             logger.info("Found {} students", students.size());
-            return students.stream().map(student -> modelMapper.map(student, StudentDto.class)).collect(Collectors.toList());
+            return students;
         } catch (Exception e) {
             logger.error("An unexpected error occurred while retrieving students", e);
             throw e;
         }
     }
 
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<StudentDto> consumer) {
+        logger.info("Streaming all students");
+
+        long streamed = EntityStreams.forEach(studentRepository.streamAll(), entityManager,
+                studentMapper::toStudentDto, consumer);
+
+        logger.info("Streamed {} students", streamed);
+    }
+
+    @Transactional(readOnly = true)
     public StudentDto findById(Long id) throws NotFoundException {
-        return studentRepository.findById(id)
-                .map(student -> modelMapper.map(student, StudentDto.class))
+        return studentRepository.findWithBooksById(id)
+                .map(studentMapper::toStudentDto)
                 .orElseThrow(() -> new NotFoundException("Student with ID " + id + " doesn't exist."));
     }
 
@@ -120,96 +194,171 @@ public class StudentServiceImp implements StudentService {
 
         logger.info("Attempting to assign book to student. Student ID: {}, Book ID: {}", studentPatchDto.getStudentId(), studentPatchDto.getBookId());
 
-        Student student = findStudentById(studentPatchDto.getStudentId());
-        Book book = findBookById(studentPatchDto.getBookId());
+        Student student = findStudentReference(studentPatchDto.getStudentId());
+        Long bookId = studentPatchDto.getBookId();
 
-        validateBookIsNotRented(book);
-
-        assignBookToStudent(book, student);
+        int updated = bookRepository.checkOut(bookId, student);
+        Book book = findBookById(bookId);
+        if (updated == 0) {
+            String errorMessage = String.format("Book with ID %d is already rented.", bookId);
+            logger.warn(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        publishRentalChange(book, Status.FREE, null);
 
         logger.info("Book with ID {} successfully assigned to student with ID {}. Book status set to RENTED.", book.getId(), student.getId());
-        return modelMapper.map(student, StudentDto.class);
+        return studentMapper.toStudentDto(findStudentById(student.getId()));
     }
 
     @Transactional
     public StudentDto leaveBookForStudent(@Valid StudentPatchDto studentPatchDto) throws NotFoundException {
         logger.info("Attempting to return book for student. Student ID: {}, Book ID: {}", studentPatchDto.getStudentId(), studentPatchDto.getBookId());
 
-        Student student = findStudentById(studentPatchDto.getStudentId());
-        Book book = findBookById(studentPatchDto.getBookId());
+        Student student = findStudentReference(studentPatchDto.getStudentId());
+        Long bookId = studentPatchDto.getBookId();
 
-        validateBookRentalStatus(book, student);
-
-        returnBook(book);
+        int updated = bookRepository.checkIn(bookId, student);
+        Book book = findBookById(bookId);
+        if (updated == 0) {
+            String errorMessage = String.format("Book with ID %d is not rented by student with ID %d.", bookId, student.getId());
+            logger.warn(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
+        publishRentalChange(book, Status.RENTED, student.getId());
 
         logger.info("Book with ID {} returned by student with ID {}. Book status set to FREE.", book.getId(), student.getId());
-        return modelMapper.map(student, StudentDto.class);
+        return studentMapper.toStudentDto(findStudentById(student.getId()));
     }
 
-    private Student findStudentById(Long studentId) throws NotFoundException {
+    @Transactional
+    public StudentBatchPatchReportDto getBooksForStudent(@Valid StudentBatchPatchDto studentBatchPatchDto) throws NotFoundException {
+        logger.info("Attempting to assign {} books to student with ID {}", studentBatchPatchDto.getBookIds().size(), studentBatchPatchDto.getStudentId());
 
-        return studentRepository.findById(studentId).orElseThrow(() -> {
-            NotFoundException exception = new NotFoundException("Student with ID " + studentId + " doesn't exist");
-            logger.error("Student with ID {} doesn't exist", studentId, exception);
-            return exception;
-        });
+        return patchBooks(studentBatchPatchDto, bookRepository::checkOutAll,
+                (book, studentId) -> book.getStatus() == Status.FREE,
+                (book, studentId) -> book.getStatus() == Status.RENTED && studentId.equals(book.getStudentId()),
+                "Book with ID %d is already rented.");
     }
 
-    private Book findBookById(Long bookId) throws NotFoundException {
-        return bookRepository.findById(bookId).orElseThrow(() -> {
-            NotFoundException exception = new NotFoundException("Book with ID " + bookId + " doesn't exist");
-            logger.error("Book with ID {} doesn't exist", bookId, exception);
-            return exception;
-        });
+    @Transactional
+    public StudentBatchPatchReportDto leaveBooksForStudent(@Valid StudentBatchPatchDto studentBatchPatchDto) throws NotFoundException {
+        logger.info("Attempting to return {} books for student with ID {}", studentBatchPatchDto.getBookIds().size(), studentBatchPatchDto.getStudentId());
+
+        return patchBooks(studentBatchPatchDto, bookRepository::checkInAll,
+                (book, studentId) -> book.getStatus() == Status.RENTED && studentId.equals(book.getStudentId()),
+                (book, studentId) -> book.getStatus() == Status.FREE,
+                "Book with ID %d is not rented by student with ID %d.");
     }
 
-    private void validateBookIsNotRented(Book book) {
-        if (book.getStatus() == Status.RENTED) {
-            String errorMessage = String.format("Book with ID %d is already rented.", book.getId());
-            logger.warn(errorMessage);
-            throw new IllegalStateException(errorMessage);
+    /**
+     * Locks every requested book, reads its state, changes all that qualify with one conditional update and
+     * reads them again. The lock keeps other transactions from changing a book between the first read and the
+     * update, so a book succeeded exactly when it qualified before and shows the new state after.
+     */
+    private StudentBatchPatchReportDto patchBooks(StudentBatchPatchDto studentBatchPatchDto,
+                                                  BiFunction<Collection<Long>, Student, Integer> update,
+                                                  BiPredicate<BookSnapshot, Long> qualifies,
+                                                  BiPredicate<BookSnapshot, Long> changed,
+                                                  String failureMessage) throws NotFoundException {
+        Student student = findStudentReference(studentBatchPatchDto.getStudentId());
+        Long studentId = student.getId();
+        Set<Long> bookIds = new LinkedHashSet<>(studentBatchPatchDto.getBookIds());
+
+        bookRepository.lockAllById(bookIds);
+        Map<Long, BookSnapshot> before = findSnapshots(bookIds);
+        int updated = update.apply(bookIds, student);
+        Map<Long, BookSnapshot> after = findSnapshots(bookIds);
+
+        StudentBatchPatchReportDto report = new StudentBatchPatchReportDto();
+        for (Long bookId : bookIds) {
+            BookSnapshot previous = before.get(bookId);
+            BookSnapshot current = after.get(bookId);
+            if (previous == null || current == null) {
+                report.addFailure(bookId, String.format("Book with ID %d doesn't exist.", bookId));
+            } else if (qualifies.test(previous, studentId) && changed.test(current, studentId)) {
+                report.addSuccess(bookId);
+                publishRentalChange(previous, current);
+            } else {
+                report.addFailure(bookId, String.format(failureMessage, bookId, studentId));
+            }
         }
+
+        logger.info("Updated {} of {} books for student with ID {}", updated, bookIds.size(), studentId);
+        report.setStudent(studentMapper.toStudentDto(findStudentById(studentId)));
+        return report;
     }
 
-    private void validateBookRentalStatus(Book book, Student student) {
-        boolean isRentedByThisStudent = book.getStatus().equals(Status.RENTED)
-                && book.getStudent() != null
-                && book.getStudent().getId().equals(student.getId());
+    private Map<Long, BookSnapshot> findSnapshots(Collection<Long> bookIds) {
+        Map<Long, BookSnapshot> snapshots = new HashMap<>();
+        for (BookSnapshot snapshot : bookRepository.findSnapshots(bookIds)) {
+            snapshots.put(snapshot.getId(), snapshot);
+        }
+        return snapshots;
+    }
 
-        if (!isRentedByThisStudent) {
-            String errorMessage = String.format("Book with ID %d is not rented by student with ID %d.", book.getId(), student.getId());
-            logger.warn(errorMessage);
-            throw new IllegalStateException(errorMessage);
+    private Student findStudentReference(Long studentId) throws NotFoundException {
+        if (!studentRepository.existsById(studentId)) {
+            logger.warn("Student with ID {} doesn't exist", studentId);
+            throw new NotFoundException("Student with ID " + studentId + " doesn't exist");
         }
+        return studentRepository.getOne(studentId);
     }
 
-    private void assignBookToStudent(Book book, Student student) {
-        book.setStudent(student);
-        book.setStatus(Status.RENTED);
-        bookRepository.save(book);
+    private Student findStudentById(Long studentId) throws NotFoundException {
+
+        return studentRepository.findWithBooksById(studentId).orElseThrow(() -> {
+            logger.warn("Student with ID {} doesn't exist", studentId);
+            return new NotFoundException("Student with ID " + studentId + " doesn't exist");
+        });
+    }
+
+    private Book findBookById(Long bookId) throws NotFoundException {
+        return bookRepository.findById(bookId).orElseThrow(() -> {
+            logger.warn("Book with ID {} doesn't exist", bookId);
+            return new NotFoundException("Book with ID " + bookId + " doesn't exist");
+        });
+    }
+
+    /**
+     * The conditional update has already changed the row, so the state before it is rebuilt from the
+     * only two columns it touched and the version it bumped.
+     */
+    private void publishRentalChange(Book book, Status previousStatus, Long previousStudentId) {
+        BookSnapshot current = BookSnapshot.of(book);
+        BookSnapshot previous = new BookSnapshot(current.getId(), current.getTitle(), current.getIsbn(),
+                previousStatus, current.getPublishYear(), current.getAuthorId(), previousStudentId,
+                current.getVersion() != null ? current.getVersion() - 1 : null);
+        publishRentalChange(previous, current);
+    }
+
+    private void publishRentalChange(BookSnapshot previous, BookSnapshot current) {
+        rentalOutbox.record(previous, current);
+        eventPublisher.publishEvent(BookChangedEvent.updated(previous, current));
     }
 
     private void returnBook(Book book) {
+        BookSnapshot previous = BookSnapshot.of(book);
         book.setStudent(null);
         book.setStatus(Status.FREE);
-        bookRepository.save(book);
+        // Flushed so that the snapshot carries the version the update wrote.
+        bookRepository.saveAndFlush(book);
+        publishRentalChange(previous, BookSnapshot.of(book));
     }
 
+    @Transactional
     public Boolean delete(Long id) throws NotFoundException {
 
-        return studentRepository.findById(id)
+        return studentRepository.findWithBooksById(id)
                 .map(student -> {
-                    student.getBooks().forEach(book -> {
-                        book.setStudent(null);
-                        book.setStatus(Status.FREE);
-                        bookRepository.save(book);
-                    });
+                    student.getBooks().forEach(this::returnBook);
                     studentRepository.delete(student);
+                    eventPublisher.publishEvent(StudentChangedEvent.deleted(StudentSnapshot.of(student)));
                     return true;
                 })
                 .orElseThrow(() -> new NotFoundException("Student doesn't exist"));
     }
 
+    @Transactional
     public StudentDto update(Long id, @Valid StudentDto studentDto) throws NotFoundException {
 
         logger.info("Attempting to update student with ID: {}", id);
@@ -220,20 +369,15 @@ public class StudentServiceImp implements StudentService {
                     return new NotFoundException("Student doesn't exist");
                 });
 
+        StudentSnapshot previous = StudentSnapshot.of(student);
         modelMapper.map(studentDto, student);
         student.setId(id);
 
         Student updatedStudent = studentRepository.save(student);
+        eventPublisher.publishEvent(StudentChangedEvent.updated(previous, StudentSnapshot.of(updatedStudent)));
         logger.info("Student with ID: {} successfully updated", id);
 
-        return modelMapper.map(updatedStudent, StudentDto.class);
-    }
-
-    private <D, T> List<D> mapEntityPageIntoDtoPage(Page<T> entityPage, Class<D> dtoClass) {
-        ModelMapper modelMapper = new ModelMapper();
-        return entityPage.getContent().stream()
-                .map(entity -> modelMapper.map(entity, dtoClass))
-                .collect(Collectors.toList());
+        return studentMapper.toStudentDto(updatedStudent);
     }
 
 }
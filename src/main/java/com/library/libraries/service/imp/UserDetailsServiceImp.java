@@ -20,7 +20,7 @@ public class UserDetailsServiceImp implements UserDetailsService {
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> optionalUser = userRepository.findByUsername(username);
+        Optional<User> optionalUser = userRepository.findByUsernameExact(username);
         User user = optionalUser.orElseThrow(() -> new UsernameNotFoundException("Invalid username or password."));
 
         return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(),
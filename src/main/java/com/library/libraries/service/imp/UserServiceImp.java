@@ -6,6 +6,7 @@ import com.library.libraries.dto.UserDto;
 import com.library.libraries.dto.UserPasswordDto;
 import com.library.libraries.model.User;
 import com.library.libraries.repository.UserRepository;
+import com.library.libraries.security.JwtAuthenticationCache;
 import javassist.NotFoundException;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
@@ -31,15 +32,18 @@ public class UserServiceImp {
     private final ModelMapper modelMapper;
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final JwtAuthenticationCache authenticationCache;
 
     public UserServiceImp(ModelMapper modelMapper, UserRepository userRepository,
                           BCryptPasswordEncoder bCryptPasswordEncoder,
-                          AuthenticationManager authenticationManager) {
+                          AuthenticationManager authenticationManager,
+                          JwtAuthenticationCache authenticationCache) {
         super();
         this.modelMapper = modelMapper;
         this.userRepository = userRepository;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
         this.authenticationManager = authenticationManager;
+        this.authenticationCache = authenticationCache;
     }
 
     public List<UserDto> getAll() {
@@ -62,10 +66,9 @@ public class UserServiceImp {
                     throw new DataIntegrityViolationException("User exists with email: " + registrationRequest.getEmail());
                 });
 
-        userRepository.findByUsername(registrationRequest.getUsername())
-                .ifPresent(u -> {
-                    throw new DataIntegrityViolationException("User exists with username: " + registrationRequest.getUsername());
-                });
+        if (userRepository.existsByUsernameIgnoreCase(UserRepository.normalizeUsername(registrationRequest.getUsername()))) {
+            throw new DataIntegrityViolationException("User exists with username: " + registrationRequest.getUsername());
+        }
 
         User user = createUserFromRegistrationRequest(registrationRequest);
         userRepository.save(user);
@@ -75,7 +78,7 @@ public class UserServiceImp {
     private User createUserFromRegistrationRequest(RegistrationRequestDto registrationRequest) {
         User user = new User();
 
-        user.setUsername(registrationRequest.getUsername());
+        user.setUsername(UserRepository.normalizeUsername(registrationRequest.getUsername()));
         user.setEmail(registrationRequest.getEmail());
         user.setFirstname(registrationRequest.getFirstname());
         user.setLastname(registrationRequest.getLastname());
@@ -84,7 +87,7 @@ public class UserServiceImp {
     }
 
     public UserDto findByUserName(String username) throws NotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findByUsernameExact(username)
                 .orElseThrow(() -> new NotFoundException("User doesn't exist with this name called: " + username));
 
         return modelMapper.map(user, UserDto.class);
@@ -92,12 +95,24 @@ public class UserServiceImp {
 
     public Boolean update(String username, @Valid UserDto userDto) throws NotFoundException {
 
-        Optional<User> optionalUser = userRepository.findByUsername(username);
+        Optional<User> optionalUser = userRepository.findByUsernameExact(username);
         User user = optionalUser.orElseThrow(() ->
                 new NotFoundException("User doesn't exist with this name called: " + username));
 
+        String previousUsername = user.getUsername();
+        String newUsername = userDto.getUsername() != null
+                ? UserRepository.normalizeUsername(userDto.getUsername())
+                : previousUsername;
+        if (!newUsername.equals(previousUsername)
+                && userRepository.existsByUsernameIgnoreCaseAndIdNot(newUsername, user.getId())) {
+            throw new DataIntegrityViolationException("User exists with username: " + userDto.getUsername());
+        }
+
         modelMapper.map(userDto, user);
+        user.setUsername(newUsername);
         userRepository.save(user);
+        authenticationCache.evictUser(previousUsername);
+        authenticationCache.evictUser(newUsername);
         return true;
     }
 
@@ -108,7 +123,7 @@ public class UserServiceImp {
             return false;
         }
 
-        Optional<User> optionalUser = userRepository.findByUsername(userPasswordDto.getUsername());
+        Optional<User> optionalUser = userRepository.findByUsernameExact(userPasswordDto.getUsername());
         User user = optionalUser.orElseThrow(() ->
                 new NotFoundException("User doesn't exist with this name called: " + userPasswordDto.getUsername()));
 
@@ -119,6 +134,7 @@ public class UserServiceImp {
         user.setRealPassword(userPasswordDto.getNewpassword());
         user.setPassword(bCryptPasswordEncoder.encode(userPasswordDto.getNewpassword()));
         userRepository.save(user);
+        authenticationCache.evictUser(user.getUsername());
 
         return true;
     }
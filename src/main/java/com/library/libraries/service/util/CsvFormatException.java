@@ -0,0 +1,18 @@
+package com.library.libraries.service.util;
+
+/**
+ * A record that cannot be split into fields. Everything after it is unreadable too, so reading stops here.
+ */
+public class CsvFormatException extends IllegalArgumentException {
+
+    private final int line;
+
+    public CsvFormatException(int line, String message) {
+        super(message);
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+}
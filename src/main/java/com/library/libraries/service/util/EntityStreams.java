@@ -0,0 +1,35 @@
+package com.library.libraries.service.util;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public final class EntityStreams {
+
+    public static final int BATCH_SIZE = 500;
+
+    private EntityStreams() {
+    }
+
+    /**
+     * Maps every entity of the stream and hands it to the consumer, clearing the persistence context every
+     * {@link #BATCH_SIZE} rows so a long export does not keep every row it has read. Closes the stream and
+     * returns the number of rows.
+     */
+    public static <E, D> long forEach(Stream<E> entities, EntityManager entityManager, Function<E, D> mapper,
+                                      Consumer<D> consumer) {
+        long streamed = 0;
+        try (Stream<E> rows = entities) {
+            Iterator<E> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(mapper.apply(iterator.next()));
+                if (++streamed % BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return streamed;
+    }
+}
@@ -0,0 +1,40 @@
+package com.library.libraries.service.util;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public final class KeysetPaging {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private KeysetPaging() {
+    }
+
+    public static void validateSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static <E, D> TPage<D> toPage(List<E> rows, int size, String sortProperty, Function<E, String> sortKey,
+                                         Function<E, Long> idGetter, Function<E, D> mapper, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = PageCursor.after(sortProperty, sortKey.apply(last), idGetter.apply(last)).encode();
+        }
+
+        Sort sort = "id".equals(sortProperty) ? Sort.by("id") : Sort.by(sortProperty).and(Sort.by("id"));
+        List<D> content = pageRows.stream().map(mapper).collect(Collectors.toList());
+
+        TPage<D> tPage = new TPage<>();
+        tPage.setCursorStat(content, size, sort, nextCursor, totalElements);
+        return tPage;
+    }
+}
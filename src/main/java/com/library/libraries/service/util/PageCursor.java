@@ -0,0 +1,65 @@
+package com.library.libraries.service.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class PageCursor {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final char NULL_KEY = 'n';
+    private static final char VALUE_KEY = 'v';
+
+    private final String sortProperty;
+    private final String lastKey;
+    private final long lastId;
+
+    private PageCursor(String sortProperty, String lastKey, long lastId) {
+        this.sortProperty = sortProperty;
+        this.lastKey = lastKey;
+        this.lastId = lastId;
+    }
+
+    public static PageCursor after(String sortProperty, String lastKey, long lastId) {
+        return new PageCursor(sortProperty, lastKey, lastId);
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            int second = decoded.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0 || second + 1 >= decoded.length()) {
+                throw new IllegalArgumentException("Malformed page cursor");
+            }
+
+            String sortProperty = decoded.substring(0, first);
+            long lastId = Long.parseLong(decoded.substring(first + 1, second));
+            char keyKind = decoded.charAt(second + 1);
+            if (keyKind != NULL_KEY && keyKind != VALUE_KEY) {
+                throw new IllegalArgumentException("Malformed page cursor");
+            }
+            String lastKey = keyKind == NULL_KEY ? null : decoded.substring(second + 2);
+            return new PageCursor(sortProperty, lastKey, lastId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed page cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = sortProperty + SEPARATOR + lastId + SEPARATOR
+                + (lastKey == null ? String.valueOf(NULL_KEY) : VALUE_KEY + lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortProperty() {
+        return sortProperty;
+    }
+
+    public String getLastKey() {
+        return lastKey;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+}
@@ -13,6 +13,8 @@ public class TPage<T> {
     private int totalPages;
     private Long totalElements;
     private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
 
     public void setStat(Page page, List<T> list) {
         this.number = page.getNumber();
@@ -21,6 +23,18 @@ public class TPage<T> {
         this.totalPages = page.getTotalPages();
         this.totalElements = page.getTotalElements();
         this.content = list;
+        this.hasNext = page.hasNext();
+    }
+
+    public void setCursorStat(List<T> list, int size, Sort sort, String nextCursor, Long totalElements) {
+        this.number = 0;
+        this.size = size;
+        this.sort = sort;
+        this.totalElements = totalElements;
+        this.totalPages = totalElements == null ? 0 : (int) ((totalElements + size - 1) / size);
+        this.content = list;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
     }
 
     public TPage() {
@@ -75,4 +89,20 @@ public class TPage<T> {
         this.content = content;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
 }
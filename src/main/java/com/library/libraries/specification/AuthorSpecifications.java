@@ -0,0 +1,14 @@
+package com.library.libraries.specification;
+
+import com.library.libraries.model.Author;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AuthorSpecifications {
+
+    public static Specification<Author> nameOrLastname(String name) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.equal(root.get("name"), name),
+                criteriaBuilder.equal(root.get("lastname"), name));
+    }
+
+}
@@ -27,6 +27,10 @@ public class BookSpecifications {
         };
     }
 
+    public static Specification<Book> titleContains(String title) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.like(root.get("title"), "%" + title + "%");
+    }
+
     private static <T> void addIfNotNull(List<Predicate> predicates, T value, Function<T, Predicate> predicateCreator) {
         if (value != null) {
             predicates.add(predicateCreator.apply(value));
@@ -0,0 +1,30 @@
+package com.library.libraries.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections whose statements report to a {@link SqlInspector}.
+ */
+public class InspectingDataSource extends DelegatingDataSource {
+
+    private final SqlInspector inspector;
+
+    InspectingDataSource(DataSource target, SqlInspector inspector) {
+        super(target);
+        this.inspector = inspector;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return JdbcProxies.connection(super.getConnection(), inspector);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return JdbcProxies.connection(super.getConnection(username, password), inspector);
+    }
+}
@@ -0,0 +1,184 @@
+package com.library.libraries.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JDK proxies around the JDBC objects of a connection: statements report every execution to the
+ * {@link SqlInspector} with its SQL, bind parameters, time and affected rows, and result sets count the rows
+ * read while a {@link SqlCapture} is open.
+ */
+final class JdbcProxies {
+
+    private JdbcProxies() {
+    }
+
+    static Connection connection(Connection target, SqlInspector inspector) {
+        return proxy(Connection.class, new ConnectionHandler(target, inspector));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(JdbcProxies.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Answers {@code equals}, {@code hashCode} and {@code toString} for a proxy, or returns null.
+     */
+    private static Object objectMethod(Object proxy, Object target, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return method.getParameterCount() == 1 ? proxy == args[0] : null;
+            case "hashCode":
+                return method.getParameterCount() == 0 ? System.identityHashCode(proxy) : null;
+            case "toString":
+                return method.getParameterCount() == 0 ? target.toString() : null;
+            default:
+                return null;
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final SqlInspector inspector;
+
+        private ConnectionHandler(Connection target, SqlInspector inspector) {
+            this.target = target;
+            this.inspector = inspector;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object objectResult = objectMethod(proxy, target, method, args);
+            if (objectResult != null) {
+                return objectResult;
+            }
+
+            Object result = JdbcProxies.invoke(target, method, args);
+            switch (method.getName()) {
+                case "createStatement":
+                    return proxy(Statement.class, new StatementHandler(result, null, inspector));
+                case "prepareStatement":
+                    return proxy(PreparedStatement.class, new StatementHandler(result, (String) args[0], inspector));
+                case "prepareCall":
+                    return proxy(CallableStatement.class, new StatementHandler(result, (String) args[0], inspector));
+                default:
+                    return result;
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Object target;
+        private final String sql;
+        private final SqlInspector inspector;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private StatementHandler(Object target, String sql, SqlInspector inspector) {
+            this.target = target;
+            this.sql = sql;
+            this.inspector = inspector;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object objectResult = objectMethod(proxy, target, method, args);
+            if (objectResult != null) {
+                return objectResult;
+            }
+
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if (sql != null && name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            }
+
+            Object result = JdbcProxies.invoke(target, method, args);
+            return "getResultSet".equals(name) ? countRows(result) : result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = JdbcProxies.invoke(target, method, args);
+                return countRows(result);
+            } finally {
+                inspector.executed(executed, parameters, System.nanoTime() - start, affectedRows(result));
+            }
+        }
+
+        private static long affectedRows(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return Math.max(0, ((Number) result).longValue());
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static Object countRows(Object result) {
+        SqlCapture capture = SqlCapture.current();
+        if (!(result instanceof ResultSet) || capture == null) {
+            return result;
+        }
+        return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, capture));
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final SqlCapture capture;
+
+        private ResultSetHandler(ResultSet target, SqlCapture capture) {
+            this.target = target;
+            this.capture = capture;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object objectResult = objectMethod(proxy, target, method, args);
+            if (objectResult != null) {
+                return objectResult;
+            }
+
+            Object result = JdbcProxies.invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                capture.recordRows(1);
+            }
+            return result;
+        }
+    }
+}
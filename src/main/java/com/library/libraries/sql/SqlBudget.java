@@ -0,0 +1,23 @@
+package com.library.libraries.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides {@code library.sql.request-budget} for the requests handled by the annotated controller method.
+ * The budget covers the whole request, so leave one statement for authentication loading the user when its
+ * cache misses. {@code FetchPlanStatementCountTest} holds the services behind these endpoints to their budgets.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    /**
+     * The most SQL statements one request may execute.
+     */
+    long statements();
+}
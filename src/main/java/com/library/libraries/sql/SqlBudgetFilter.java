@@ -0,0 +1,169 @@
+package com.library.libraries.sql;
+
+import com.library.libraries.logging.LoggerFacade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the SQL of each request and compares it with the budget of the handler, {@link SqlBudget} or the
+ * default. A request over budget is counted in {@code library.sql.budget.exceeded} and logged with its most
+ * repeated statements, which is usually enough to spot an N+1; with {@code failOverBudget} it fails instead,
+ * so tests catch the regression. To fail before anything reaches the client the response is then buffered
+ * until the budget is checked, streamed bodies included, which is why that mode is for tests only.
+ * <p>
+ * A handler that returns a {@code Callable} or a {@code StreamingResponseBody} runs its SQL on an executor
+ * thread after the first dispatch has returned. The capture follows it there and the budget is checked on the
+ * async dispatch that ends the request. Work the handler hands to its own threads is not counted.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final LoggerFacade logger = new LoggerFacade(SqlBudgetFilter.class);
+
+    private static final String CAPTURE_ATTRIBUTE = SqlBudgetFilter.class.getName() + ".CAPTURE";
+
+    private final long defaultBudget;
+    private final boolean failOverBudget;
+    private final MeterRegistry meterRegistry;
+
+    public SqlBudgetFilter(long defaultBudget, boolean failOverBudget, MeterRegistry meterRegistry) {
+        this.defaultBudget = defaultBudget;
+        this.failOverBudget = failOverBudget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlCapture capture = (SqlCapture) request.getAttribute(CAPTURE_ATTRIBUTE);
+        if (capture == null) {
+            capture = SqlCapture.start();
+            request.setAttribute(CAPTURE_ATTRIBUTE, capture);
+            WebAsyncUtils.getAsyncManager(request)
+                    .registerCallableInterceptor(CAPTURE_ATTRIBUTE, new CaptureInterceptor(capture));
+        } else {
+            capture.resume();
+        }
+
+        BufferedResponse buffered = null;
+        if (failOverBudget) {
+            buffered = WebUtils.getNativeResponse(response, BufferedResponse.class);
+            if (buffered == null) {
+                buffered = new BufferedResponse(response);
+            }
+        }
+
+        boolean completed = false;
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+            completed = true;
+        } finally {
+            capture.close();
+            if (!completed || !request.isAsyncStarted()) {
+                evaluate(request, capture, completed);
+            }
+        }
+        if (buffered != null && !request.isAsyncStarted()) {
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private void evaluate(HttpServletRequest request, SqlCapture capture, boolean completed) {
+        String uri = uriPattern(request);
+        if (meterRegistry != null) {
+            DistributionSummary.builder("library.sql.statements")
+                    .description("SQL statements executed per request")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(capture.getStatements());
+        }
+
+        long budget = budgetFor(request);
+        if (capture.getStatements() <= budget) {
+            return;
+        }
+        if (meterRegistry != null) {
+            Counter.builder("library.sql.budget.exceeded")
+                    .description("Requests that executed more SQL statements than their budget")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        String message = String.format("%s %s executed %d SQL statements over a budget of %d (%d rows, %d ms in JDBC)",
+                request.getMethod(), request.getRequestURI(), capture.getStatements(), budget, capture.getRows(),
+                capture.getJdbcMillis());
+        logger.warn("{}:{}{}", message, System.lineSeparator(), capture.describe(10));
+        // Never hide the request's own failure behind the budget one.
+        if (failOverBudget && completed) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private long budgetFor(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod) {
+            SqlBudget budget = ((HandlerMethod) handler).getMethodAnnotation(SqlBudget.class);
+            if (budget != null) {
+                return budget.statements();
+            }
+        }
+        return defaultBudget;
+    }
+
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    /**
+     * Holds the body back until the budget has been checked, across the dispatches of an async request.
+     */
+    private static final class BufferedResponse extends ContentCachingResponseWrapper {
+
+        private BufferedResponse(HttpServletResponse response) {
+            super(response);
+        }
+    }
+
+    /**
+     * Resumes the request's capture on the executor thread that runs an async handler.
+     */
+    private static final class CaptureInterceptor implements CallableProcessingInterceptor {
+
+        private final SqlCapture capture;
+
+        private CaptureInterceptor(SqlCapture capture) {
+            this.capture = capture;
+        }
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            capture.resume();
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            capture.close();
+        }
+    }
+}
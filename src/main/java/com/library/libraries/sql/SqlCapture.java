@@ -0,0 +1,153 @@
+package com.library.libraries.sql;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements, rows and JDBC time of the current thread while it is open. The request filter
+ * opens one per HTTP request; tests open their own around the code they measure:
+ * <pre>
+ * try (SqlCapture capture = SqlCapture.start()) {
+ *     studentService.getAll();
+ *     capture.assertStatementsAtMost(2);
+ * }
+ * </pre>
+ * Captures nest: a statement counts towards every capture open on the thread. A capture may be resumed on
+ * another thread, for work the request hands off, as long as only one thread uses it at a time.
+ */
+public final class SqlCapture implements AutoCloseable {
+
+    private static final ThreadLocal<SqlCapture> CURRENT = new ThreadLocal<>();
+
+    static final int MAX_DISTINCT_STATEMENTS = 100;
+
+    private final SqlCapture parent;
+    private SqlCapture previous;
+    private final Map<String, StatementStats> bySql = new LinkedHashMap<>();
+    private long statements;
+    private long rows;
+    private long jdbcNanos;
+    private boolean closed;
+
+    private SqlCapture(SqlCapture parent) {
+        this.parent = parent;
+        this.previous = parent;
+    }
+
+    public static SqlCapture start() {
+        SqlCapture capture = new SqlCapture(CURRENT.get());
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    /**
+     * Makes this capture current again on the calling thread until it is closed there.
+     */
+    SqlCapture resume() {
+        previous = CURRENT.get();
+        closed = false;
+        CURRENT.set(this);
+        return this;
+    }
+
+    static SqlCapture current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(String sql, long nanos, long rowCount) {
+        for (SqlCapture capture = this; capture != null; capture = capture.parent) {
+            capture.statements++;
+            capture.rows += rowCount;
+            capture.jdbcNanos += nanos;
+            StatementStats stats = capture.bySql.get(sql);
+            if (stats == null && capture.bySql.size() < MAX_DISTINCT_STATEMENTS) {
+                stats = new StatementStats(sql);
+                capture.bySql.put(sql, stats);
+            }
+            if (stats != null) {
+                stats.count++;
+                stats.nanos += nanos;
+            }
+        }
+    }
+
+    void recordRows(long rowCount) {
+        for (SqlCapture capture = this; capture != null; capture = capture.parent) {
+            capture.rows += rowCount;
+        }
+    }
+
+    public long getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+    }
+
+    /**
+     * Fails with the statements run so far when there were more than {@code maxStatements}.
+     */
+    public void assertStatementsAtMost(long maxStatements) {
+        if (statements > maxStatements) {
+            throw new AssertionError("Expected at most " + maxStatements + " SQL statements but "
+                    + statements + " were executed:" + System.lineSeparator() + describe(10));
+        }
+    }
+
+    public void assertStatements(long expectedStatements) {
+        if (statements != expectedStatements) {
+            throw new AssertionError("Expected " + expectedStatements + " SQL statements but "
+                    + statements + " were executed:" + System.lineSeparator() + describe(10));
+        }
+    }
+
+    /**
+     * The {@code limit} most repeated statements, one per line, most repeated first.
+     */
+    public String describe(int limit) {
+        List<StatementStats> sorted = new ArrayList<>(bySql.values());
+        sorted.sort(Comparator.comparingLong((StatementStats stats) -> stats.count).reversed());
+
+        StringBuilder description = new StringBuilder();
+        for (StatementStats stats : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            description.append("  ").append(stats.count).append("x ")
+                    .append(TimeUnit.NANOSECONDS.toMillis(stats.nanos)).append(" ms  ")
+                    .append(stats.sql).append(System.lineSeparator());
+        }
+        return description.toString();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    private static final class StatementStats {
+        private final String sql;
+        private long count;
+        private long nanos;
+
+        private StatementStats(String sql) {
+            this.sql = sql;
+        }
+    }
+}
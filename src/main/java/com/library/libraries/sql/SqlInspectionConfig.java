@@ -0,0 +1,47 @@
+package com.library.libraries.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class SqlInspectionConfig {
+
+    /**
+     * Static so the data source is wrapped however early it is created.
+     */
+    @Bean
+    public static BeanPostProcessor inspectingDataSourcePostProcessor(Environment environment) {
+        long slowQueryMillis = environment.getProperty("library.sql.slow-query-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof InspectingDataSource)) {
+                    return new InspectingDataSource((DataSource) bean, new SqlInspector(slowQueryMillis));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(Environment environment,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        SqlBudgetFilter filter = new SqlBudgetFilter(
+                environment.getProperty("library.sql.request-budget", Long.class, 30L),
+                environment.getProperty("library.sql.fail-over-budget", Boolean.class, false),
+                meterRegistry.getIfAvailable());
+
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        // Outside the security chain, so the statements of authentication count towards the request too.
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+}
@@ -0,0 +1,66 @@
+package com.library.libraries.sql;
+
+import com.library.libraries.logging.LoggerFacade;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives every statement executed through an {@link InspectingDataSource}: counts it in the thread's open
+ * {@link SqlCapture}, if any, and logs it with the kinds of its bind parameters, never their values, when it
+ * ran longer than the slow query threshold.
+ */
+class SqlInspector {
+
+    private static final LoggerFacade logger = new LoggerFacade(SqlInspector.class);
+
+    private final long slowQueryNanos;
+
+    SqlInspector(long slowQueryMillis) {
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    void executed(String sql, Map<Integer, Object> parameters, long nanos, long rows) {
+        SqlCapture capture = SqlCapture.current();
+        if (capture != null) {
+            capture.recordStatement(sql, nanos, rows);
+        }
+        if (nanos >= slowQueryNanos) {
+            logger.warn("Slow SQL took {} ms: {} with parameters {}",
+                    TimeUnit.NANOSECONDS.toMillis(nanos), sql, describe(parameters));
+        }
+    }
+
+    static String describe(Map<Integer, Object> parameters) {
+        StringBuilder description = new StringBuilder("[");
+        for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+            if (description.length() > 1) {
+                description.append(", ");
+            }
+            description.append(parameter.getKey()).append('=').append(describe(parameter.getValue()));
+        }
+        return description.append(']').toString();
+    }
+
+    /**
+     * Only the kind of each value: bind parameters carry password hashes, emails and whatever else the
+     * statement writes, none of which belongs in a log.
+     */
+    private static String describe(Object value) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof InputStream || value instanceof Reader) {
+            return "<stream>";
+        }
+        if (value instanceof CharSequence) {
+            return "<" + ((CharSequence) value).length() + " chars>";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+}
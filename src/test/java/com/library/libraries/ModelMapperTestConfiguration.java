@@ -0,0 +1,17 @@
+package com.library.libraries;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * The application's model mapper for sliced tests, which do not load {@link LibraryApplication}.
+ */
+@TestConfiguration
+public class ModelMapperTestConfiguration {
+
+    @Bean
+    public ModelMapper modelMapper() {
+        return new LibraryApplication().getModelMapper();
+    }
+}
@@ -0,0 +1,278 @@
+package com.library.libraries.catalog;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookFacetsDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.AuthorSnapshot;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.specification.BookSpecifications;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+@DataJpaTest
+@Import(InMemoryCatalog.class)
+class InMemoryCatalogTest {
+
+    @Autowired
+    private InMemoryCatalog catalog;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Author martin;
+    private Author tolkien;
+    private Student arya;
+    private Book gameOfThrones;
+    private Book hobbit;
+
+    @BeforeEach
+    void setUp() {
+        martin = author("George", "Martin", "george.catalog@example.com");
+        tolkien = author("John", "Tolkien", "john.catalog@example.com");
+        arya = new Student();
+        arya.setRegistration("REG-CAT-1");
+        arya.setFullname("Arya Stark");
+        arya.setEmail("arya.catalog@example.com");
+        arya.setPhone("555-0101");
+        testEntityManager.persist(arya);
+
+        gameOfThrones = book("A Game of Thrones", "ISBN-CAT-1", 1996, martin, arya);
+        book("A Clash of Kings", "ISBN-CAT-2", 1998, martin, null);
+        hobbit = book("The Hobbit", "ISBN-CAT-3", 1937, tolkien, null);
+        book("The Silmarillion", "ISBN-CAT-4", null, tolkien, null);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+        catalog.load();
+    }
+
+    @Test
+    void whenLoaded_thenListsTheSameBooksAsTheDatabase() {
+        assertThat(catalog.isReady()).isTrue();
+        assertThat(catalog.findAllBooks())
+                .isEqualTo(bookRepository.findBookDtos(null, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    void whenBookIsLookedUp_thenItCarriesItsAuthorAndStudent() {
+        BookOneDto book = catalog.findBook(gameOfThrones.getId());
+
+        assertThat(book.getTitle()).isEqualTo("A Game of Thrones");
+        assertThat(book.getStatus()).isEqualTo(Status.RENTED);
+        assertThat(book.getStudentId()).isEqualTo(arya.getId());
+        assertThat(book.getAuthorId()).isEqualTo(martin.getId());
+        assertThat(book.getAuthor().getLastname()).isEqualTo("Martin");
+        assertThat(catalog.findBook(Long.MAX_VALUE)).isNull();
+    }
+
+    @Test
+    void whenSearched_thenMatchesTheDatabaseSpecification() {
+        List<BookDto> criteria = new ArrayList<>();
+        criteria.add(criteria(null, Status.FREE, null, null));
+        criteria.add(criteria(martin.getId(), Status.FREE, null, null));
+        criteria.add(criteria(null, null, null, "THE"));
+        criteria.add(criteria(tolkien.getId(), null, 1937, null));
+        BookDto rentedByArya = criteria(null, null, null, null);
+        rentedByArya.setStudentId(arya.getId());
+        criteria.add(rentedByArya);
+        BookDto byIsbn = criteria(null, null, null, null);
+        byIsbn.setIsbn("ISBN-CAT-3");
+        criteria.add(byIsbn);
+
+        for (BookDto searched : criteria) {
+            assertThat(catalog.searchBooks(searched)).as("search for %s", searched)
+                    .containsExactlyInAnyOrderElementsOf(
+                            bookRepository.findBookDtos(BookSpecifications.byAttributes(searched), Sort.unsorted()));
+        }
+    }
+
+    @Test
+    void whenCounted_thenMatchesTheDatabaseCount() {
+        List<BookDto> criteria = new ArrayList<>();
+        criteria.add(criteria(null, null, null, null));
+        criteria.add(criteria(null, Status.FREE, null, null));
+        criteria.add(criteria(martin.getId(), Status.FREE, null, null));
+        criteria.add(criteria(tolkien.getId(), Status.FREE, 1937, null));
+        criteria.add(criteria(tolkien.getId(), Status.RENTED, null, null));
+        criteria.add(criteria(null, null, null, "kings"));
+        criteria.add(criteria(Long.MAX_VALUE, null, null, null));
+
+        for (BookDto counted : criteria) {
+            assertThat(catalog.countBooks(counted)).as("count for %s", counted)
+                    .isEqualTo(bookRepository.count(BookSpecifications.byAttributes(counted)));
+        }
+    }
+
+    @Test
+    void whenSearchedWithFacets_thenPageAndCountsMatchTheDatabase() {
+        List<BookDto> criteria = new ArrayList<>();
+        criteria.add(criteria(null, null, null, null));
+        criteria.add(criteria(null, Status.FREE, null, null));
+        criteria.add(criteria(tolkien.getId(), null, null, null));
+        criteria.add(criteria(null, null, null, "a "));
+
+        for (BookDto searched : criteria) {
+            Specification<Book> spec = BookSpecifications.byAttributes(searched);
+            FacetedPage faceted = catalog.searchFaceted(searched, PageRequest.of(0, 2));
+
+            assertThat(faceted.getPage().getContent()).as("page for %s", searched)
+                    .isEqualTo(bookRepository.findBookDtos(spec, PageRequest.of(0, 2, Sort.by("id"))).getContent());
+            assertThat(faceted.getPage().getTotalElements()).isEqualTo(bookRepository.count(spec));
+            assertThat(entries(faceted.getFacets().getStatus())).isEqualTo(entries(bookRepository.countByStatus(spec)));
+            assertThat(entries(faceted.getFacets().getPublishYear()))
+                    .isEqualTo(entries(bookRepository.countByPublishYear(spec)));
+            assertThat(entries(faceted.getFacets().getAuthorId()))
+                    .isEqualTo(entries(bookRepository.countByAuthorId(spec, BookFacetsDto.MAX_AUTHORS)));
+        }
+    }
+
+    @Test
+    void whenSearchedWithFacets_thenCountsCoverEveryPage() {
+        FacetedPage secondPage = catalog.searchFaceted(criteria(null, null, null, null), PageRequest.of(1, 3));
+
+        assertThat(secondPage.getPage().getContent()).hasSize(1);
+        assertThat(secondPage.getFacets().getAuthorId())
+                .containsExactly(entry(martin.getId(), 2L), entry(tolkien.getId(), 2L));
+        assertThat(secondPage.getFacets().getStatus())
+                .containsExactly(entry(Status.FREE, 3L), entry(Status.RENTED, 1L));
+    }
+
+    @Test
+    void whenBookIsRentedOrDeleted_thenReadsFollowTheEvents() {
+        BookSnapshot free = BookSnapshot.of(testEntityManager.find(Book.class, hobbit.getId()));
+        BookSnapshot rented = new BookSnapshot(free.getId(), free.getTitle(), free.getIsbn(), Status.RENTED,
+                free.getPublishYear(), free.getAuthorId(), arya.getId(), free.getVersion() + 1);
+
+        catalog.onBookChanged(BookChangedEvent.updated(free, rented));
+
+        BookDto rentedByArya = criteria(null, Status.RENTED, null, null);
+        rentedByArya.setStudentId(arya.getId());
+        assertThat(catalog.searchBooks(rentedByArya)).extracting(BookDto::getId)
+                .containsExactlyInAnyOrder(gameOfThrones.getId(), hobbit.getId());
+
+        catalog.onBookChanged(BookChangedEvent.deleted(rented));
+
+        assertThat(catalog.findBook(hobbit.getId())).isNull();
+        assertThat(catalog.findAllBooks()).hasSize(3);
+        assertThat(catalog.countBooks(rentedByArya)).isEqualTo(1);
+        assertThat(catalog.countBooks(criteria(tolkien.getId(), null, null, null))).isEqualTo(1);
+    }
+
+    @Test
+    void whenEventsArriveOutOfOrder_thenTheLatestVersionWins() {
+        BookSnapshot free = BookSnapshot.of(testEntityManager.find(Book.class, hobbit.getId()));
+        BookSnapshot rented = new BookSnapshot(free.getId(), free.getTitle(), free.getIsbn(), Status.RENTED,
+                free.getPublishYear(), free.getAuthorId(), arya.getId(), free.getVersion() + 1);
+        BookSnapshot returned = new BookSnapshot(free.getId(), free.getTitle(), free.getIsbn(), Status.FREE,
+                free.getPublishYear(), free.getAuthorId(), null, free.getVersion() + 2);
+
+        // The return commits after the checkout, but its listener runs first.
+        catalog.onBookChanged(BookChangedEvent.updated(rented, returned));
+        catalog.onBookChanged(BookChangedEvent.updated(free, rented));
+
+        assertThat(catalog.findBook(hobbit.getId()).getStatus()).isEqualTo(Status.FREE);
+        assertThat(catalog.findBook(hobbit.getId()).getStudentId()).isNull();
+        assertThat(catalog.countBooks(criteria(null, Status.RENTED, null, null))).isEqualTo(1);
+
+        catalog.onBookChanged(BookChangedEvent.deleted(returned));
+        catalog.onBookChanged(BookChangedEvent.updated(free, rented));
+
+        assertThat(catalog.findBook(hobbit.getId())).isNull();
+    }
+
+    @Test
+    void whenAuthorChanges_thenTheirBooksShowTheNewName() {
+        catalog.onAuthorChanged(AuthorChangedEvent.updated(AuthorSnapshot.of(martin),
+                new AuthorSnapshot(martin.getId(), "George R. R.", "Martin", martin.getEmail(), "Bard of Westeros")));
+
+        assertThat(catalog.findBook(gameOfThrones.getId()).getAuthor().getName()).isEqualTo("George R. R.");
+    }
+
+    @Test
+    void whenManyBooksComeAndGo_thenTheCatalogStaysInIdOrder() {
+        long firstId = 1_000_000L;
+        // Created out of order, as concurrent transactions commit.
+        for (long id = firstId + 2_999; id >= firstId; id--) {
+            catalog.onBookChanged(BookChangedEvent.created(snapshot(id)));
+        }
+        for (long id = firstId; id < firstId + 2_500; id++) {
+            catalog.onBookChanged(BookChangedEvent.deleted(snapshot(id)));
+        }
+
+        List<Long> ids = catalog.findAllBooks().stream().map(BookDto::getId).collect(Collectors.toList());
+
+        assertThat(ids).hasSize(4 + 500).isSorted();
+        assertThat(ids.subList(4, ids.size()))
+                .containsExactlyElementsOf(LongStream.range(firstId + 2_500, firstId + 3_000).boxed()
+                        .collect(Collectors.toList()));
+        assertThat(catalog.findBook(firstId + 2_999).getAuthor().getLastname()).isEqualTo("Tolkien");
+        assertThat(catalog.searchBooks(criteria(tolkien.getId(), Status.FREE, 1980, null)))
+                .extracting(BookDto::getId).containsExactlyElementsOf(ids.subList(4, ids.size()));
+    }
+
+    /**
+     * The entries in iteration order, so facets compare by order too.
+     */
+    private static <K> List<Map.Entry<K, Long>> entries(Map<K, Long> facet) {
+        return new ArrayList<>(facet.entrySet());
+    }
+
+    private BookSnapshot snapshot(long id) {
+        return new BookSnapshot(id, "Unfinished Tales " + id, "ISBN-TALES-" + id, Status.FREE, 1980,
+                tolkien.getId(), null, 0L);
+    }
+
+    private static BookDto criteria(Long authorId, Status status, Integer publishYear, String title) {
+        BookDto criteria = new BookDto();
+        criteria.setAuthorId(authorId);
+        criteria.setStatus(status);
+        criteria.setPublishYear(publishYear);
+        criteria.setTitle(title);
+        return criteria;
+    }
+
+    private Author author(String name, String lastname, String email) {
+        Author author = new Author();
+        author.setName(name);
+        author.setLastname(lastname);
+        author.setEmail(email);
+        return testEntityManager.persist(author);
+    }
+
+    private Book book(String title, String isbn, Integer publishYear, Author author, Student student) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublishYear(publishYear);
+        book.setAuthor(author);
+        book.setStudent(student);
+        book.setStatus(student != null ? Status.RENTED : Status.FREE);
+        return testEntityManager.persist(book);
+    }
+}
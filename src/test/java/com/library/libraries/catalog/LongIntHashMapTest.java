@@ -0,0 +1,64 @@
+package com.library.libraries.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        assertThat(map.put(42L, 1)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.put(42L, 2)).isEqualTo(1);
+        assertThat(map.get(42L)).isEqualTo(2);
+        assertThat(map.get(43L)).isEqualTo(LongIntHashMap.MISSING);
+
+        assertThat(map.remove(42L)).isEqualTo(2);
+        assertThat(map.get(42L)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void zeroIsAnOrdinaryKey() {
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        map.put(0L, 7);
+
+        assertThat(map.get(0L)).isEqualTo(7);
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.remove(0L)).isEqualTo(7);
+        assertThat(map.get(0L)).isEqualTo(LongIntHashMap.MISSING);
+    }
+
+    @Test
+    void behavesLikeAHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(16);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(21);
+
+        for (int i = 0; i < 200_000; i++) {
+            // A narrow key range keeps probe runs long, so removals have to shift entries back.
+            long key = random.nextInt(5_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertThat(map.remove(key)).isEqualTo(removed != null ? removed : LongIntHashMap.MISSING);
+            } else {
+                int value = random.nextInt(Integer.MAX_VALUE);
+                Integer previous = expected.put(key, value);
+                assertThat(map.put(key, value)).isEqualTo(previous != null ? previous : LongIntHashMap.MISSING);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -100; key < 4_900; key++) {
+            Integer value = expected.get(key);
+            assertThat(map.get(key)).isEqualTo(value != null ? value : LongIntHashMap.MISSING);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.library.libraries.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoaringBitmapTest {
+
+    @Test
+    void addRemoveAndContainsAcrossContainers() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+
+        bitmap.add(3);
+        bitmap.add(70_000);
+        bitmap.add(3);
+
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+        assertThat(bitmap.contains(3)).isTrue();
+        assertThat(bitmap.contains(70_000)).isTrue();
+        assertThat(bitmap.contains(4)).isFalse();
+
+        bitmap.remove(70_000);
+        bitmap.remove(3);
+
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void denseGroupsSwitchToBitmapsAndBack() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value = 0; value < 10_000; value++) {
+            bitmap.add(value);
+        }
+        assertThat(bitmap.cardinality()).isEqualTo(10_000);
+
+        for (int value = 0; value < 9_000; value++) {
+            bitmap.remove(value);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(1_000);
+        assertThat(values(bitmap)).first().isEqualTo(9_000);
+        assertThat(values(bitmap)).last().isEqualTo(9_999);
+    }
+
+    @Test
+    void intersectionsMatchBitSets() {
+        Random random = new Random(22);
+        for (int round = 0; round < 20; round++) {
+            // Densities on both sides of the array limit, so every pair of container kinds meets.
+            BitSet leftExpected = new BitSet();
+            BitSet rightExpected = new BitSet();
+            RoaringBitmap left = randomBitmap(random, leftExpected, 1 + random.nextInt(40_000));
+            RoaringBitmap right = randomBitmap(random, rightExpected, 1 + random.nextInt(40_000));
+
+            BitSet intersection = (BitSet) leftExpected.clone();
+            intersection.and(rightExpected);
+
+            RoaringBitmap and = RoaringBitmap.and(left, right);
+            assertThat(values(and)).isEqualTo(intersection.stream().boxed().collect(Collectors.toList()));
+            assertThat(RoaringBitmap.andCardinality(left, right)).isEqualTo(intersection.cardinality());
+            assertThat(left.cardinality()).isEqualTo(leftExpected.cardinality());
+        }
+    }
+
+    private static RoaringBitmap randomBitmap(Random random, BitSet expected, int count) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(200_000);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        for (int i = 0; i < count / 4; i++) {
+            int value = random.nextInt(200_000);
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+        return bitmap;
+    }
+
+    private static List<Integer> values(RoaringBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
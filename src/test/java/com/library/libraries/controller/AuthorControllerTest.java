@@ -17,15 +17,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(SpringExtension.class)
@@ -137,4 +141,33 @@ class AuthorControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(content().json(new ObjectMapper().writeValueAsString(savedAuthorDto)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenStreamAll_thenWritesOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<AuthorDto> consumer = invocation.getArgument(0);
+            consumer.accept(createAuthorDto(1L, "George R.R. Martin", "george@example.com"));
+            consumer.accept(createAuthorDto(2L, "Ursula K. Le Guin", "ursula@example.com"));
+            return null;
+        }).when(authorService).streamAll(any());
+        ObjectMapper objectMapper = new ObjectMapper();
+        MockMvc streamingMvc = MockMvcBuilders
+                .standaloneSetup(new AuthorController(authorService, objectMapper))
+                .build();
+
+        MvcResult started = streamingMvc.perform(get("/authors")
+                        .accept(NdjsonStreaming.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = streamingMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonStreaming.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+        assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(1L);
+        assertThat(objectMapper.readTree(lines[1]).get("email").asText()).isEqualTo("ursula@example.com");
+    }
+}
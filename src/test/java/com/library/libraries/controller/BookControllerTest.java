@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.libraries.dto.BookDto;
 import com.library.libraries.dto.BookOneDto;
 import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.service.BookImportService;
 import com.library.libraries.service.BookService;
 import com.library.libraries.service.util.TPage;
 import javassist.NotFoundException;
@@ -43,6 +44,9 @@ class BookControllerTest {
     @MockBean
     private BookService bookService;
 
+    @MockBean
+    private BookImportService bookImportService;
+
     @BeforeEach
     void setUp() {
         List<BookDto> bookDtoList = new ArrayList<>();
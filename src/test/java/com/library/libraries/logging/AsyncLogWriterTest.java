@@ -0,0 +1,188 @@
+package com.library.libraries.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AsyncLogWriterTest {
+
+    private static final int CAPACITY = 8;
+
+    private Logger logger;
+    private AsyncLogWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        writer = new AsyncLogWriter(CAPACITY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.stop();
+        MDC.clear();
+    }
+
+    @Test
+    void drain_writesEventsInTheOrderTheyWereSubmitted() {
+        writer.submit(info("first {}", 1L));
+        writer.submit(LogEvent.of(logger, Level.WARN, "second {}", new Object[]{"two"}));
+        writer.submit(LogEvent.of(logger, Level.ERROR, "third"));
+
+        verifyNoInteractions(logger);
+        assertThat(writer.drain(CAPACITY)).isEqualTo(3);
+
+        InOrder inOrder = inOrder(logger);
+        inOrder.verify(logger).info("first {}", new Object[]{1L});
+        inOrder.verify(logger).warn("second {}", new Object[]{"two"});
+        inOrder.verify(logger).error("third", new Object[0]);
+        assertThat(writer.statistics().getWritten()).isEqualTo(3);
+        assertThat(writer.pending()).isZero();
+    }
+
+    @Test
+    void submit_whenBufferIsFull_dropsInfoButWritesWarnOnTheCallingThread() {
+        fillBuffer();
+
+        writer.submit(info("one too many"));
+        writer.submit(LogEvent.of(logger, Level.WARN, "must not be lost"));
+
+        verify(logger).warn("must not be lost", new Object[0]);
+        LogWriterStatistics statistics = writer.statistics();
+        assertThat(statistics.getEnqueued()).isEqualTo(CAPACITY);
+        assertThat(statistics.getWrittenDirectly()).isEqualTo(1);
+        assertThat(statistics.getDropped() + statistics.getSampledOut()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_aboveTheHighWaterMark_keepsOneInfoInSampleEvery() {
+        int highWaterMark = CAPACITY - CAPACITY / 4;
+        for (int i = 0; i < highWaterMark; i++) {
+            writer.submit(info("steady"));
+        }
+
+        for (int i = 0; i < AsyncLogWriter.SAMPLE_EVERY; i++) {
+            writer.submit(info("burst"));
+        }
+
+        LogWriterStatistics statistics = writer.statistics();
+        assertThat(statistics.getEnqueued()).isEqualTo(highWaterMark + 1);
+        assertThat(statistics.getSampledOut()).isEqualTo(AsyncLogWriter.SAMPLE_EVERY - 1);
+    }
+
+    @Test
+    void drain_afterWrappingAround_reusesSlots() {
+        for (int round = 0; round < 3; round++) {
+            fillBuffer();
+            assertThat(writer.drain(CAPACITY)).isEqualTo(CAPACITY);
+        }
+
+        assertThat(writer.statistics().getWritten()).isEqualTo(3L * CAPACITY);
+        assertThat(writer.statistics().getDropped()).isZero();
+    }
+
+    @Test
+    void submit_withMutableArgument_formatsOnTheCallingThread() {
+        StringBuilder title = new StringBuilder("A Game of Thrones");
+        writer.submit(info("Saved {}", title));
+        title.setLength(0);
+
+        writer.drain(CAPACITY);
+
+        verify(logger).info(eq("Saved A Game of Thrones"), isNull(Throwable.class));
+    }
+
+    @Test
+    void drain_onAnotherThread_writesWithTheCallersThreadNameAndMdc() throws InterruptedException {
+        AtomicReference<String> threadName = new AtomicReference<>();
+        AtomicReference<String> requestId = new AtomicReference<>();
+        Logger recordingLogger = mock(Logger.class, invocation -> {
+            threadName.set(Thread.currentThread().getName());
+            requestId.set(MDC.get("requestId"));
+            return null;
+        });
+        String callerName = Thread.currentThread().getName();
+
+        MDC.put("requestId", "request-1");
+        writer.submit(LogEvent.of(recordingLogger, Level.INFO, "Saved {}", new Object[]{1L}));
+        MDC.clear();
+        Thread drainer = new Thread(() -> writer.drain(CAPACITY), "test-drainer");
+        drainer.start();
+        drainer.join();
+
+        assertThat(threadName.get()).isEqualTo(callerName);
+        assertThat(requestId.get()).isEqualTo("request-1");
+    }
+
+    @Test
+    void drain_withLogback_appendsTheTimeThreadAndMdcOfTheCall() throws InterruptedException {
+        ch.qos.logback.classic.Logger logbackLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("async-log-writer-test");
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logbackLogger.addAppender(appender);
+        String callerName = Thread.currentThread().getName();
+
+        MDC.put("requestId", "request-2");
+        long before = System.currentTimeMillis();
+        writer.submit(LogEvent.of(logbackLogger, Level.WARN, "Returned {}", new Object[]{7L}));
+        long after = System.currentTimeMillis();
+        MDC.clear();
+        Thread.sleep(20);
+        Thread drainer = new Thread(() -> writer.drain(CAPACITY), "test-drainer");
+        drainer.start();
+        drainer.join();
+        logbackLogger.detachAppender(appender);
+
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getFormattedMessage()).isEqualTo("Returned 7");
+        assertThat(event.getThreadName()).isEqualTo(callerName);
+        assertThat(event.getMDCPropertyMap()).containsEntry("requestId", "request-2");
+        assertThat(event.getTimeStamp()).isBetween(before, after);
+    }
+
+    @Test
+    void start_whenIdle_wakesUpForEachEvent() {
+        writer.start();
+
+        for (int i = 1; i <= 20; i++) {
+            writer.submit(LogEvent.of(logger, Level.WARN, "event"));
+            verify(logger, timeout(1000).times(i)).warn("event", new Object[0]);
+        }
+    }
+
+    @Test
+    void constructor_rejectsCapacityThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new AsyncLogWriter(10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void fillBuffer() {
+        for (int i = 0; i < CAPACITY; i++) {
+            writer.submit(LogEvent.of(logger, Level.WARN, "filler"));
+        }
+    }
+
+    private LogEvent info(String format, Object... args) {
+        return LogEvent.of(logger, Level.INFO, format, args);
+    }
+}
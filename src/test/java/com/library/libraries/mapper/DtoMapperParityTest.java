@@ -0,0 +1,151 @@
+package com.library.libraries.mapper;
+
+import com.library.libraries.LibraryApplication;
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.AuthorOneDto;
+import com.library.libraries.dto.AuthorUpdateDto;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.dto.BookUpdateDto;
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {BookMapperImpl.class, AuthorMapperImpl.class, StudentMapperImpl.class})
+class DtoMapperParityTest {
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private AuthorMapper authorMapper;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    private final ModelMapper modelMapper = new LibraryApplication().getModelMapper();
+
+    private Author author;
+    private Student student;
+    private Book rentedBook;
+    private Book freeBook;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setId(1L);
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george@example.com");
+        author.setAbout("Author of A Song of Ice and Fire");
+
+        student = new Student();
+        student.setId(7L);
+        student.setRegistration("20240001");
+        student.setFullname("Arya Stark");
+        student.setEmail("arya@example.com");
+        student.setUniversity("Winterfell University");
+        student.setCourse("Fencing");
+        student.setPhone("555-0101");
+        student.setAddress("Winterfell");
+
+        rentedBook = book(10L, "A Game of Thrones", "978-0553103540", Status.RENTED, 1996);
+        rentedBook.setStudent(student);
+        freeBook = book(11L, "A Clash of Kings", "978-0553108033", Status.FREE, 1998);
+
+        author.setBooks(new ArrayList<>(Arrays.asList(rentedBook, freeBook)));
+        student.setBooks(new ArrayList<>(Collections.singletonList(rentedBook)));
+    }
+
+    @Test
+    void bookDto_matchesModelMapper() {
+        assertSameAsModelMapper(bookMapper.toBookDto(rentedBook), rentedBook, BookDto.class);
+        assertSameAsModelMapper(bookMapper.toBookDto(freeBook), freeBook, BookDto.class);
+    }
+
+    @Test
+    void bookOneDto_matchesModelMapper() {
+        assertSameAsModelMapper(bookMapper.toBookOneDto(rentedBook), rentedBook, BookOneDto.class);
+        assertSameAsModelMapper(bookMapper.toBookOneDto(freeBook), freeBook, BookOneDto.class);
+    }
+
+    @Test
+    void bookUpdateDto_matchesModelMapper() {
+        assertSameAsModelMapper(bookMapper.toBookUpdateDto(rentedBook), rentedBook, BookUpdateDto.class);
+    }
+
+    @Test
+    void bookWithoutAuthor_matchesModelMapper() {
+        Book orphan = book(12L, "Fire & Blood", "978-1524796280", Status.FREE, null);
+        orphan.setAuthor(null);
+
+        assertSameAsModelMapper(bookMapper.toBookDto(orphan), orphan, BookDto.class);
+    }
+
+    @Test
+    void authorDto_matchesModelMapper() {
+        assertSameAsModelMapper(authorMapper.toAuthorDto(author), author, AuthorDto.class);
+    }
+
+    @Test
+    void authorOneDto_matchesModelMapper() {
+        assertSameAsModelMapper(authorMapper.toAuthorOneDto(author), author, AuthorOneDto.class);
+    }
+
+    @Test
+    void authorUpdateDto_matchesModelMapper() {
+        assertSameAsModelMapper(authorMapper.toAuthorUpdateDto(author), author, AuthorUpdateDto.class);
+    }
+
+    @Test
+    void authorWithoutBooks_matchesModelMapper() {
+        author.setBooks(null);
+
+        assertSameAsModelMapper(authorMapper.toAuthorDto(author), author, AuthorDto.class);
+    }
+
+    @Test
+    void studentDto_matchesModelMapper() {
+        assertSameAsModelMapper(studentMapper.toStudentDto(student), student, StudentDto.class);
+    }
+
+    @Test
+    void studentWithoutBooks_matchesModelMapper() {
+        student.setBooks(Collections.emptyList());
+
+        assertSameAsModelMapper(studentMapper.toStudentDto(student), student, StudentDto.class);
+    }
+
+    private <D> void assertSameAsModelMapper(D generated, Object source, Class<D> dtoClass) {
+        assertThat(generated)
+                .usingRecursiveComparison()
+                .isEqualTo(modelMapper.map(source, dtoClass));
+    }
+
+    private Book book(Long id, String title, String isbn, Status status, Integer publishYear) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setStatus(status);
+        book.setPublishYear(publishYear);
+        book.setAuthor(author);
+        return book;
+    }
+}
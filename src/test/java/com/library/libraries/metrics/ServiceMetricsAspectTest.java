@@ -0,0 +1,67 @@
+package com.library.libraries.metrics;
+
+import com.library.libraries.mapper.RentalMapper;
+import com.library.libraries.repository.AuthorLoanStatsRepository;
+import com.library.libraries.repository.BookLoanRepository;
+import com.library.libraries.repository.StudentLoanStatsRepository;
+import com.library.libraries.service.RentalReportService;
+import com.library.libraries.service.imp.RentalReportServiceImp;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceMetricsAspectTest {
+
+    private SimpleMeterRegistry registry;
+    private StudentLoanStatsRepository studentLoanStatsRepository;
+    private RentalReportService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        studentLoanStatsRepository = mock(StudentLoanStatsRepository.class);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(new RentalReportServiceImp(studentLoanStatsRepository,
+                mock(BookLoanRepository.class), mock(AuthorLoanStatsRepository.class), mock(RentalMapper.class)));
+        factory.addAspect(new ServiceMetricsAspect(registry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    void whenServiceMethodSucceeds_thenItIsTimedPerMethod() {
+        when(studentLoanStatsRepository.findById(1L)).thenReturn(Optional.empty());
+
+        service.getStudentLoans(1L);
+        service.getStudentLoans(1L);
+
+        Timer timer = registry.get(ServiceMetricsAspect.METRIC)
+                .tag("class", "RentalReportServiceImp")
+                .tag("method", "getStudentLoans")
+                .tag("outcome", "SUCCESS")
+                .timer();
+        assertThat(timer.count()).isEqualTo(2);
+    }
+
+    @Test
+    void whenServiceMethodThrows_thenTheErrorIsCountedWithItsException() {
+        when(studentLoanStatsRepository.findById(1L)).thenThrow(new IllegalStateException("database is gone"));
+
+        assertThatThrownBy(() -> service.getStudentLoans(1L)).isInstanceOf(IllegalStateException.class);
+
+        Timer timer = registry.get(ServiceMetricsAspect.METRIC)
+                .tag("method", "getStudentLoans")
+                .tag("outcome", "ERROR")
+                .tag("exception", "IllegalStateException")
+                .timer();
+        assertThat(timer.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.library.libraries.model.cache;
+
+import com.library.libraries.ModelMapperTestConfiguration;
+import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.rental.RentalOutbox;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.repository.StudentRepository;
+import com.library.libraries.service.imp.StudentServiceImp;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import({StudentServiceImp.class, StudentMapperImpl.class, BookMapperImpl.class, KeysetPageRepository.class,
+        RentalOutbox.class, ModelMapperTestConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private StudentServiceImp studentService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    private Author author;
+    private Book book;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george.cache@example.com");
+        author = authorRepository.save(author);
+
+        book = new Book();
+        book.setTitle("A Game of Thrones");
+        book.setIsbn("ISBN-CACHE-1");
+        book.setStatus(Status.FREE);
+        book.setAuthor(author);
+        book = bookRepository.save(book);
+
+        student = new Student();
+        student.setRegistration("REG-CACHE");
+        student.setFullname("Arya Stark");
+        student.setEmail("arya.cache@example.com");
+        student.setPhone("555-0001");
+        student = studentRepository.save(student);
+
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void whenAuthorIsLoadedAgain_thenItComesFromTheCacheWithoutAQuery() {
+        transactionTemplate.execute(status -> authorRepository.findById(author.getId()).get());
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        Author cached = transactionTemplate.execute(status -> authorRepository.findById(author.getId()).get());
+
+        assertThat(cached.getEmail()).isEqualTo("george.cache@example.com");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+        assertThat(statistics.getDomainDataRegionStatistics(CacheRegions.AUTHOR).getHitCount()).isPositive();
+    }
+
+    @Test
+    void whenBookIsRentedAndReturned_thenCachedBookFollows() throws Exception {
+        transactionTemplate.execute(status -> bookRepository.findById(book.getId()).get());
+
+        StudentPatchDto patch = new StudentPatchDto();
+        patch.setStudentId(student.getId());
+        patch.setBookId(book.getId());
+
+        studentService.getBookForStudent(patch);
+        Long rentedTo = transactionTemplate.execute(status -> {
+            Book rented = bookRepository.findById(book.getId()).get();
+            assertThat(rented.getStatus()).isEqualTo(Status.RENTED);
+            return rented.getStudent().getId();
+        });
+        assertThat(rentedTo).isEqualTo(student.getId());
+
+        studentService.leaveBookForStudent(patch);
+        transactionTemplate.execute(status -> {
+            Book returned = bookRepository.findById(book.getId()).get();
+            assertThat(returned.getStatus()).isEqualTo(Status.FREE);
+            assertThat(returned.getStudent()).isNull();
+            return returned;
+        });
+    }
+
+    @Test
+    void whenBookIsRented_thenOtherCachedEntriesSurvive() throws Exception {
+        Book sequel = new Book();
+        sequel.setTitle("A Clash of Kings");
+        sequel.setIsbn("ISBN-CACHE-3");
+        sequel.setStatus(Status.FREE);
+        sequel.setAuthor(author);
+        Long sequelId = bookRepository.save(sequel).getId();
+        transactionTemplate.execute(status -> bookRepository.findById(sequelId).get());
+        transactionTemplate.execute(status -> authorRepository.findById(author.getId()).get().getBooks().size());
+
+        StudentPatchDto patch = new StudentPatchDto();
+        patch.setStudentId(student.getId());
+        patch.setBookId(book.getId());
+        studentService.getBookForStudent(patch);
+
+        long statementsBefore = statistics.getPrepareStatementCount();
+        Integer books = transactionTemplate.execute(status -> {
+            bookRepository.findById(sequelId).get();
+            return authorRepository.findById(author.getId()).get().getBooks().size();
+        });
+
+        assertThat(books).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    void whenBookIsAddedToAuthor_thenCachedBookListIsEvicted() {
+        transactionTemplate.execute(status -> authorRepository.findById(author.getId()).get().getBooks().size());
+
+        Book sequel = new Book();
+        sequel.setTitle("A Clash of Kings");
+        sequel.setIsbn("ISBN-CACHE-2");
+        sequel.setStatus(Status.FREE);
+        sequel.setAuthor(author);
+        bookRepository.save(sequel);
+
+        Integer books = transactionTemplate.execute(status -> authorRepository.findById(author.getId()).get().getBooks().size());
+
+        assertThat(books).isEqualTo(2);
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.libraries.model.id;
+
+import com.library.libraries.model.Author;
+import com.library.libraries.repository.AuthorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(IdSequenceAligner.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequenceAlignerTest {
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void whenSavingAuthors_thenIdsComeFromOneBlock() {
+        Author first = authorRepository.save(author("first@example.com"));
+        Author second = authorRepository.save(author("second@example.com"));
+
+        assertThat(second.getId()).isEqualTo(first.getId() + 1);
+    }
+
+    @Test
+    void whenRowsExistAboveSequence_thenAlignRestartsAfterThem() {
+        jdbcTemplate.update("insert into author (id, name, lastname, email) values (?, ?, ?, ?)",
+                100_000L, "Legacy", "Author", "legacy@example.com");
+
+        idSequenceAligner.align();
+        Long nextBlock = jdbcTemplate.queryForObject("select next value for author_seq", Long.class);
+
+        assertThat(nextBlock).isGreaterThan(100_000L);
+    }
+
+    private static Author author(String email) {
+        Author author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail(email);
+        return author;
+    }
+}
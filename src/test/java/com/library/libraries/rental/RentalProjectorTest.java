@@ -0,0 +1,162 @@
+package com.library.libraries.rental;
+
+import com.library.libraries.ModelMapperTestConfiguration;
+import com.library.libraries.dto.AuthorLoanStatsDto;
+import com.library.libraries.dto.BookLoanDto;
+import com.library.libraries.dto.StudentBatchPatchDto;
+import com.library.libraries.dto.StudentLoanStatsDto;
+import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.RentalMapperImpl;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.model.rental.RentalEvent;
+import com.library.libraries.model.rental.RentalEventType;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.repository.RentalEventRepository;
+import com.library.libraries.repository.RentalOutboxRepository;
+import com.library.libraries.service.imp.RentalReportServiceImp;
+import com.library.libraries.service.imp.StudentServiceImp;
+import javassist.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({StudentServiceImp.class, RentalOutbox.class, RentalProjector.class, RentalReportServiceImp.class,
+        StudentMapperImpl.class, BookMapperImpl.class, RentalMapperImpl.class, KeysetPageRepository.class,
+        ModelMapperTestConfiguration.class})
+class RentalProjectorTest {
+
+    @Autowired
+    private StudentServiceImp studentService;
+
+    @Autowired
+    private RentalProjector rentalProjector;
+
+    @Autowired
+    private RentalReportServiceImp rentalReportService;
+
+    @Autowired
+    private RentalEventRepository rentalEventRepository;
+
+    @Autowired
+    private RentalOutboxRepository rentalOutboxRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Author author;
+    private Student arya;
+    private Book first;
+    private Book second;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george.rental@example.com");
+        testEntityManager.persist(author);
+
+        arya = new Student();
+        arya.setRegistration("REG-RENT");
+        arya.setFullname("Arya Stark");
+        arya.setEmail("arya.rental@example.com");
+        arya.setPhone("555-0042");
+        testEntityManager.persist(arya);
+
+        first = book("A Game of Thrones", "ISBN-RENT-1");
+        second = book("A Clash of Kings", "ISBN-RENT-2");
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void checkoutsAndReturnsAreAppendedToTheEventLog() throws NotFoundException {
+        studentService.getBooksForStudent(batch(first.getId(), second.getId()));
+        studentService.leaveBookForStudent(single(first.getId()));
+
+        List<RentalEvent> events = rentalEventRepository.findAll();
+
+        assertThat(events).extracting(RentalEvent::getType, RentalEvent::getBookId)
+                .containsExactlyInAnyOrder(
+                        tuple(RentalEventType.CHECKOUT, first.getId()),
+                        tuple(RentalEventType.CHECKOUT, second.getId()),
+                        tuple(RentalEventType.RETURN, first.getId()));
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getStudentId()).isEqualTo(arya.getId());
+            assertThat(event.getAuthorId()).isEqualTo(author.getId());
+        });
+        assertThat(rentalOutboxRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void projectorBuildsTheReadModelsAndEmptiesTheOutbox() throws NotFoundException {
+        studentService.getBooksForStudent(batch(first.getId(), second.getId()));
+        studentService.leaveBookForStudent(single(first.getId()));
+
+        assertThat(rentalProjector.projectPending()).isEqualTo(3);
+
+        StudentLoanStatsDto student = rentalReportService.getStudentLoans(arya.getId());
+        assertThat(student.getActiveLoans()).isEqualTo(1);
+        assertThat(student.getTotalLoans()).isEqualTo(2);
+
+        List<BookLoanDto> history = rentalReportService.getBookLoans(first.getId());
+        assertThat(history).hasSize(1);
+        assertThat(history.get(0).getStudentId()).isEqualTo(arya.getId());
+        assertThat(history.get(0).getReturnedAt()).isNotNull();
+        assertThat(rentalReportService.getBookLoans(second.getId()).get(0).getReturnedAt()).isNull();
+
+        assertThat(rentalReportService.getAuthorLoans())
+                .extracting(AuthorLoanStatsDto::getAuthorId, AuthorLoanStatsDto::getActiveLoans,
+                        AuthorLoanStatsDto::getTotalLoans)
+                .containsExactly(tuple(author.getId(), 1L, 2L));
+        assertThat(rentalOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void projectingAgainAppliesNothingTwice() throws NotFoundException {
+        studentService.getBookForStudent(single(first.getId()));
+        rentalProjector.projectPending();
+
+        assertThat(rentalProjector.projectPending()).isZero();
+        assertThat(rentalReportService.getStudentLoans(arya.getId()).getTotalLoans()).isEqualTo(1);
+    }
+
+    private Book book(String title, String isbn) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setStatus(Status.FREE);
+        book.setAuthor(author);
+        return testEntityManager.persist(book);
+    }
+
+    private StudentBatchPatchDto batch(Long... bookIds) {
+        StudentBatchPatchDto patch = new StudentBatchPatchDto();
+        patch.setStudentId(arya.getId());
+        patch.setBookIds(Arrays.asList(bookIds));
+        return patch;
+    }
+
+    private StudentPatchDto single(Long bookId) {
+        StudentPatchDto patch = new StudentPatchDto();
+        patch.setStudentId(arya.getId());
+        patch.setBookId(bookId);
+        return patch;
+    }
+}
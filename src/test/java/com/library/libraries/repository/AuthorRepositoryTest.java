@@ -1,11 +1,14 @@
 package com.library.libraries.repository;
 
 import com.library.libraries.model.Author;
+import com.library.libraries.service.util.EntityStreams;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -16,6 +19,9 @@ public class AuthorRepositoryTest {
     @Autowired
     private AuthorRepository authorRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @BeforeEach
     void setUp() {
 
@@ -48,4 +54,26 @@ public class AuthorRepositoryTest {
         boolean notExists = authorRepository.existsByEmail("nobody@example.com");
         assertThat(notExists).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenStreamingMoreRowsThanOneBatch_thenEveryAuthorIsReadInIdOrder() {
+
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < EntityStreams.BATCH_SIZE * 2 + 1; i++) {
+            Author author = new Author();
+            author.setName("Author");
+            author.setLastname("No. " + i);
+            author.setEmail("author" + i + "@example.com");
+            authors.add(author);
+        }
+        authorRepository.saveAll(authors);
+        entityManager.flush();
+
+        List<Long> ids = new ArrayList<>();
+        long streamed = EntityStreams.forEach(authorRepository.streamAll(), entityManager, Author::getId, ids::add);
+
+        assertThat(streamed).isEqualTo(EntityStreams.BATCH_SIZE * 2 + 2);
+        assertThat(ids).hasSize(EntityStreams.BATCH_SIZE * 2 + 2).isSorted().doesNotHaveDuplicates();
+        assertThat(entityManager.contains(authors.get(0))).isFalse();
+    }
+}
@@ -0,0 +1,186 @@
+package com.library.libraries.repository;
+
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.mapper.AuthorMapper;
+import com.library.libraries.mapper.AuthorMapperImpl;
+import com.library.libraries.mapper.BookMapper;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.StudentMapper;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.specification.BookSpecifications;
+import com.library.libraries.sql.SqlCapture;
+import com.library.libraries.sql.SqlInspectionConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The projection queries must produce exactly what mapping the loaded entities produces.
+ */
+@DataJpaTest
+@Import({AuthorMapperImpl.class, BookMapperImpl.class, StudentMapperImpl.class, SqlInspectionConfig.class})
+class ProjectionRepositoryTest {
+
+    private static final Sort BY_ID = Sort.by(Sort.Direction.ASC, "id");
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private AuthorMapper authorMapper;
+
+    @Autowired
+    private StudentMapper studentMapper;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private Author martin;
+
+    @BeforeEach
+    void setUp() {
+        martin = author("George", "Martin", "george@example.com", "Wrote A Song of Ice and Fire");
+        Author tolkien = author("John", "Tolkien", "tolkien@example.com", null);
+        author("Ursula", "Le Guin", "ursula@example.com", "No books yet");
+
+        Student arya = new Student();
+        arya.setRegistration("REG-1");
+        arya.setFullname("Arya Stark");
+        arya.setEmail("arya@example.com");
+        arya.setPhone("555-0001");
+        arya.setCourse("Swordplay");
+        testEntityManager.persist(arya);
+
+        Student bran = new Student();
+        bran.setRegistration("REG-2");
+        bran.setFullname("Bran Stark");
+        bran.setEmail("bran@example.com");
+        bran.setPhone("555-0002");
+        testEntityManager.persist(bran);
+
+        book("A Game of Thrones", "ISBN-1", 1996, martin, arya);
+        book("A Clash of Kings", "ISBN-2", 1998, martin, null);
+        book("The Hobbit", "ISBN-3", null, tolkien, arya);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void findBookDtos_matchesMappedEntities() {
+        List<BookDto> expected = bookRepository.findAll(BY_ID).stream()
+                .map(bookMapper::toBookDto)
+                .collect(Collectors.toList());
+
+        assertThat(bookRepository.findBookDtos(null, BY_ID)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void findBookDtos_appliesSpecificationAndPaging() {
+        BookDto criteria = new BookDto();
+        criteria.setAuthorId(martin.getId());
+
+        Page<BookDto> page = bookRepository.findBookDtos(BookSpecifications.byAttributes(criteria),
+                PageRequest.of(0, 1, Sort.by("title")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(BookDto::getTitle).containsExactly("A Clash of Kings");
+    }
+
+    @Test
+    void findBookDtosByIds_readsMoreIdsThanOneInList() {
+        List<BookDto> expected = bookRepository.findAll(BY_ID).stream()
+                .map(bookMapper::toBookDto)
+                .collect(Collectors.toList());
+        List<Long> ids = new ArrayList<>();
+        for (long missing = 1; missing <= 2500; missing++) {
+            ids.add(-missing);
+        }
+        expected.forEach(book -> ids.add(book.getId()));
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            assertThat(bookRepository.findBookDtosByIds(ids)).usingRecursiveComparison().ignoringCollectionOrder()
+                    .isEqualTo(expected);
+            capture.assertStatements(3);
+        }
+    }
+
+    @Test
+    void findAuthorDtos_matchesMappedEntities() {
+        List<AuthorDto> expected = authorRepository.findAll(BY_ID).stream()
+                .map(authorMapper::toAuthorDto)
+                .collect(Collectors.toList());
+
+        try (SqlCapture capture = SqlCapture.start()) {
+            assertThat(authorRepository.findAuthorDtos(null, BY_ID)).usingRecursiveComparison().isEqualTo(expected);
+            capture.assertStatements(2);
+        }
+    }
+
+    @Test
+    void findStudentDtos_matchesMappedEntities() {
+        List<StudentDto> expected = studentRepository.findAll(BY_ID).stream()
+                .map(studentMapper::toStudentDto)
+                .collect(Collectors.toList());
+
+        assertThat(studentRepository.findStudentDtos(BY_ID)).usingRecursiveComparison().isEqualTo(expected);
+    }
+
+    @Test
+    void findStudentDtos_pagesStudentsWithTheirBooks() {
+        Page<StudentDto> page = studentRepository.findStudentDtos(PageRequest.of(0, 1, BY_ID));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0).getBooks()).extracting(BookOneDto::getTitle)
+                .containsExactly("A Game of Thrones", "The Hobbit");
+    }
+
+    private Author author(String name, String lastname, String email, String about) {
+        Author author = new Author();
+        author.setName(name);
+        author.setLastname(lastname);
+        author.setEmail(email);
+        author.setAbout(about);
+        return testEntityManager.persist(author);
+    }
+
+    private void book(String title, String isbn, Integer publishYear, Author author, Student student) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setPublishYear(publishYear);
+        book.setAuthor(author);
+        book.setStudent(student);
+        book.setStatus(student != null ? Status.RENTED : Status.FREE);
+        testEntityManager.persist(book);
+    }
+}
@@ -48,8 +48,38 @@ public class UserRepositoryTest {
 
     @Test
     void whenFindByUsername_thenReturnUser() {
-        Optional<User> foundUser = userRepository.findByUsername("daenerys");
+        Optional<User> foundUser = userRepository.findFirstByUsername("daenerys");
         assertThat(foundUser.isPresent()).isTrue();
         assertThat(foundUser.get().getEmail()).isEqualTo("daenerys@example.com");
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenFindByUsernameExact_thenIgnoreCaseAndSurroundingSpaces() {
+        Optional<User> foundUser = userRepository.findByUsernameExact("  Daenerys ");
+        assertThat(foundUser.isPresent()).isTrue();
+        assertThat(foundUser.get().getEmail()).isEqualTo("daenerys@example.com");
+    }
+
+    @Test
+    void whenFindByUsernameExact_withPartialUsername_thenReturnEmpty() {
+        assertThat(userRepository.findByUsernameExact("jon").isPresent()).isFalse();
+    }
+
+    @Test
+    void whenFindByUsernameExact_withLegacyMixedCaseUsername_thenReturnUser() {
+        User legacy = new User();
+        legacy.setUsername("Tyrion");
+        legacy.setEmail("tyrion@example.com");
+        userRepository.save(legacy);
+
+        Optional<User> foundUser = userRepository.findByUsernameExact("Tyrion");
+        assertThat(foundUser.isPresent()).isTrue();
+        assertThat(foundUser.get().getEmail()).isEqualTo("tyrion@example.com");
+    }
+
+    @Test
+    void whenExistsByUsernameIgnoreCase_thenMatchesAnyCase() {
+        assertThat(userRepository.existsByUsernameIgnoreCase("JON_SNOW")).isTrue();
+        assertThat(userRepository.existsByUsernameIgnoreCase("jon")).isFalse();
+    }
+}
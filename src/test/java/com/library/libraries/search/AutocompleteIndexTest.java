@@ -0,0 +1,114 @@
+package com.library.libraries.search;
+
+import com.library.libraries.dto.CompletionDto;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.model.Status;
+import com.library.libraries.repository.AuthorLoanStatsRepository;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookLoanRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.projection.BookTitleView;
+import com.library.libraries.repository.projection.LoanCountView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private BookLoanRepository bookLoanRepository;
+
+    @Mock
+    private AuthorLoanStatsRepository authorLoanStatsRepository;
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex(bookRepository, authorRepository, bookLoanRepository, authorLoanStatsRepository);
+        given(authorLoanStatsRepository.findAll()).willReturn(Collections.emptyList());
+        given(authorRepository.findAllNamesBy()).willReturn(Collections.emptyList());
+    }
+
+    @Test
+    void whenCheckoutIsProjectedWhileLoanCountsAreRead_thenItIsCountedOnce() {
+        given(bookLoanRepository.countLoansPerBook()).willAnswer(invocation -> {
+            index.onBookChanged(checkout(1L));
+            return Collections.singletonList(loans(1L, 3L));
+        });
+        given(bookRepository.findAllTitlesBy()).willReturn(Collections.singletonList(title(1L, "A Game of Thrones")));
+
+        index.rebuild();
+
+        assertThat(weights(index.completeTitle("game", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void whenCheckoutIsCommittedWhileTitlesAreRead_thenItIsReplayed() {
+        given(bookLoanRepository.countLoansPerBook()).willReturn(Collections.singletonList(loans(1L, 3L)));
+        given(bookRepository.findAllTitlesBy()).willAnswer(invocation -> {
+            index.onBookChanged(checkout(1L));
+            return Collections.singletonList(title(1L, "A Game of Thrones"));
+        });
+
+        index.rebuild();
+
+        assertThat(weights(index.completeTitle("game", 10))).containsExactly(4L);
+    }
+
+    private static long[] weights(List<CompletionDto> completions) {
+        return completions.stream().mapToLong(CompletionDto::getWeight).toArray();
+    }
+
+    private static BookChangedEvent checkout(Long bookId) {
+        return BookChangedEvent.updated(book(bookId, Status.FREE, null), book(bookId, Status.RENTED, 1L));
+    }
+
+    private static BookSnapshot book(Long id, Status status, Long studentId) {
+        return new BookSnapshot(id, "A Game of Thrones", "ISBN-" + id, status, 1996, null, studentId, null);
+    }
+
+    private static LoanCountView loans(Long bookId, Long loans) {
+        return new LoanCountView() {
+            @Override
+            public Long getId() {
+                return bookId;
+            }
+
+            @Override
+            public Long getLoans() {
+                return loans;
+            }
+        };
+    }
+
+    private static BookTitleView title(Long bookId, String title) {
+        return new BookTitleView() {
+            @Override
+            public Long getId() {
+                return bookId;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package com.library.libraries.search;
+
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.event.AuthorChangedEvent;
+import com.library.libraries.event.AuthorSnapshot;
+import com.library.libraries.event.BookChangedEvent;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.model.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookSearchResultCacheTest {
+
+    private BookSearchResultCache cache;
+    private AtomicInteger loads;
+    private Function<BookSearchCriteria, List<BookDto>> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BookSearchResultCache();
+        loads = new AtomicInteger();
+        loader = criteria -> {
+            loads.incrementAndGet();
+            return Collections.singletonList(new BookDto());
+        };
+    }
+
+    @Test
+    void whenSameCriteriaAreSearchedAgain_thenResultComesFromCache() {
+        cache.get(BookSearchCriteria.of(criteria(1L, Status.FREE, null, "Game")), loader);
+        cache.get(BookSearchCriteria.of(criteria(1L, Status.FREE, null, "GAME")), loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBookOfTheSearchedAuthorAndStatusChanges_thenEntryIsReloaded() {
+        BookSearchCriteria freeBooksOfAuthor = BookSearchCriteria.of(criteria(1L, Status.FREE, null, null));
+        cache.get(freeBooksOfAuthor, loader);
+
+        cache.onBookChanged(BookChangedEvent.updated(book(1L, Status.FREE, 1996), book(1L, Status.RENTED, 1996)));
+        cache.get(freeBooksOfAuthor, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getStaleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBookOfAnotherAuthorChanges_thenEntryIsKept() {
+        BookSearchCriteria freeBooksOfAuthor = BookSearchCriteria.of(criteria(1L, Status.FREE, null, null));
+        cache.get(freeBooksOfAuthor, loader);
+
+        cache.onBookChanged(BookChangedEvent.created(book(2L, Status.FREE, 1996)));
+        cache.get(freeBooksOfAuthor, loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBookWithAnotherStatusChanges_thenEntryIsKept() {
+        BookSearchCriteria freeBooksOfAuthor = BookSearchCriteria.of(criteria(1L, Status.FREE, null, null));
+        cache.get(freeBooksOfAuthor, loader);
+
+        cache.onBookChanged(BookChangedEvent.deleted(book(1L, Status.RENTED, 1996)));
+        cache.get(freeBooksOfAuthor, loader);
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenSearchIsOpenOnEveryTaggedAttribute_thenAnyBookChangeReloadsIt() {
+        BookSearchCriteria byTitle = BookSearchCriteria.of(criteria(null, null, null, "game"));
+        cache.get(byTitle, loader);
+
+        cache.onBookChanged(BookChangedEvent.created(book(7L, Status.FREE, 2011)));
+        cache.get(byTitle, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void whenAuthorIsUpdated_thenEveryEntryIsReloaded() {
+        BookSearchCriteria freeBooksOfAuthor = BookSearchCriteria.of(criteria(1L, Status.FREE, null, null));
+        cache.get(freeBooksOfAuthor, loader);
+
+        AuthorSnapshot author = new AuthorSnapshot(1L, "George", "Martin", "george@example.com", null);
+        cache.onAuthorChanged(AuthorChangedEvent.updated(author, author));
+        cache.get(freeBooksOfAuthor, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static BookDto criteria(Long authorId, Status status, Integer publishYear, String title) {
+        BookDto bookDto = new BookDto();
+        bookDto.setAuthorId(authorId);
+        bookDto.setStatus(status);
+        bookDto.setPublishYear(publishYear);
+        bookDto.setTitle(title);
+        return bookDto;
+    }
+
+    private static BookSnapshot book(Long authorId, Status status, Integer publishYear) {
+        return new BookSnapshot(10L, "A Game of Thrones", "ISBN-1", status, publishYear, authorId, null, 0L);
+    }
+}
@@ -0,0 +1,127 @@
+package com.library.libraries.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompletionTrieTest {
+
+    private CompletionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new CompletionTrie(3);
+        trie.put(1L, "A Game of Thrones", 5);
+        trie.put(2L, "A Clash of Kings", 9);
+        trie.put(3L, "A Storm of Swords", 1);
+        trie.put(4L, "The Hobbit", 7);
+        trie.put(5L, "Les Misérables", 2);
+    }
+
+    @Test
+    void whenPrefixStartsAWord_thenReturnsHeaviestFirst() {
+        assertThat(ids(trie.complete("a ", 10))).containsExactly(2L, 1L, 3L);
+        assertThat(ids(trie.complete("thr", 10))).containsExactly(1L);
+        assertThat(ids(trie.complete("of", 10))).containsExactly(2L, 1L, 3L);
+        assertThat(ids(trie.complete("game of t", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void whenPrefixIsInsideAWord_thenDoesNotMatch() {
+        assertThat(trie.complete("hrones", 10)).isEmpty();
+        assertThat(trie.complete("game thrones", 10)).isEmpty();
+    }
+
+    @Test
+    void whenPrefixHasAccentsOrCapitals_thenIsFolded() {
+        assertThat(ids(trie.complete("MISER", 10))).containsExactly(5L);
+        assertThat(ids(trie.complete("misér", 10))).containsExactly(5L);
+        assertThat(trie.complete("misér", 10).get(0).getText()).isEqualTo("Les Misérables");
+    }
+
+    @Test
+    void whenMoreMatchesThanKept_thenReturnsOnlyTheBestWithinLimit() {
+        trie.put(6L, "A Dance with Dragons", 6);
+
+        assertThat(ids(trie.complete("a", 10))).containsExactly(2L, 6L, 1L);
+        assertThat(ids(trie.complete("a", 2))).containsExactly(2L, 6L);
+    }
+
+    @Test
+    void whenWeightGrows_thenRankingFollows() {
+        trie.addWeight(3L, 10);
+
+        assertThat(ids(trie.complete("a", 10))).containsExactly(3L, 2L, 1L);
+        assertThat(trie.weight(3L)).isEqualTo(11);
+    }
+
+    @Test
+    void whenDocumentReplacedOrRemoved_thenOldKeysNoLongerMatch() {
+        trie.put(1L, "A Feast for Crows", trie.weight(1L));
+        trie.remove(4L);
+
+        assertThat(trie.complete("thrones", 10)).isEmpty();
+        assertThat(trie.complete("hob", 10)).isEmpty();
+        assertThat(ids(trie.complete("cro", 10))).containsExactly(1L);
+        assertThat(trie.size()).isEqualTo(4);
+    }
+
+    @Test
+    void whenRandomlyChanged_thenMatchesABruteForceScan() {
+        String[] words = {"a", "an", "and", "ant", "game", "games", "gamer", "of", "off", "the", "then", "there"};
+        Random random = new Random(42);
+        CompletionTrie randomTrie = new CompletionTrie(4);
+        Map<Long, String> texts = new HashMap<>();
+        Map<Long, Long> weights = new HashMap<>();
+
+        for (int step = 0; step < 2000; step++) {
+            long id = random.nextInt(60);
+            int action = random.nextInt(10);
+            if (action < 5) {
+                StringBuilder text = new StringBuilder();
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    text.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                long weight = random.nextInt(20);
+                randomTrie.put(id, text.toString(), weight);
+                texts.put(id, text.toString());
+                weights.put(id, weight);
+            } else if (action < 8) {
+                randomTrie.remove(id);
+                texts.remove(id);
+                weights.remove(id);
+            } else if (texts.containsKey(id)) {
+                randomTrie.addWeight(id, 3);
+                weights.merge(id, 3L, Long::sum);
+            }
+
+            String word = words[random.nextInt(words.length)];
+            String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+            assertThat(ids(randomTrie.complete(prefix, 4))).as("step %d, prefix %s", step, prefix)
+                    .isEqualTo(bruteForce(texts, weights, prefix, 4));
+        }
+    }
+
+    private static List<Long> bruteForce(Map<Long, String> texts, Map<Long, Long> weights, String prefix, int limit) {
+        return texts.keySet().stream()
+                .filter(id -> TextNormalizer.tokenize(texts.get(id)).stream().anyMatch(word -> word.startsWith(prefix)))
+                .sorted(Comparator.comparing((Long id) -> -weights.get(id)).thenComparing(id -> id))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<CompletionTrie.Completion> completions) {
+        List<Long> ids = new ArrayList<>();
+        completions.forEach(completion -> ids.add(completion.getId()));
+        return ids;
+    }
+}
@@ -0,0 +1,103 @@
+package com.library.libraries.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FuzzyTokenIndexTest {
+
+    private FuzzyTokenIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyTokenIndex(2);
+        index.index(1L, "J. R. R.", "Tolkien");
+        index.index(2L, "George R. R.", "Martin");
+        index.index(3L, "Machado", "de Assis");
+        index.index(4L, "The Lord of the Rings");
+        index.index(5L, "The Two Towers");
+    }
+
+    @Test
+    void whenTokenIsMisspelled_thenFindsItWithinTheEditDistance() {
+        assertThat(index.search("Tolkein", 2)).containsExactly(1L);
+        assertThat(index.search("marrtin", 2)).containsExactly(2L);
+        assertThat(index.search("Asiss", 2)).containsExactly(3L);
+    }
+
+    @Test
+    void whenEditDistanceIsLowered_thenStopsMatchingFurtherTokens() {
+        assertThat(index.search("tolkjen", 2)).containsExactly(1L);
+        assertThat(index.search("tolkjen", 1)).containsExactly(1L);
+        assertThat(index.search("tokjen", 1)).isEmpty();
+        assertThat(index.search("tolkien", 0)).containsExactly(1L);
+        assertThat(index.search("tolkein", 0)).isEmpty();
+    }
+
+    @Test
+    void whenTokensAreShort_thenFewerEditsAreAllowed() {
+        assertThat(index.search("rx", 2)).isEmpty();
+        assertThat(index.search("lrd", 2)).containsExactly(4L);
+        assertThat(index.search("lrdd", 2)).isEmpty();
+    }
+
+    @Test
+    void whenQueryHasSeveralTokens_thenRanksByCoverageThenEdits() {
+        assertThat(index.search("the lord of the towers", 2)).containsExactly(4L, 5L);
+        assertThat(index.search("lord of the ringz", 2)).containsExactly(4L);
+        assertThat(index.search("the twin towrs", 2)).containsExactly(5L);
+    }
+
+    @Test
+    void whenDocumentRemoved_thenItsTokensNoLongerMatch() {
+        index.remove(1L);
+
+        assertThat(index.search("Tolkein", 2)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void distance_countsAdjacentTranspositionAsOneEdit() {
+        assertThat(FuzzyTokenIndex.distance("tolkein", "tolkien", 2)).isEqualTo(1);
+        assertThat(FuzzyTokenIndex.distance("kitten", "sitting", 3)).isEqualTo(3);
+        assertThat(FuzzyTokenIndex.distance("kitten", "sitting", 2)).isEqualTo(3);
+        assertThat(FuzzyTokenIndex.distance("ca", "abc", 3)).isEqualTo(3);
+    }
+
+    @Test
+    void whenRandomTokensAreSearched_thenMatchesABruteForceScan() {
+        Random random = new Random(7);
+        FuzzyTokenIndex randomIndex = new FuzzyTokenIndex(2);
+        List<String> vocabulary = new ArrayList<>();
+        for (long id = 0; id < 500; id++) {
+            String token = randomToken(random);
+            vocabulary.add(token);
+            randomIndex.index(id, token);
+        }
+
+        for (int query = 0; query < 300; query++) {
+            String token = randomToken(random);
+            int edits = FuzzyTokenIndex.allowedEdits(token, 2);
+            List<Long> expected = new ArrayList<>();
+            for (int id = 0; id < vocabulary.size(); id++) {
+                if (FuzzyTokenIndex.distance(token, vocabulary.get(id), edits) <= edits) {
+                    expected.add((long) id);
+                }
+            }
+            assertThat(randomIndex.search(token, 2)).as(token).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    private static String randomToken(Random random) {
+        StringBuilder token = new StringBuilder();
+        for (int i = 3 + random.nextInt(8); i > 0; i--) {
+            token.append((char) ('a' + random.nextInt(4)));
+        }
+        return token.toString();
+    }
+}
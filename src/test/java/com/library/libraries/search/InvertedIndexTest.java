@@ -0,0 +1,52 @@
+package com.library.libraries.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.index(1L, "A Game of Thrones");
+        index.index(2L, "A Clash of Kings");
+        index.index(3L, "Game Theory: a Game for Everyone");
+        index.index(4L, "O Cortiço");
+    }
+
+    @Test
+    void whenSearchWholeToken_thenReturnsMatchesRankedByRelevance() {
+        List<Long> ids = index.search("game");
+
+        assertThat(ids).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void whenSearchPhrase_thenRequiresConsecutiveTokens() {
+        assertThat(index.search("Game of")).containsExactly(1L);
+        assertThat(index.search("of Game")).isEmpty();
+    }
+
+    @Test
+    void whenSearchWithDifferentCaseAndAccents_thenMatches() {
+        assertThat(index.search("CORTICO")).containsExactly(4L);
+        assertThat(index.search("cortiço")).containsExactly(4L);
+    }
+
+    @Test
+    void whenDocumentUpdatedOrRemoved_thenPostingsFollow() {
+        index.index(2L, "A Storm of Swords");
+        index.remove(1L);
+
+        assertThat(index.search("Kings")).isEmpty();
+        assertThat(index.search("swords")).containsExactly(2L);
+        assertThat(index.search("thrones")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,46 @@
+package com.library.libraries.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.index(1L, "George R. R.", "Martin");
+        index.index(2L, "J. R. R.", "Tolkien");
+        index.index(3L, "Machado", "de Assis");
+    }
+
+    @Test
+    void whenSearchInfix_thenReturnsDocumentsWithAnyFieldContainingQuery() {
+        assertThat(index.search("olki")).containsExactly(2L);
+        assertThat(index.search("r. r.")).containsExactly(1L, 2L);
+        assertThat(index.search("ASSIS")).containsExactly(3L);
+    }
+
+    @Test
+    void whenQuerySpansTwoFields_thenDoesNotMatch() {
+        assertThat(index.search("R.Martin")).isEmpty();
+        assertThat(index.search("chadode")).isEmpty();
+    }
+
+    @Test
+    void whenQueryShorterThanTrigram_thenFallsBackToVerification() {
+        assertThat(index.search("ki")).containsExactly(2L);
+        assertThat(index.search("")).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void whenDocumentRemoved_thenNoLongerMatches() {
+        index.remove(2L);
+
+        assertThat(index.search("tolkien")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,90 @@
+package com.library.libraries.security;
+
+import com.library.libraries.model.User;
+import com.library.libraries.service.imp.UserDetailsServiceImp;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class JwtAuthenticationCacheTest {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetailsServiceImp userDetailsService;
+    private JwtAuthenticationCache authenticationCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtil = spy(new JwtTokenUtil());
+        userDetailsService = mock(UserDetailsServiceImp.class);
+        authenticationCache = new JwtAuthenticationCache(jwtTokenUtil, userDetailsService);
+    }
+
+    @Test
+    void getClaims_whenCalledRepeatedly_thenVerifiesTokenOnce() {
+        String token = jwtTokenUtil.generateToken(user("george"));
+
+        Claims first = authenticationCache.getClaims(token);
+        Claims second = authenticationCache.getClaims(token);
+
+        assertThat(first.getSubject()).isEqualTo("george");
+        assertThat(second).isSameAs(first);
+        verify(jwtTokenUtil, times(1)).getAllClaimsFromToken(token);
+    }
+
+    @Test
+    void getClaims_whenSignatureInvalid_thenThrowsEveryTime() {
+        String token = jwtTokenUtil.generateToken(user("george"));
+        String tampered = token.substring(0, token.length() - 2) + "xx";
+
+        assertThrows(SignatureException.class, () -> authenticationCache.getClaims(tampered));
+        assertThrows(SignatureException.class, () -> authenticationCache.getClaims(tampered));
+        verify(jwtTokenUtil, times(2)).getAllClaimsFromToken(tampered);
+    }
+
+    @Test
+    void getClaims_whenTokenExpired_thenThrows() {
+        String token = Jwts.builder()
+                .setSubject("george")
+                .setExpiration(new Date(System.currentTimeMillis() - 1000))
+                .signWith(SignatureAlgorithm.HS256, JwtTokenUtil.SIGNING_KEY).compact();
+
+        assertThrows(ExpiredJwtException.class, () -> authenticationCache.getClaims(token));
+    }
+
+    @Test
+    void getUserDetails_whenCached_thenLoadsOnceUntilEvicted() {
+        UserDetails details = new org.springframework.security.core.userdetails.User(
+                "george", "secret", Collections.emptyList());
+        given(userDetailsService.loadUserByUsername("george")).willReturn(details);
+
+        assertThat(authenticationCache.getUserDetails("george")).isSameAs(details);
+        assertThat(authenticationCache.getUserDetails("george")).isSameAs(details);
+        verify(userDetailsService, times(1)).loadUserByUsername("george");
+
+        authenticationCache.evictUser("george");
+        authenticationCache.getUserDetails("george");
+        verify(userDetailsService, times(2)).loadUserByUsername("george");
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.libraries.security;
+
+import com.library.libraries.model.User;
+import com.library.libraries.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(UsernameMigration.class)
+class UsernameMigrationTest {
+
+    @Autowired
+    private UsernameMigration usernameMigration;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void normalizeUsernames_lowercasesLegacyUsernamesUnlessTheyClash() {
+        User tyrion = user(" Tyrion ", "tyrion@example.com");
+        User arya = user("arya", "arya@example.com");
+        User shoutingArya = user("ARYA", "arya.shouting@example.com");
+        User sansa = user("Sansa", "sansa@example.com");
+        User shoutingSansa = user("SANSA", "sansa.shouting@example.com");
+
+        usernameMigration.normalizeUsernames();
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        assertThat(username(tyrion)).isEqualTo("tyrion");
+        assertThat(username(arya)).isEqualTo("arya");
+        assertThat(username(shoutingArya)).isEqualTo("ARYA");
+        assertThat(username(sansa)).isEqualTo("sansa");
+        assertThat(username(shoutingSansa)).isEqualTo("SANSA");
+        assertThat(userRepository.findWithUnnormalizedUsername()).extracting(User::getId)
+                .containsExactly(shoutingArya.getId(), shoutingSansa.getId());
+    }
+
+    private User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        return testEntityManager.persistAndFlush(user);
+    }
+
+    private String username(User user) {
+        return userRepository.findById(user.getId()).get().getUsername();
+    }
+}
@@ -4,9 +4,16 @@ import com.library.libraries.dto.AuthorDto;
 import com.library.libraries.dto.AuthorOneDto;
 import com.library.libraries.dto.AuthorUpdateDto;
 import com.library.libraries.exception.AuthorAlreadyExistsException;
+import com.library.libraries.exception.AuthorDeletionException;
 import com.library.libraries.exception.AuthorNotFoundException;
+import com.library.libraries.mapper.AuthorMapper;
 import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
 import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.search.AuthorSearchIndex;
+import com.library.libraries.search.AutocompleteIndex;
 import com.library.libraries.service.AuthorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +22,8 @@ import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Arrays;
@@ -40,6 +49,18 @@ class AuthorServiceImpTest {
     @MockBean
     private ModelMapper modelMapper;
 
+    @MockBean
+    private AuthorMapper authorMapper;
+
+    @MockBean
+    private KeysetPageRepository keysetPageRepository;
+
+    @MockBean
+    private AuthorSearchIndex authorSearchIndex;
+
+    @MockBean
+    private AutocompleteIndex autocompleteIndex;
+
     private Author author;
     private AuthorDto authorDto;
 
@@ -57,7 +78,7 @@ class AuthorServiceImpTest {
         authorDto.setEmail("george@example.com");
 
         when(modelMapper.map(any(), eq(Author.class))).thenReturn(author);
-        when(modelMapper.map(any(Author.class), eq(AuthorDto.class))).thenReturn(authorDto);
+        when(authorMapper.toAuthorDto(any(Author.class))).thenReturn(authorDto);
     }
 
     @Test
@@ -96,8 +117,8 @@ class AuthorServiceImpTest {
         authorDto.setLastname(author.getLastname());
         authorDto.setEmail(author.getEmail());
 
-        given(authorRepository.findByNameOrLastname(name, name)).willReturn(Collections.singletonList(author));
-        given(modelMapper.map(author, AuthorDto.class)).willReturn(authorDto);
+        given(authorRepository.findAuthorDtos(any(Specification.class), eq(Sort.unsorted())))
+                .willReturn(Collections.singletonList(authorDto));
 
         List<AuthorDto> result = authorService.findAllByName(name);
 
@@ -106,6 +127,25 @@ class AuthorServiceImpTest {
         assertThat(result.get(0).getEmail()).isEqualTo("george@example.com");
     }
 
+    @Test
+    void findAllByNameFuzzy_WhenIndexIsReady_ThenReturnsAuthorsInRankOrder() {
+
+        AuthorDto tolkien = new AuthorDto();
+        tolkien.setId(1L);
+        tolkien.setLastname("Tolkien");
+        AuthorDto tolstoy = new AuthorDto();
+        tolstoy.setId(2L);
+        tolstoy.setLastname("Tolstoy");
+
+        given(authorSearchIndex.isReady()).willReturn(true);
+        given(authorSearchIndex.searchNameFuzzy("Tolstoi", 2)).willReturn(Arrays.asList(2L, 1L));
+        given(authorRepository.findAuthorDtosByIds(Arrays.asList(2L, 1L))).willReturn(Arrays.asList(tolkien, tolstoy));
+
+        List<AuthorDto> result = authorService.findAllByNameFuzzy("Tolstoi", 2);
+
+        assertThat(result).extracting(AuthorDto::getLastname).containsExactly("Tolstoy", "Tolkien");
+    }
+
     @Test
     void whenGetOneAuthorById_ThenReturnAuthorOneDto() {
 
@@ -118,8 +158,8 @@ class AuthorServiceImpTest {
         authorOneDto.setId(authorId);
         authorOneDto.setName("George R.R. Martin");
 
-        given(authorRepository.findById(authorId)).willReturn(Optional.of(author));
-        given(modelMapper.map(author, AuthorOneDto.class)).willReturn(authorOneDto);
+        given(authorRepository.findWithBooksById(authorId)).willReturn(Optional.of(author));
+        given(authorMapper.toAuthorOneDto(author)).willReturn(authorOneDto);
 
         AuthorOneDto foundAuthor = authorService.getOne(authorId);
 
@@ -146,7 +186,7 @@ class AuthorServiceImpTest {
         given(authorRepository.findById(authorId)).willReturn(Optional.of(originalAuthor));
         given(modelMapper.map(updateDto, Author.class)).willReturn(updatedAuthor);
         given(authorRepository.save(updatedAuthor)).willReturn(updatedAuthor);
-        given(modelMapper.map(updatedAuthor, AuthorUpdateDto.class)).willReturn(updateDto);
+        given(authorMapper.toAuthorUpdateDto(originalAuthor)).willReturn(updateDto);
 
         AuthorUpdateDto resultDto = authorService.update(authorId, updateDto);
 
@@ -154,4 +194,16 @@ class AuthorServiceImpTest {
         assertThat(resultDto.getName()).isEqualTo("George R.R. Martin");
     }
 
-}
\ No newline at end of file
+    @Test
+    void deleteAuthor_whenABookIsRented_thenThrowsAndKeepsTheAuthor() {
+        Book rented = new Book();
+        rented.setId(7L);
+        rented.setStatus(Status.RENTED);
+        author.setBooks(Collections.singletonList(rented));
+        given(authorRepository.findById(1L)).willReturn(Optional.of(author));
+
+        assertThrows(AuthorDeletionException.class, () -> authorService.delete(1L));
+        verify(authorRepository, never()).delete(any(Author.class));
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.dto.BookImportErrorDto;
+import com.library.libraries.dto.BookImportReportDto;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.service.BookImportService;
+import com.library.libraries.service.util.CsvFormatException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({BookImportServiceImp.class, JacksonAutoConfiguration.class})
+class BookImportServiceImpTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george.import@example.com");
+        author = authorRepository.save(author);
+
+        Book existing = new Book();
+        existing.setTitle("A Game of Thrones");
+        existing.setIsbn("ISBN-EXISTING");
+        existing.setAuthor(author);
+        bookRepository.save(existing);
+    }
+
+    @Test
+    void importCsv_whenRowsAreValid_thenInsertsThemAndReportsRejectedRows() throws IOException {
+        String csv = "title,isbn,publishYear,authorId,status\n"
+                + "A Clash of Kings,ISBN-1,1998," + author.getId() + ",\n"
+                + "A Storm of Swords,ISBN-2,2000," + author.getId() + ",RENTED\n"
+                + "A Game of Thrones,ISBN-3,1996," + author.getId() + ",\n"
+                + "A Feast for Crows,ISBN-1,2005," + author.getId() + ",\n"
+                + "A Dance with Dragons,ISBN-5,2011,999999,\n"
+                + "The Winds of Winter,ISBN-6,soon," + author.getId() + ",\n";
+
+        BookImportReportDto report = bookImportService.importCsv(new StringReader(csv));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(5);
+        assertThat(report.getErrors().stream().map(BookImportErrorDto::getLine).collect(Collectors.toList()))
+                .containsExactly(3, 4, 5, 6, 7);
+        assertThat(bookRepository.findByTitle("A Clash of Kings")).hasSize(1);
+        assertThat(bookRepository.findByTitle("A Clash of Kings").get(0).getStatus()).isEqualTo(Status.FREE);
+        // A rented book without a checkout would have no loan in the rental log.
+        assertThat(bookRepository.findByTitle("A Storm of Swords")).isEmpty();
+    }
+
+    @Test
+    void importCsv_whenRecordIsMalformed_thenStopsWithItsLine() {
+        String csv = "title,isbn,publishYear,authorId,status\n"
+                + "A Clash of Kings,ISBN-1,1998," + author.getId() + ",\n"
+                + "\"A Storm of Swords,ISBN-2,2000," + author.getId() + ",\n"
+                + "A Feast for Crows,ISBN-4,2005," + author.getId() + ",\n";
+
+        CsvFormatException e = assertThrows(CsvFormatException.class,
+                () -> bookImportService.importCsv(new StringReader(csv)));
+
+        assertThat(e.getLine()).isEqualTo(3);
+        assertThat(e.getMessage()).contains("line 3");
+    }
+
+    @Test
+    void importNdjson_whenLineIsInvalid_thenReportsItAndImportsTheRest() throws IOException {
+        String ndjson = "{\"title\":\"Fire & Blood\",\"isbn\":\"ISBN-10\",\"authorId\":" + author.getId() + "}\n"
+                + "{not json}\n"
+                + "\n"
+                + "{\"title\":\"The Hedge Knight\",\"isbn\":\"ISBN-11\"}\n";
+
+        BookImportReportDto report = bookImportService.importNdjson(new StringReader(ndjson));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(BookImportErrorDto::getLine).containsExactly(2, 4);
+        assertThat(bookRepository.findByTitle("Fire & Blood")).hasSize(1);
+    }
+}
@@ -1,14 +1,20 @@
 package com.library.libraries.service.imp;
 
+import com.library.libraries.catalog.InMemoryCatalog;
 import com.library.libraries.dto.BookDto;
 import com.library.libraries.dto.BookOneDto;
 import com.library.libraries.dto.BookUpdateDto;
 import com.library.libraries.exception.BookNotFoundException;
+import com.library.libraries.mapper.BookMapper;
 import com.library.libraries.model.Author;
 import com.library.libraries.model.Book;
 import com.library.libraries.model.Status;
 import com.library.libraries.repository.AuthorRepository;
 import com.library.libraries.repository.BookRepository;
+import com.library.libraries.search.AutocompleteIndex;
+import com.library.libraries.search.BookSearchCriteria;
+import com.library.libraries.search.BookSearchIndex;
+import com.library.libraries.search.BookSearchResultCache;
 import javassist.NotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,12 +23,21 @@ import org.modelmapper.ModelMapper;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -32,12 +47,30 @@ class BookServiceImpTest {
     @Mock
     private ModelMapper modelMapper;
 
+    @Mock
+    private BookMapper bookMapper;
+
     @Mock
     private BookRepository bookRepository;
 
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookSearchResultCache bookSearchResultCache;
+
+    @Mock
+    private InMemoryCatalog catalog;
+
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private BookServiceImp bookService;
 
@@ -67,14 +100,14 @@ class BookServiceImpTest {
         bookUpdateDto.setTitle("A Clash of Kings");
 
         given(modelMapper.map(any(BookOneDto.class), eq(Book.class))).willReturn(book);
-        given(modelMapper.map(any(Book.class), eq(BookOneDto.class))).willReturn(bookOneDto);
+        given(bookMapper.toBookOneDto(any(Book.class))).willReturn(bookOneDto);
         given(modelMapper.map(any(BookUpdateDto.class), eq(Book.class))).willReturn(book);
-        given(modelMapper.map(any(Book.class), eq(BookUpdateDto.class))).willReturn(bookUpdateDto);
+        given(bookMapper.toBookUpdateDto(any(Book.class))).willReturn(bookUpdateDto);
     }
 
     @Test
     void whenGetOneBookById_thenReturnsBookOneDto() throws NotFoundException {
-        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+        given(bookRepository.findWithAuthorById(1L)).willReturn(Optional.of(book));
 
         BookOneDto resultDto = bookService.getOne(1L);
 
@@ -86,7 +119,7 @@ class BookServiceImpTest {
     @Test
     void whenUpdateBook_thenReturnsUpdatedBookDto() throws NotFoundException {
         given(bookRepository.findById(1L)).willReturn(Optional.of(book));
-        given(bookRepository.save(any(Book.class))).willReturn(book);
+        given(bookRepository.saveAndFlush(any(Book.class))).willReturn(book);
 
         BookUpdateDto resultDto = bookService.update(1L, bookUpdateDto);
 
@@ -96,8 +129,63 @@ class BookServiceImpTest {
 
     @Test
     void whenGetOneBookById_thenThrowsBookNotFoundException() {
-        given(bookRepository.findById(1L)).willReturn(Optional.empty());
+        given(bookRepository.findWithAuthorById(1L)).willReturn(Optional.empty());
 
         assertThrows(BookNotFoundException.class, () -> bookService.getOne(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenUpdateChangesTheStatus_thenThrowsIllegalStateException() {
+        bookUpdateDto.setStatus(Status.RENTED);
+        given(bookRepository.findById(1L)).willReturn(Optional.of(book));
+
+        assertThrows(IllegalStateException.class, () -> bookService.update(1L, bookUpdateDto));
+        assertThat(book.getStatus()).isEqualTo(Status.FREE);
+    }
+
+    @Test
+    void whenCatalogIsReady_thenSearchLoadsTheResultCacheFromTheCatalog() {
+        BookDto criteria = new BookDto();
+        criteria.setTitle("A Game of Thrones");
+        given(catalog.isReady()).willReturn(true);
+        given(catalog.searchBooks(criteria)).willReturn(Collections.singletonList(criteria));
+        given(bookSearchResultCache.get(eq(BookSearchCriteria.of(criteria)), any())).willAnswer(loadingThrough());
+
+        assertThat(bookService.searchBooks(criteria)).containsExactly(criteria);
+        verify(bookRepository, never()).findBookDtos(any(), any(Sort.class));
+    }
+
+    @Test
+    void whenCatalogIsLoading_thenSearchLoadsTheResultCacheFromTheDatabase() {
+        BookDto criteria = new BookDto();
+        criteria.setTitle("A Game of Thrones");
+        given(catalog.isReady()).willReturn(false);
+        given(bookRepository.findBookDtos(any(), any(Sort.class))).willReturn(Collections.singletonList(criteria));
+        given(bookSearchResultCache.get(eq(BookSearchCriteria.of(criteria)), any())).willAnswer(loadingThrough());
+
+        assertThat(bookService.searchBooks(criteria)).containsExactly(criteria);
+        verify(catalog, never()).searchBooks(any());
+    }
+
+    @Test
+    void whenTitleSearchMatchesTooManyBooks_thenTheFirstThousandAreReadFromTheCatalog() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1500; id++) {
+            ids.add(id);
+        }
+        given(bookSearchIndex.isReady()).willReturn(true);
+        given(bookSearchIndex.searchTitle("a")).willReturn(ids);
+        given(catalog.isReady()).willReturn(true);
+        given(catalog.findBooks(ids.subList(0, 1000))).willReturn(Collections.singletonList(new BookDto()));
+
+        assertThat(bookService.searchBooksByTitle("a")).hasSize(1);
+        verify(bookRepository, never()).findBookDtosByIds(any());
+    }
+
+    private static Answer<List<BookDto>> loadingThrough() {
+        return invocation -> {
+            Function<BookSearchCriteria, List<BookDto>> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.ModelMapperTestConfiguration;
+import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.logging.LoggerFacade;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.rental.RentalOutbox;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.repository.StudentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lets several students race for the same free book, round after round, through real transactions.
+ * Exactly one of them may win each round, and the book must end up rented to the winner.
+ */
+@DataJpaTest
+@Import({StudentServiceImp.class, StudentMapperImpl.class, BookMapperImpl.class, KeysetPageRepository.class,
+        RentalOutbox.class, ModelMapperTestConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConcurrentCheckoutTest {
+
+    private static final LoggerFacade logger = new LoggerFacade(ConcurrentCheckoutTest.class);
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private StudentServiceImp studentService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private final List<Long> studentIds = new ArrayList<>();
+    private final List<Long> bookIds = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        Author author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george.race@example.com");
+        author = authorRepository.save(author);
+
+        for (int i = 0; i < THREADS; i++) {
+            Student student = new Student();
+            student.setRegistration("REG-RACE-" + i);
+            student.setFullname("Student " + i);
+            student.setEmail("student.race" + i + "@example.com");
+            student.setPhone("555-01" + i);
+            studentIds.add(studentRepository.save(student).getId());
+        }
+
+        for (int i = 0; i < ROUNDS; i++) {
+            Book book = new Book();
+            book.setTitle("Contended " + i);
+            book.setIsbn("ISBN-RACE-" + i);
+            book.setStatus(Status.FREE);
+            book.setAuthor(author);
+            bookIds.add(bookRepository.save(book).getId());
+        }
+
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        bookRepository.deleteAll();
+        studentRepository.deleteAll();
+        authorRepository.deleteAll();
+    }
+
+    @Test
+    void whenStudentsRaceForTheSameBook_thenExactlyOneRentsIt() throws Exception {
+        long attempts = 0;
+        long started = System.nanoTime();
+
+        for (Long bookId : bookIds) {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (Long studentId : studentIds) {
+                outcomes.add(executor.submit(checkOut(start, studentId, bookId)));
+            }
+            start.countDown();
+
+            List<Long> winners = new ArrayList<>();
+            for (int i = 0; i < outcomes.size(); i++) {
+                if (outcomes.get(i).get(30, TimeUnit.SECONDS)) {
+                    winners.add(studentIds.get(i));
+                }
+            }
+            attempts += outcomes.size();
+
+            assertThat(winners).as("winners for book %d", bookId).hasSize(1);
+            Book book = bookRepository.findWithAuthorById(bookId).get();
+            assertThat(book.getStatus()).isEqualTo(Status.RENTED);
+            assertThat(book.getStudent().getId()).isEqualTo(winners.get(0));
+            assertThat(book.getVersion()).isEqualTo(1L);
+        }
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("{} contended checkouts over {} books in {} s ({} attempts/s)",
+                attempts, ROUNDS, String.format("%.3f", seconds), String.format("%.0f", attempts / seconds));
+    }
+
+    @Test
+    void whenStudentsRaceToReturnARentedBook_thenOnlyTheRenterSucceeds() throws Exception {
+        Long bookId = bookIds.get(0);
+        Long renterId = studentIds.get(0);
+        studentService.getBookForStudent(patch(renterId, bookId));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (Long studentId : studentIds) {
+            outcomes.add(executor.submit(checkIn(start, studentId, bookId)));
+            outcomes.add(executor.submit(checkIn(start, renterId, bookId)));
+        }
+        start.countDown();
+
+        int successes = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            if (outcome.get(30, TimeUnit.SECONDS)) {
+                successes++;
+            }
+        }
+
+        assertThat(successes).isEqualTo(1);
+        assertThat(bookRepository.findById(bookId).get().getStatus()).isEqualTo(Status.FREE);
+    }
+
+    private Callable<Boolean> checkOut(CountDownLatch start, Long studentId, Long bookId) {
+        return () -> {
+            start.await();
+            try {
+                studentService.getBookForStudent(patch(studentId, bookId));
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        };
+    }
+
+    private Callable<Boolean> checkIn(CountDownLatch start, Long studentId, Long bookId) {
+        return () -> {
+            start.await();
+            try {
+                studentService.leaveBookForStudent(patch(studentId, bookId));
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        };
+    }
+
+    private static StudentPatchDto patch(Long studentId, Long bookId) {
+        StudentPatchDto patch = new StudentPatchDto();
+        patch.setStudentId(studentId);
+        patch.setBookId(bookId);
+        return patch;
+    }
+}
@@ -0,0 +1,223 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.ModelMapperTestConfiguration;
+import com.library.libraries.catalog.InMemoryCatalog;
+import com.library.libraries.controller.AuthorController;
+import com.library.libraries.controller.BookController;
+import com.library.libraries.controller.StudentController;
+import com.library.libraries.dto.AuthorDto;
+import com.library.libraries.dto.AuthorOneDto;
+import com.library.libraries.dto.BookDto;
+import com.library.libraries.dto.BookOneDto;
+import com.library.libraries.dto.StudentDto;
+import com.library.libraries.mapper.AuthorMapperImpl;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.rental.RentalOutbox;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.search.AuthorSearchIndex;
+import com.library.libraries.search.AutocompleteIndex;
+import com.library.libraries.search.BookSearchIndex;
+import com.library.libraries.search.BookSearchResultCache;
+import com.library.libraries.sql.SqlBudget;
+import com.library.libraries.sql.SqlCapture;
+import com.library.libraries.sql.SqlInspectionConfig;
+import javassist.NotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements each read use case executes, so a collection that goes back to eager
+ * loading, or a listing that starts loading rows one parent at a time, fails here. Each count must also fit
+ * the {@link SqlBudget} of the endpoint serving it.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({AuthorServiceImp.class, BookServiceImp.class, StudentServiceImp.class, KeysetPageRepository.class,
+        RentalOutbox.class, BookSearchResultCache.class, AuthorMapperImpl.class, BookMapperImpl.class,
+        StudentMapperImpl.class, ModelMapperTestConfiguration.class, SqlInspectionConfig.class})
+class FetchPlanStatementCountTest {
+
+    private static final int AUTHORS = 5;
+    private static final int BOOKS_PER_AUTHOR = 3;
+    private static final int STUDENTS = 4;
+    private static final int AUTHENTICATION_STATEMENTS = 1;
+
+    @MockBean
+    private AuthorSearchIndex authorSearchIndex;
+
+    @MockBean
+    private BookSearchIndex bookSearchIndex;
+
+    @MockBean
+    private InMemoryCatalog catalog;
+
+    @MockBean
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private AuthorServiceImp authorService;
+
+    @Autowired
+    private BookServiceImp bookService;
+
+    @Autowired
+    private StudentServiceImp studentService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long authorId;
+    private Long bookId;
+    private Long studentId;
+
+    @BeforeEach
+    void setUp() {
+        Student[] students = new Student[STUDENTS];
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setRegistration("REG-" + i);
+            student.setFullname("Student " + i);
+            student.setEmail("student" + i + "@example.com");
+            student.setPhone("555-000" + i);
+            students[i] = testEntityManager.persist(student);
+        }
+
+        int rented = 0;
+        for (int i = 0; i < AUTHORS; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setLastname("Lastname " + i);
+            author.setEmail("author" + i + "@example.com");
+            testEntityManager.persist(author);
+            authorId = author.getId();
+
+            for (int j = 0; j < BOOKS_PER_AUTHOR; j++) {
+                Book book = new Book();
+                book.setTitle("Book " + i + "-" + j);
+                book.setIsbn("ISBN-" + i + "-" + j);
+                book.setAuthor(author);
+                if (j == 0) {
+                    book.setStudent(students[rented++ % STUDENTS]);
+                    book.setStatus(Status.RENTED);
+                } else {
+                    book.setStatus(Status.FREE);
+                }
+                testEntityManager.persist(book);
+                bookId = book.getId();
+            }
+        }
+        studentId = students[0].getId();
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void authorListing_selectsBooksForAllAuthorsInOneStatement() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            List<AuthorDto> authors = authorService.getAll();
+
+            assertThat(authors).hasSize(AUTHORS);
+            assertThat(authors).allSatisfy(author -> assertThat(author.getBooks()).hasSize(BOOKS_PER_AUTHOR));
+            capture.assertStatements(2);
+            capture.assertStatementsAtMost(budgetOf(AuthorController.class, "getAll"));
+        }
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void authorDetail_loadsAuthorAndBooksInOneStatement() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            AuthorOneDto author = authorService.getOne(authorId);
+
+            assertThat(author.getBooks()).hasSize(BOOKS_PER_AUTHOR);
+            capture.assertStatements(1);
+            capture.assertStatementsAtMost(budgetOf(AuthorController.class, "getOneAuthor", Long.class));
+        }
+    }
+
+    @Test
+    void bookListing_selectsBooksWithTheirAuthorsInOneStatement() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            List<BookDto> books = bookService.getAll();
+
+            assertThat(books).hasSize(AUTHORS * BOOKS_PER_AUTHOR);
+            assertThat(books).allSatisfy(book -> assertThat(book.getAuthor()).isNotNull());
+            capture.assertStatements(1);
+            capture.assertStatementsAtMost(budgetOf(BookController.class, "getAll"));
+        }
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void bookDetail_loadsBookAndAuthorInOneStatement() throws NotFoundException {
+        try (SqlCapture capture = SqlCapture.start()) {
+            BookOneDto book = bookService.getOne(bookId);
+
+            assertThat(book.getAuthor()).isNotNull();
+            capture.assertStatements(1);
+            capture.assertStatementsAtMost(budgetOf(BookController.class, "getOneAuthor", Long.class));
+        }
+    }
+
+    @Test
+    void studentListing_selectsBooksAndTheirAuthorsInOneStatement() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            List<StudentDto> students = studentService.getAll();
+
+            assertThat(students).hasSize(STUDENTS);
+            capture.assertStatements(2);
+            capture.assertStatementsAtMost(budgetOf(StudentController.class, "getAll"));
+        }
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void studentDetail_loadsStudentBooksAndAuthorsInOneStatement() throws NotFoundException {
+        try (SqlCapture capture = SqlCapture.start()) {
+            StudentDto student = studentService.findById(studentId);
+
+            assertThat(student.getBooks()).hasSize(2);
+            assertThat(student.getBooks()).allSatisfy(book -> assertThat(book.getAuthor()).isNotNull());
+            capture.assertStatements(1);
+            capture.assertStatementsAtMost(budgetOf(StudentController.class, "getOne", Long.class));
+        }
+    }
+
+    /**
+     * The {@link SqlBudget} of the endpoint serving the use case, less the statement it leaves for
+     * authentication.
+     */
+    private static long budgetOf(Class<?> controller, String method, Class<?>... parameterTypes) {
+        try {
+            return controller.getMethod(method, parameterTypes).getAnnotation(SqlBudget.class).statements()
+                    - AUTHENTICATION_STATEMENTS;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
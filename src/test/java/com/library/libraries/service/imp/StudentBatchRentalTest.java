@@ -0,0 +1,305 @@
+package com.library.libraries.service.imp;
+
+import com.library.libraries.ModelMapperTestConfiguration;
+import com.library.libraries.dto.BookRentalResultDto;
+import com.library.libraries.dto.StudentBatchPatchDto;
+import com.library.libraries.dto.StudentBatchPatchReportDto;
+import com.library.libraries.dto.StudentPatchDto;
+import com.library.libraries.event.BookSnapshot;
+import com.library.libraries.mapper.BookMapperImpl;
+import com.library.libraries.mapper.StudentMapperImpl;
+import com.library.libraries.model.Author;
+import com.library.libraries.model.Book;
+import com.library.libraries.model.Status;
+import com.library.libraries.model.Student;
+import com.library.libraries.model.rental.RentalEvent;
+import com.library.libraries.model.rental.RentalEventType;
+import com.library.libraries.rental.RentalOutbox;
+import com.library.libraries.repository.AuthorRepository;
+import com.library.libraries.repository.BookRepository;
+import com.library.libraries.repository.KeysetPageRepository;
+import com.library.libraries.repository.RentalEventRepository;
+import com.library.libraries.repository.RentalOutboxRepository;
+import com.library.libraries.repository.StudentRepository;
+import javassist.NotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({StudentServiceImp.class, StudentMapperImpl.class, BookMapperImpl.class, KeysetPageRepository.class,
+        RentalOutbox.class, ModelMapperTestConfiguration.class})
+class StudentBatchRentalTest {
+
+    private static final long MISSING_BOOK_ID = Long.MAX_VALUE;
+
+    private static final int RACE_ROUNDS = 20;
+    private static final int RACE_BOOKS = 8;
+
+    @Autowired
+    private StudentServiceImp studentService;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private RentalEventRepository rentalEventRepository;
+
+    @Autowired
+    private RentalOutboxRepository rentalOutboxRepository;
+
+    private Statistics statistics;
+
+    private Student arya;
+    private Book free;
+    private Book alsoFree;
+    private Book rentedByArya;
+    private Book rentedByBran;
+
+    @BeforeEach
+    void setUp() {
+        Author author = new Author();
+        author.setName("George");
+        author.setLastname("Martin");
+        author.setEmail("george.batch@example.com");
+        testEntityManager.persist(author);
+
+        arya = student("REG-BATCH-1", "Arya Stark", "arya.batch@example.com");
+        Student bran = student("REG-BATCH-2", "Bran Stark", "bran.batch@example.com");
+
+        free = book("A Game of Thrones", "ISBN-BATCH-1", author, null);
+        alsoFree = book("A Clash of Kings", "ISBN-BATCH-2", author, null);
+        rentedByArya = book("A Storm of Swords", "ISBN-BATCH-3", author, arya);
+        rentedByBran = book("A Feast for Crows", "ISBN-BATCH-4", author, bran);
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getBooksForStudent_rentsFreeBooksAndReportsTheRest() throws NotFoundException {
+        StudentBatchPatchReportDto report = studentService.getBooksForStudent(
+                patch(arya, free.getId(), rentedByBran.getId(), alsoFree.getId(), MISSING_BOOK_ID, free.getId()));
+
+        assertThat(report.getSucceeded()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getBooks()).extracting(BookRentalResultDto::getBookId, BookRentalResultDto::isSuccess)
+                .containsExactly(
+                        tuple(free.getId(), true),
+                        tuple(rentedByBran.getId(), false),
+                        tuple(alsoFree.getId(), true),
+                        tuple(MISSING_BOOK_ID, false));
+        assertThat(report.getStudent().getBooks()).hasSize(3);
+        assertThat(testEntityManager.find(Book.class, free.getId()).getStatus()).isEqualTo(Status.RENTED);
+        assertThat(testEntityManager.find(Book.class, rentedByBran.getId()).getStudent().getFullname())
+                .isEqualTo("Bran Stark");
+    }
+
+    @Test
+    void leaveBooksForStudent_returnsOnlyTheStudentsBooks() throws NotFoundException {
+        StudentBatchPatchReportDto report = studentService.leaveBooksForStudent(
+                patch(arya, rentedByArya.getId(), rentedByBran.getId(), free.getId()));
+
+        assertThat(report.getSucceeded()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getStudent().getBooks()).isEmpty();
+        assertThat(testEntityManager.find(Book.class, rentedByArya.getId()).getStatus()).isEqualTo(Status.FREE);
+        assertThat(testEntityManager.find(Book.class, rentedByBran.getId()).getStatus()).isEqualTo(Status.RENTED);
+    }
+
+    @Test
+    void getBooksForStudent_usesTheSameStatementsWhateverTheBatchSize() throws NotFoundException {
+        studentService.getBooksForStudent(
+                patch(arya, free.getId(), alsoFree.getId(), rentedByArya.getId(), rentedByBran.getId()));
+
+        // The rental events are only inserted at commit; the first rental may have to reserve a block of ids.
+        assertThat(statistics.getPrepareStatementCount()).isBetween(6L, 7L);
+    }
+
+    /**
+     * Runs outside the test transaction: one student rents a batch of books while their renter returns them
+     * one by one on another thread. Whatever the interleaving, the report, the rental log and the table must
+     * agree on which books the batch rented.
+     */
+    @Test
+    void getBooksForStudent_whenBooksAreReturnedMeanwhile_thenReportsEveryBookItRented() throws Exception {
+        TransactionTemplate committed = new TransactionTemplate(transactionManager);
+        committed.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Long> authorIds = new ArrayList<>();
+        List<Long> studentIds = new ArrayList<>();
+        List<Long> bookIds = new ArrayList<>();
+
+        try {
+            for (int round = 0; round < RACE_ROUNDS; round++) {
+                List<Long> roundBookIds = new ArrayList<>();
+                String suffix = "-" + round;
+                Long[] renterAndBorrower = committed.execute(status -> {
+                    Author author = new Author();
+                    author.setName("George");
+                    author.setLastname("Martin");
+                    author.setEmail("george.return-race" + suffix + "@example.com");
+                    authorIds.add(authorRepository.save(author).getId());
+
+                    Student renter = studentRepository.save(newStudent("REG-RETURN-RACE-A" + suffix,
+                            "Arya Stark", "arya.return-race" + suffix + "@example.com"));
+                    Student borrower = studentRepository.save(newStudent("REG-RETURN-RACE-B" + suffix,
+                            "Bran Stark", "bran.return-race" + suffix + "@example.com"));
+                    for (int i = 0; i < RACE_BOOKS; i++) {
+                        roundBookIds.add(bookRepository.save(newBook("Returned " + i + suffix,
+                                "ISBN-RETURN-RACE-" + i + suffix, author, borrower)).getId());
+                    }
+                    return new Long[]{renter.getId(), borrower.getId()};
+                });
+                Long renterId = renterAndBorrower[0];
+                Long borrowerId = renterAndBorrower[1];
+                studentIds.addAll(Arrays.asList(renterId, borrowerId));
+                bookIds.addAll(roundBookIds);
+
+                CountDownLatch start = new CountDownLatch(1);
+                Future<StudentBatchPatchReportDto> rentals = executor.submit(() -> {
+                    start.await();
+                    return studentService.getBooksForStudent(
+                            patch(renterId, roundBookIds.toArray(new Long[0])));
+                });
+                Future<?> returns = executor.submit(() -> {
+                    start.await();
+                    for (Long bookId : roundBookIds) {
+                        StudentPatchDto giveBack = new StudentPatchDto();
+                        giveBack.setStudentId(borrowerId);
+                        giveBack.setBookId(bookId);
+                        studentService.leaveBookForStudent(giveBack);
+                    }
+                    return null;
+                });
+                start.countDown();
+                StudentBatchPatchReportDto report = rentals.get(30, TimeUnit.SECONDS);
+                returns.get(30, TimeUnit.SECONDS);
+
+                Set<Long> reported = report.getBooks().stream()
+                        .filter(BookRentalResultDto::isSuccess)
+                        .map(BookRentalResultDto::getBookId)
+                        .collect(Collectors.toSet());
+                Set<Long> rented = committed.execute(status -> bookRepository.findSnapshots(roundBookIds).stream()
+                        .filter(book -> book.getStatus() == Status.RENTED && renterId.equals(book.getStudentId()))
+                        .map(BookSnapshot::getId)
+                        .collect(Collectors.toSet()));
+                Set<Long> logged = new HashSet<>();
+                for (RentalEvent event : rentalEventRepository.findAll()) {
+                    if (event.getType() == RentalEventType.CHECKOUT && renterId.equals(event.getStudentId())) {
+                        logged.add(event.getBookId());
+                    }
+                }
+
+                assertThat(rented).as("round %d", round).isEqualTo(reported);
+                assertThat(logged).as("round %d", round).isEqualTo(reported);
+            }
+        } finally {
+            executor.shutdownNow();
+            committed.execute(status -> {
+                List<RentalEvent> events = rentalEventRepository.findAll().stream()
+                        .filter(event -> bookIds.contains(event.getBookId()))
+                        .collect(Collectors.toList());
+                if (!events.isEmpty()) {
+                    rentalOutboxRepository.deleteByEventIds(events.stream().map(RentalEvent::getId)
+                            .collect(Collectors.toList()));
+                    rentalEventRepository.deleteAll(events);
+                }
+                bookRepository.deleteAll(bookRepository.findAllById(bookIds));
+                studentRepository.deleteAll(studentRepository.findAllById(studentIds));
+                authorRepository.deleteAll(authorRepository.findAllById(authorIds));
+                return null;
+            });
+        }
+    }
+
+    @Test
+    void getBooksForStudent_whenStudentIsMissing_thenThrowsNotFound() {
+        Student missing = new Student();
+        missing.setId(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> studentService.getBooksForStudent(patch(missing, free.getId())))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private Student student(String registration, String fullname, String email) {
+        return testEntityManager.persist(newStudent(registration, fullname, email));
+    }
+
+    private Book book(String title, String isbn, Author author, Student student) {
+        return testEntityManager.persist(newBook(title, isbn, author, student));
+    }
+
+    private static Student newStudent(String registration, String fullname, String email) {
+        Student student = new Student();
+        student.setRegistration(registration);
+        student.setFullname(fullname);
+        student.setEmail(email);
+        student.setPhone("555-" + registration);
+        return student;
+    }
+
+    private static Book newBook(String title, String isbn, Author author, Student student) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setAuthor(author);
+        book.setStudent(student);
+        book.setStatus(student != null ? Status.RENTED : Status.FREE);
+        return book;
+    }
+
+    private static StudentBatchPatchDto patch(Student student, Long... bookIds) {
+        return patch(student.getId(), bookIds);
+    }
+
+    private static StudentBatchPatchDto patch(Long studentId, Long... bookIds) {
+        StudentBatchPatchDto patch = new StudentBatchPatchDto();
+        patch.setStudentId(studentId);
+        patch.setBookIds(Arrays.asList(bookIds));
+        return patch;
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.libraries.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readRecord_whenFieldsArePlain_thenSplitsOnCommas() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("title,isbn\nA Game of Thrones,ISBN001\n"));
+
+        assertThat(csv.readRecord()).containsExactly("title", "isbn");
+        assertThat(csv.readRecord()).containsExactly("A Game of Thrones", "ISBN001");
+        assertThat(csv.getRecordLineNumber()).isEqualTo(2);
+        assertThat(csv.readRecord()).isNull();
+    }
+
+    @Test
+    void readRecord_whenFieldsAreQuoted_thenKeepsCommasQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\"Fire, Blood\",\"The \"\"Dance\"\"\",\"two\nlines\",\n\nnext"));
+
+        assertThat(csv.readRecord()).isEqualTo(Arrays.asList("Fire, Blood", "The \"Dance\"", "two\nlines", ""));
+        assertThat(csv.readRecord()).containsExactly("next");
+        assertThat(csv.getRecordLineNumber()).isEqualTo(4);
+    }
+
+    @Test
+    void readRecord_whenQuoteIsNotClosed_thenThrowsWithTheLine() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("title,isbn\n\"unterminated,ISBN001\nnext,ISBN002"));
+        csv.readRecord();
+
+        CsvFormatException e = assertThrows(CsvFormatException.class, csv::readRecord);
+        assertThat(e.getLine()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.library.libraries.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void whenEncodedAndDecoded_thenKeepsSortPropertyKeyAndId() {
+        PageCursor cursor = PageCursor.decode(PageCursor.after("title", "A Game: of Thrones", 42L).encode());
+
+        assertThat(cursor.getSortProperty()).isEqualTo("title");
+        assertThat(cursor.getLastKey()).isEqualTo("A Game: of Thrones");
+        assertThat(cursor.getLastId()).isEqualTo(42L);
+    }
+
+    @Test
+    void whenKeyIsNullOrEmpty_thenBothSurviveRoundTrip() {
+        assertThat(PageCursor.decode(PageCursor.after("title", null, 1L).encode()).getLastKey()).isNull();
+        assertThat(PageCursor.decode(PageCursor.after("title", "", 1L).encode()).getLastKey()).isEmpty();
+    }
+
+    @Test
+    void whenTokenIsMalformed_thenThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("dGl0bGU"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.library.libraries.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlBudgetFilterTest {
+
+    static class Handler {
+
+        @SqlBudget(statements = 5)
+        public void generous() {
+        }
+
+        public void regular() {
+        }
+    }
+
+    private static final String SQL = "select * from book where id = ?";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SqlBudgetFilter filter = new SqlBudgetFilter(2, true, registry);
+
+    @Test
+    void whenWithinBudget_thenRequestPasses() {
+        MockHttpServletRequest request = request("regular");
+
+        assertThatCode(() -> filter.doFilter(request, new MockHttpServletResponse(), executing(2)))
+                .doesNotThrowAnyException();
+        assertThat(registry.get("library.sql.statements").tag("uri", "/api/test").summary().totalAmount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void whenOverBudget_thenRequestFailsWithTheCounts() {
+        MockHttpServletRequest request = request("regular");
+
+        assertThatThrownBy(() -> filter.doFilter(request, new MockHttpServletResponse(), executing(3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /api/test executed 3 SQL statements over a budget of 2");
+    }
+
+    @Test
+    void whenOverBudget_thenNothingReachesTheClient() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> filter.doFilter(request("regular"), response, writing("[]", 3)))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void whenWithinBudget_thenTheBufferedBodyIsSent() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("regular"), response, writing("[]", 2));
+
+        assertThat(response.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void whenOnlyLogging_thenRequestsOverBudgetAreCounted() {
+        SqlBudgetFilter loggingFilter = new SqlBudgetFilter(2, false, registry);
+
+        assertThatCode(() -> loggingFilter.doFilter(request("regular"), new MockHttpServletResponse(), executing(3)))
+                .doesNotThrowAnyException();
+        assertThat(registry.get("library.sql.budget.exceeded").tag("uri", "/api/test").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void whenHandlerRunsOnAnotherThread_thenItsStatementsCountOnTheAsyncDispatch() throws Exception {
+        SqlBudgetFilter loggingFilter = new SqlBudgetFilter(2, false, registry);
+        MockHttpServletRequest request = request("regular");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        loggingFilter.doFilter(request, response, (req, res) -> {
+            SqlCapture.current().recordStatement(SQL, 1000, 1);
+            WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(req);
+            asyncManager.setAsyncWebRequest(
+                    new StandardServletAsyncWebRequest((HttpServletRequest) req, (HttpServletResponse) res));
+            try {
+                asyncManager.startCallableProcessing(() -> {
+                    for (int i = 0; i < 3; i++) {
+                        SqlCapture.current().recordStatement(SQL, 1000, 1);
+                    }
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(registry.find("library.sql.statements").summary()).isNull();
+
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!asyncManager.hasConcurrentResult() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(asyncManager.hasConcurrentResult()).isTrue();
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        loggingFilter.doFilter(request, response, (req, res) -> {
+        });
+
+        assertThat(registry.get("library.sql.statements").tag("uri", "/api/test").summary().totalAmount())
+                .isEqualTo(4);
+        assertThat(registry.get("library.sql.budget.exceeded").counter().count()).isEqualTo(1);
+        assertThat(SqlCapture.current()).isNull();
+    }
+
+    @Test
+    void whenHandlerDeclaresABudget_thenItOverridesTheDefault() {
+        MockHttpServletRequest request = request("generous");
+
+        assertThatCode(() -> filter.doFilter(request, new MockHttpServletResponse(), executing(5)))
+                .doesNotThrowAnyException();
+        assertThat(SqlCapture.current()).isNull();
+    }
+
+    private static MockHttpServletRequest request(String handlerMethod) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/test");
+        try {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                    new HandlerMethod(new Handler(), handlerMethod));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/test");
+        return request;
+    }
+
+    private static FilterChain executing(int statements) {
+        return (request, response) -> {
+            for (int i = 0; i < statements; i++) {
+                SqlCapture.current().recordStatement(SQL, 1000, 1);
+            }
+        };
+    }
+
+    private static FilterChain writing(String body, int statements) {
+        return (request, response) -> {
+            response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+            response.flushBuffer();
+            executing(statements).doFilter(request, response);
+        };
+    }
+}
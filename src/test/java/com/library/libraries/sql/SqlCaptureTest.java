@@ -0,0 +1,88 @@
+package com.library.libraries.sql;
+
+import com.library.libraries.model.Author;
+import com.library.libraries.repository.AuthorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(SqlInspectionConfig.class)
+class SqlCaptureTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            author.setLastname("Capture");
+            author.setEmail("author.capture" + i + "@example.com");
+            testEntityManager.persist(author);
+        }
+        testEntityManager.flush();
+        testEntityManager.clear();
+    }
+
+    @Test
+    void dataSourceIsInspected() {
+        assertThat(dataSource).isInstanceOf(InspectingDataSource.class);
+    }
+
+    @Test
+    void whenQueryRuns_thenStatementsAndRowsAreCounted() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            assertThat(authorRepository.findAll()).hasSize(3);
+
+            assertThat(capture.getStatements()).isEqualTo(1);
+            assertThat(capture.getRows()).isEqualTo(3);
+            capture.assertStatements(1);
+            assertThat(capture.describe(10)).contains("1x").contains("author");
+        }
+    }
+
+    @Test
+    void whenOverTheLimit_thenTheAssertionListsTheStatements() {
+        try (SqlCapture capture = SqlCapture.start()) {
+            authorRepository.findAll();
+            testEntityManager.clear();
+            authorRepository.findAll();
+
+            assertThatThrownBy(() -> capture.assertStatementsAtMost(1))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("Expected at most 1 SQL statements but 2 were executed")
+                    .hasMessageContaining("2x");
+        }
+    }
+
+    @Test
+    void capturesNestAndStopCountingWhenClosed() {
+        try (SqlCapture outer = SqlCapture.start()) {
+            authorRepository.findAll();
+            try (SqlCapture inner = SqlCapture.start()) {
+                testEntityManager.clear();
+                authorRepository.findAll();
+                assertThat(inner.getStatements()).isEqualTo(1);
+            }
+            assertThat(outer.getStatements()).isEqualTo(2);
+        }
+
+        assertThat(SqlCapture.current()).isNull();
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.libraries.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlInspectorTest {
+
+    @Test
+    void whenParametersAreDescribed_thenOnlyTheirKindsAreShown() {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        parameters.put(1, "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy");
+        parameters.put(2, 42L);
+        parameters.put(3, null);
+        parameters.put(4, new byte[]{1, 2, 3});
+
+        assertThat(SqlInspector.describe(parameters))
+                .isEqualTo("[1=<60 chars>, 2=<Long>, 3=null, 4=<3 bytes>]")
+                .doesNotContain("$2a$");
+    }
+}